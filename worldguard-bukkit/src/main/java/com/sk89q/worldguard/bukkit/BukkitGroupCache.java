@@ -0,0 +1,207 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.bukkit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableSet;
+import com.sk89q.worldguard.WorldGuard;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Caches the groups of online players, so that region group domains can be
+ * tested without asking the permissions plugin for every group of every
+ * region on every check.
+ *
+ * <p>The groups of a player are loaded off the main thread when the player
+ * joins or changes worlds (group membership may be per-world), and then
+ * again at the configured interval. Until the groups of a player have been
+ * loaded, {@link #get(Player)} returns {@code null} and callers should fall
+ * back to asking the permissions plugin directly.</p>
+ *
+ * <p>There is no generic Bukkit event for permission changes, so plugins
+ * that change groups can call {@link #refresh(Player)} to have the change
+ * picked up before the next scheduled refresh.</p>
+ *
+ * <p>Refreshes are coalesced: players waiting for a refresh are collected
+ * and loaded by a single background task, as the shared executor only has
+ * a small queue. If that task cannot be queued, the groups are loaded on
+ * the calling thread instead.</p>
+ */
+public class BukkitGroupCache implements Listener, Runnable {
+
+    private static final Logger log = Logger.getLogger(BukkitGroupCache.class.getCanonicalName());
+
+    private final WorldGuardPlugin plugin;
+    private final ConcurrentMap<UUID, Set<String>> groups = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, Player> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * Create a new instance.
+     *
+     * @param plugin the plugin
+     */
+    BukkitGroupCache(WorldGuardPlugin plugin) {
+        checkNotNull(plugin);
+        this.plugin = plugin;
+    }
+
+    /**
+     * Get the cached groups of a player.
+     *
+     * @param player the player
+     * @return an immutable set of lower-cased group names, or {@code null} if not loaded yet
+     */
+    @Nullable
+    public Set<String> get(Player player) {
+        if (groups.isEmpty()) {
+            return null;
+        }
+        return groups.get(player.getUniqueId());
+    }
+
+    /**
+     * Reload the groups of a player in the background.
+     *
+     * <p>The previously cached groups remain in use until the reload
+     * has completed.</p>
+     *
+     * @param player the player
+     */
+    public void refresh(Player player) {
+        checkNotNull(player);
+        pending.put(player.getUniqueId(), player);
+        schedule();
+    }
+
+    /**
+     * Forget the cached groups of a player.
+     *
+     * @param player the player
+     */
+    public void invalidate(Player player) {
+        groups.remove(player.getUniqueId());
+    }
+
+    /**
+     * Forget the cached groups of all players.
+     */
+    public void clear() {
+        groups.clear();
+    }
+
+    private void schedule() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return; // The queued task will pick up the new players
+        }
+
+        try {
+            WorldGuard.getInstance().getExecutorService().submit(this::loadPending);
+        } catch (RejectedExecutionException e) {
+            // The queue is full or the executor is shutting down, so don't
+            // leave the players with stale groups
+            loadPending();
+        }
+    }
+
+    private void loadPending() {
+        scheduled.set(false);
+
+        Iterator<Player> it = pending.values().iterator();
+        while (it.hasNext()) {
+            Player player = it.next();
+            it.remove();
+            load(player);
+        }
+    }
+
+    private void load(Player player) {
+        if (!player.isOnline()) {
+            return;
+        }
+
+        try {
+            ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+            for (String group : plugin.getGroups(player)) {
+                builder.add(group.toLowerCase(Locale.ROOT));
+            }
+            Set<String> loaded = builder.build();
+
+            // The player may have quit while the groups were being loaded
+            if (player.isOnline()) {
+                groups.put(player.getUniqueId(), loaded);
+            }
+        } catch (Throwable t) {
+            log.log(Level.WARNING, "Nepodařilo se načíst skupiny hráče " + player.getName(), t);
+            groups.remove(player.getUniqueId());
+        }
+    }
+
+    /**
+     * Refresh the groups of all online players.
+     */
+    @Override
+    public void run() {
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            pending.put(player.getUniqueId(), player);
+        }
+        if (!pending.isEmpty()) {
+            schedule();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        // Groups may be per-world, so don't keep using the old ones
+        invalidate(event.getPlayer());
+        refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        pending.remove(event.getPlayer().getUniqueId());
+        invalidate(event.getPlayer());
+    }
+
+}
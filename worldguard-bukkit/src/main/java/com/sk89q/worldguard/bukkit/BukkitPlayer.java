@@ -31,20 +31,38 @@
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
 public class BukkitPlayer extends com.sk89q.worldedit.bukkit.BukkitPlayer implements LocalPlayer {
 
     protected final WorldGuardPlugin plugin;
     private final boolean silenced;
     private String name;
+    @Nullable
+    private final BukkitPlayerRegistry registry;
+    private int memoTick = -1;
+    @Nullable
+    private Map<String, Boolean> permissionMemo;
+    @Nullable
+    private Map<String, Boolean> groupMemo;
 
     public BukkitPlayer(WorldGuardPlugin plugin, Player player) {
         this(plugin, player, false);
     }
 
     BukkitPlayer(WorldGuardPlugin plugin, Player player, boolean silenced) {
+        this(plugin, player, silenced, null);
+    }
+
+    BukkitPlayer(WorldGuardPlugin plugin, Player player, boolean silenced, @Nullable BukkitPlayerRegistry registry) {
         super(player);
         this.plugin = plugin;
         this.silenced = silenced;
+        this.registry = registry;
     }
 
     @Override
@@ -58,7 +76,22 @@ public String getName() {
 
     @Override
     public boolean hasGroup(String group) {
-        return plugin.inGroup(getPlayer(), group);
+        Set<String> cached = getCachedGroups();
+        if (cached != null) {
+            return cached.contains(group.toLowerCase(Locale.ROOT));
+        }
+
+        Map<String, Boolean> memo = getMemo(false);
+        if (memo == null) {
+            return plugin.inGroup(getPlayer(), group);
+        }
+        return memo.computeIfAbsent(group, g -> plugin.inGroup(getPlayer(), g));
+    }
+
+    @Nullable
+    @Override
+    public Set<String> getCachedGroups() {
+        return registry != null ? plugin.getGroupCache().get(getPlayer()) : null;
     }
 
     @Override
@@ -216,6 +249,41 @@ public void printRaw(String msg) {
 
     @Override
     public boolean hasPermission(String perm) {
-        return plugin.hasPermission(getPlayer(), perm);
+        Map<String, Boolean> memo = getMemo(true);
+        if (memo == null) {
+            return plugin.hasPermission(getPlayer(), perm);
+        }
+        return memo.computeIfAbsent(perm, p -> plugin.hasPermission(getPlayer(), p));
+    }
+
+    /**
+     * Get the map of results memoized during the current tick.
+     *
+     * <p>Only wrappers kept by the {@link BukkitPlayerRegistry} memoize
+     * results, and only on the main thread.</p>
+     *
+     * @param permissions true for permissions, false for groups
+     * @return a map, or {@code null} if results should not be memoized
+     */
+    @Nullable
+    private Map<String, Boolean> getMemo(boolean permissions) {
+        if (registry == null || !Bukkit.isPrimaryThread()) {
+            return null;
+        }
+
+        int tick = registry.getCurrentTick();
+        if (tick != memoTick) {
+            memoTick = tick;
+            if (permissionMemo != null) permissionMemo.clear();
+            if (groupMemo != null) groupMemo.clear();
+        }
+
+        if (permissions) {
+            if (permissionMemo == null) permissionMemo = new HashMap<>();
+            return permissionMemo;
+        } else {
+            if (groupMemo == null) groupMemo = new HashMap<>();
+            return groupMemo;
+        }
     }
 }
@@ -0,0 +1,132 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.bukkit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import javax.annotation.Nullable;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps one {@link BukkitPlayer} wrapper per online player, so that the
+ * wrapper does not have to be recreated on every event and session tick.
+ *
+ * <p>Wrappers are registered when a player joins and removed when the
+ * player quits. Registered wrappers memoize permission and group checks
+ * for the duration of a server tick, which is tracked here.</p>
+ */
+public class BukkitPlayerRegistry implements Listener, Runnable {
+
+    private final WorldGuardPlugin plugin;
+    private final ConcurrentMap<UUID, BukkitPlayer> players = new ConcurrentHashMap<>();
+    private volatile int currentTick;
+
+    /**
+     * Create a new instance.
+     *
+     * @param plugin the plugin
+     */
+    BukkitPlayerRegistry(WorldGuardPlugin plugin) {
+        checkNotNull(plugin);
+        this.plugin = plugin;
+    }
+
+    /**
+     * Get the registered wrapper of a player.
+     *
+     * <p>{@code null} is returned if the player is not registered, or if
+     * the given object is not the one that was registered (for example,
+     * a fake player sharing the UUID of an online player).</p>
+     *
+     * @param player the player
+     * @return a wrapper, or {@code null}
+     */
+    @Nullable
+    public BukkitPlayer get(Player player) {
+        BukkitPlayer wrapper = players.get(player.getUniqueId());
+        if (wrapper != null && wrapper.getPlayer() == player) {
+            return wrapper;
+        }
+        return null;
+    }
+
+    /**
+     * Register the wrapper of a player.
+     *
+     * @param player the player
+     * @return the registered wrapper
+     */
+    public BukkitPlayer register(Player player) {
+        BukkitPlayer wrapper = new BukkitPlayer(plugin, player, false, this);
+        players.put(player.getUniqueId(), wrapper);
+        return wrapper;
+    }
+
+    /**
+     * Remove the wrapper of a player.
+     *
+     * @param player the player
+     */
+    public void unregister(Player player) {
+        players.remove(player.getUniqueId());
+    }
+
+    /**
+     * Remove all wrappers.
+     */
+    public void clear() {
+        players.clear();
+    }
+
+    /**
+     * Get the number of server ticks that have passed since the registry
+     * was started.
+     *
+     * @return the current tick
+     */
+    public int getCurrentTick() {
+        return currentTick;
+    }
+
+    @Override
+    public void run() {
+        currentTick++;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        register(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        unregister(event.getPlayer());
+    }
+
+}
@@ -94,7 +94,10 @@ public void onChunkUnload(ChunkUnloadEvent event) {
             }
         }, plugin);
 
-        Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, cache::invalidateAll, CACHE_INVALIDATION_INTERVAL, CACHE_INVALIDATION_INTERVAL);
+        Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, () -> {
+            cache.invalidateAll();
+            updateSnapshots();
+        }, CACHE_INVALIDATION_INTERVAL, CACHE_INVALIDATION_INTERVAL);
     }
 
     public void shutdown() {
@@ -29,6 +29,7 @@
 import com.sk89q.worldguard.LocalPlayer;
 import com.sk89q.worldguard.blacklist.Blacklist;
 import com.sk89q.worldguard.blacklist.BlacklistLoggerHandler;
+import com.sk89q.worldguard.blacklist.logger.AsyncLoggerHandler;
 import com.sk89q.worldguard.blacklist.logger.ConsoleHandler;
 import com.sk89q.worldguard.blacklist.logger.DatabaseHandler;
 import com.sk89q.worldguard.blacklist.logger.FileHandler;
@@ -342,6 +343,17 @@ public void loadConfiguration() {
         String logFilePattern = getString("blacklist.logging.file.path", "worldguard/logs/%Y-%m-%d.log");
         int logFileCacheSize = Math.max(1, getInt("blacklist.logging.file.open-files", 10));
 
+        // Background logging configuration
+        boolean logAsync = getBoolean("blacklist.logging.async.enable", true);
+        int logQueueSize = Math.max(1, getInt("blacklist.logging.async.queue-size", AsyncLoggerHandler.DEFAULT_CAPACITY));
+        String logOverflow = getString("blacklist.logging.async.when-full", "drop");
+        AsyncLoggerHandler.OverflowPolicy logOverflowPolicy = AsyncLoggerHandler.OverflowPolicy.DROP;
+        try {
+            logOverflowPolicy = AsyncLoggerHandler.OverflowPolicy.valueOf(logOverflow.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warning("Neznámé chování plné fronty logu černé listiny '" + logOverflow + "', použije se 'drop'");
+        }
+
         // Load the blacklist
         try {
             // If there was an existing blacklist, close loggers
@@ -379,6 +391,11 @@ public void loadConfiguration() {
                             new FileHandler(logFilePattern, logFileCacheSize, worldName, log);
                     blacklistLogger.addHandler(handler);
                 }
+
+                if (logAsync && (logDatabase || logConsole || logFile)) {
+                    blacklistLogger.enableAsync(logQueueSize, logOverflowPolicy,
+                            "WorldGuard Blacklist Logger - " + worldName, log);
+                }
             }
         } catch (FileNotFoundException e) {
             log.log(Level.WARNING, "Černá listina WorldGurd neexistuje.");
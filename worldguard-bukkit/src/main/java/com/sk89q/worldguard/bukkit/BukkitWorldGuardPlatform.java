@@ -52,6 +52,7 @@
 import com.sk89q.worldguard.util.profile.resolver.CombinedProfileService;
 import com.sk89q.worldguard.util.profile.resolver.HttpRepositoryService;
 import com.sk89q.worldguard.util.profile.resolver.ProfileService;
+import com.sk89q.worldguard.util.report.ReportWriter;
 import io.papermc.lib.PaperLib;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -148,6 +149,7 @@ public void load() {
     public void unload() {
         configuration.unload();
         regionContainer.shutdown();
+        sessionManager.shutdown();
     }
 
     @Override
@@ -240,6 +242,17 @@ public void addPlatformReports(ReportList report) {
         report.add(new PerformanceReport());
     }
 
+    @Override
+    public void addPlatformReports(ReportWriter report) {
+        report.add(new ServerReport());
+        report.add(new PluginReport());
+        report.add(new SchedulerReport());
+        report.add(new ServicesReport());
+        report.add(new WorldReport());
+        List<PerformanceReport.WorldSnapshot> worlds = PerformanceReport.snapshot();
+        report.addDeferred(() -> new PerformanceReport(worlds));
+    }
+
     @Override
     public ProfileService createProfileService(ProfileCache profileCache) {
         List<ProfileService> services = new ArrayList<>();
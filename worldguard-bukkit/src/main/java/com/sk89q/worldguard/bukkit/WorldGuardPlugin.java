@@ -31,6 +31,7 @@
 import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.blacklist.Blacklist;
 import com.sk89q.worldguard.bukkit.event.player.ProcessPlayerEvent;
+import com.sk89q.worldguard.bukkit.internal.LiquidFlowEngine;
 import com.sk89q.worldguard.bukkit.listener.*;
 import com.sk89q.worldguard.bukkit.session.BukkitSessionManager;
 import com.sk89q.worldguard.bukkit.util.ClassSourceValidator;
@@ -84,6 +85,9 @@ public class WorldGuardPlugin extends JavaPlugin {
     private static BukkitWorldGuardPlatform platform;
     private final CommandsManager<Actor> commands;
     private PlayerMoveListener playerMoveListener;
+    private final LiquidFlowEngine liquidFlowEngine = new LiquidFlowEngine();
+    private final BukkitPlayerRegistry playerRegistry = new BukkitPlayerRegistry(this);
+    private final BukkitGroupCache groupCache = new BukkitGroupCache(this);
 
     private static final int BSTATS_PLUGIN_ID = 3283;
 
@@ -160,7 +164,23 @@ public void onEnable() {
         getServer().getScheduler().scheduleSyncRepeatingTask(this, sessionManager,
                 BukkitSessionManager.RUN_DELAY, BukkitSessionManager.RUN_DELAY);
 
+        // Keep one wrapper per online player
+        for (Player player : getServer().getOnlinePlayers()) {
+            playerRegistry.register(player);
+        }
+        getServer().getScheduler().scheduleSyncRepeatingTask(this, playerRegistry, 1, 1);
+
+        // Keep the groups of online players cached for group domain checks
+        groupCache.run();
+        int groupRefreshInterval = platform.getGlobalStateManager().groupCacheRefreshInterval;
+        if (groupRefreshInterval > 0) {
+            getServer().getScheduler().scheduleSyncRepeatingTask(this, groupCache,
+                    groupRefreshInterval * 20L, groupRefreshInterval * 20L);
+        }
+
         // Register events
+        getServer().getPluginManager().registerEvents(playerRegistry, this);
+        getServer().getPluginManager().registerEvents(groupCache, this);
         getServer().getPluginManager().registerEvents(sessionManager, this);
         (new WorldGuardPlayerListener(this)).registerEvents();
         (new WorldGuardBlockListener(this)).registerEvents();
@@ -362,6 +382,8 @@ private void setupCustomCharts(Metrics metrics) {
     public void onDisable() {
         WorldGuard.getInstance().disable();
         this.getServer().getScheduler().cancelTasks(this);
+        playerRegistry.clear();
+        groupCache.clear();
     }
 
     @Override
@@ -502,7 +524,8 @@ public WorldEditPlugin getWorldEdit() throws CommandException {
      * @return The wrapped player
      */
     public LocalPlayer wrapPlayer(Player player) {
-        return new BukkitPlayer(this, player);
+        BukkitPlayer wrapper = playerRegistry.get(player);
+        return wrapper != null ? wrapper : new BukkitPlayer(this, player);
     }
 
     /**
@@ -620,4 +643,29 @@ public PlayerMoveListener getPlayerMoveListener() {
         return playerMoveListener;
     }
 
+    /**
+     * Get the registry of wrapped online players.
+     *
+     * @return the registry
+     */
+    public BukkitPlayerRegistry getPlayerRegistry() {
+        return playerRegistry;
+    }
+
+    /**
+     * Get the cache of the groups of online players.
+     *
+     * @return the group cache
+     */
+    public BukkitGroupCache getGroupCache() {
+        return groupCache;
+    }
+
+    /**
+     * Internal method. Do not use as API.
+     */
+    public LiquidFlowEngine getLiquidFlowEngine() {
+        return liquidFlowEngine;
+    }
+
 }
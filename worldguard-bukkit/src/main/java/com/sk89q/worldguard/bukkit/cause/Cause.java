@@ -20,7 +20,6 @@
 package com.sk89q.worldguard.bukkit.cause;
 
 import com.google.common.base.Joiner;
-import com.google.common.collect.Sets;
 import com.sk89q.worldguard.bukkit.BukkitWorldConfiguration;
 import com.sk89q.worldguard.bukkit.WorldGuardPlugin;
 import com.sk89q.worldguard.bukkit.internal.WGMetadata;
@@ -46,7 +45,6 @@
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 import java.util.UUID;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -64,6 +62,7 @@ public final class Cause {
 
     private static final String CAUSE_KEY = "worldguard.cause";
     private static final Cause UNKNOWN = new Cause(Collections.emptyList(), false);
+    private static final ParentCauseStore parentCauses = new ParentCauseStore();
 
     private final List<Object> causes;
     private final boolean indirect;
@@ -211,6 +210,12 @@ public String toString() {
      */
     public static Cause create(@Nullable Object... cause) {
         if (cause != null) {
+            if (cause.length == 1) {
+                Cause simple = createSimple(cause[0]);
+                if (simple != null) {
+                    return simple;
+                }
+            }
             Builder builder = new Builder(cause.length);
             builder.addAll(cause);
             return builder.build();
@@ -219,6 +224,27 @@ public static Cause create(@Nullable Object... cause) {
         }
     }
 
+    /**
+     * Create a cause consisting of a single player or block without going
+     * through a {@link Builder}, as neither can have other actors
+     * controlling them.
+     *
+     * @param cause the causing object
+     * @return a cause, or {@code null} if the object requires a full trace
+     */
+    @Nullable
+    private static Cause createSimple(@Nullable Object cause) {
+        if (cause == null) {
+            return UNKNOWN;
+        } else if (cause instanceof Block) {
+            return new Cause(Collections.singletonList(cause), false);
+        } else if (cause instanceof Player && parentCauses.get((Player) cause) == null) {
+            return new Cause(Collections.singletonList(cause), false);
+        } else {
+            return null;
+        }
+    }
+
     /**
      * Create a new instance that indicates that the cause is not known.
      *
@@ -245,7 +271,11 @@ public static void trackParentCause(Metadatable target, Object parent) {
             throw new IllegalArgumentException("V Blocks nelze sledovat příčiny, protože Cause nekontroluje metadata bloku");
         }
 
-        WGMetadata.put(target, CAUSE_KEY, parent);
+        if (target instanceof Entity) {
+            parentCauses.put((Entity) target, parent);
+        } else {
+            WGMetadata.put(target, CAUSE_KEY, parent);
+        }
     }
 
     /**
@@ -254,7 +284,28 @@ public static void trackParentCause(Metadatable target, Object parent) {
      * @param target the target
      */
     public static void untrackParentCause(Metadatable target) {
-        WGMetadata.remove(target, CAUSE_KEY);
+        if (target instanceof Entity) {
+            parentCauses.remove((Entity) target);
+        } else {
+            WGMetadata.remove(target, CAUSE_KEY);
+        }
+    }
+
+    /**
+     * Get the manually tracked parent cause of an object.
+     *
+     * @param target the object
+     * @return the parent cause, or {@code null} if there is none
+     */
+    @Nullable
+    private static Object getParentCause(Object target) {
+        if (target instanceof Entity) {
+            return parentCauses.get((Entity) target);
+        } else if (target instanceof Metadatable && !(target instanceof Block)) {
+            return WGMetadata.getIfPresent((Metadatable) target, CAUSE_KEY, Object.class);
+        } else {
+            return null;
+        }
     }
 
     /**
@@ -262,11 +313,12 @@ public static void untrackParentCause(Metadatable target) {
      */
     private static final class Builder {
         private final List<Object> causes;
-        private final Set<Object> seen = Sets.newHashSet();
+        private final List<Object> seen;
         private boolean indirect;
 
         private Builder(int expectedSize) {
             this.causes = new ArrayList<>(expectedSize);
+            this.seen = new ArrayList<>(expectedSize);
         }
 
         private void addAll(@Nullable Object... element) {
@@ -316,8 +368,8 @@ private void addAll(@Nullable Object... element) {
                 // Add manually tracked parent causes
                 Object source = o;
                 int index = causes.size();
-                while (source instanceof Metadatable && !(source instanceof Block)) {
-                    source = WGMetadata.getIfPresent((Metadatable) source, CAUSE_KEY, Object.class);
+                while (source != null) {
+                    source = getParentCause(source);
                     if (source != null) {
                         causes.add(index, source);
                         seen.add(source);
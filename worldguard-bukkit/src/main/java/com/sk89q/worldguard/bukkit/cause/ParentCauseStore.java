@@ -0,0 +1,133 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.bukkit.cause;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.bukkit.entity.Entity;
+
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores manually tracked parent causes of entities, keyed by the entity's
+ * unique ID.
+ *
+ * <p>This replaces Bukkit metadata for the purpose, which allocates a
+ * metadata value on every write and a list on every read. Tracked entities
+ * are only weakly referenced. When the store grows, entries of entities
+ * that are not in a loaded chunk are purged once they are older than
+ * {@link #MAX_AGE_MINUTES} minutes, so that the parent of an entity in an
+ * unloaded chunk is still known when the chunk is loaded again.</p>
+ *
+ * <p>This class is thread safe.</p>
+ */
+final class ParentCauseStore {
+
+    private static final int MIN_PURGE_THRESHOLD = 64;
+    private static final long MAX_AGE_MINUTES = 60;
+    private static final long MAX_AGE_NANOS = TimeUnit.MINUTES.toNanos(MAX_AGE_MINUTES);
+
+    private final ConcurrentMap<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private volatile int purgeThreshold = MIN_PURGE_THRESHOLD;
+
+    /**
+     * Track the parent cause of an entity.
+     *
+     * @param entity the entity
+     * @param parent the parent cause
+     */
+    void put(Entity entity, Object parent) {
+        checkNotNull(entity);
+        checkNotNull(parent);
+
+        entries.put(entity.getUniqueId(), new Entry(entity, parent));
+
+        if (entries.size() > purgeThreshold) {
+            purge();
+        }
+    }
+
+    /**
+     * Get the tracked parent cause of an entity.
+     *
+     * @param entity the entity
+     * @return the parent cause, or {@code null} if none is tracked
+     */
+    @Nullable
+    Object get(Entity entity) {
+        if (entries.isEmpty()) {
+            return null;
+        }
+
+        Entry entry = entries.get(entity.getUniqueId());
+        return entry != null ? entry.parent : null;
+    }
+
+    /**
+     * Stop tracking the parent cause of an entity.
+     *
+     * @param entity the entity
+     */
+    void remove(Entity entity) {
+        if (!entries.isEmpty()) {
+            entries.remove(entity.getUniqueId());
+        }
+    }
+
+    /**
+     * Remove the old entries of entities that are not in a loaded chunk.
+     *
+     * <p>An entity that is not valid may only be in an unloaded chunk, and
+     * the object of an unloaded entity may have been garbage collected,
+     * so neither means that the entity is gone for good.</p>
+     */
+    private synchronized void purge() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<UUID, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next().getValue();
+            Entity entity = entry.entity.get();
+            if ((entity == null || !entity.isValid()) && now - entry.time > MAX_AGE_NANOS) {
+                it.remove();
+            }
+        }
+
+        purgeThreshold = Math.max(MIN_PURGE_THRESHOLD, entries.size() * 2);
+    }
+
+    private static final class Entry {
+        private final WeakReference<Entity> entity;
+        private final Object parent;
+        private final long time = System.nanoTime();
+
+        private Entry(Entity entity, Object parent) {
+            this.entity = new WeakReference<>(entity);
+            this.parent = parent;
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.bukkit.internal;
+
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.protection.ApplicableRegionSet;
+import com.sk89q.worldguard.protection.RegionResultSet;
+import com.sk89q.worldguard.protection.association.RegionAssociable;
+import com.sk89q.worldguard.protection.association.RegionOverlapAssociation;
+import com.sk89q.worldguard.protection.flags.Flags;
+import com.sk89q.worldguard.protection.flags.StateFlag;
+import com.sk89q.worldguard.protection.flags.StateFlag.State;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.managers.index.RegionBorderMap;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.util.RegionCollectionConsumer;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import javax.annotation.Nullable;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Evaluates liquid flow against region data using the per-chunk
+ * {@link RegionBorderMap}s kept by the region index.
+ *
+ * <p>Flow between two blocks of the same chunk that share the same set of
+ * regions is decided from that set directly, without a region query. Flow
+ * that crosses a region border, leaves the chunk or happens in a chunk
+ * whose regions are not enumerated yet returns {@code null}, and the
+ * caller must fall back to a full evaluation. So does flow in worlds where
+ * region support is disabled, for which the full evaluation already knows
+ * the answer.</p>
+ */
+public final class LiquidFlowEngine {
+
+    /**
+     * Decide whether liquid may flow from one block into another.
+     *
+     * <p>The decision mirrors the build check done for a
+     * {@code PlaceBlockEvent} whose cause is the source block.</p>
+     *
+     * @param from the source block
+     * @param to the target block
+     * @param useMaxPriorityAssociation whether to use the max priority association
+     * @param flags the flags to test in addition to {@link Flags#BUILD}
+     * @return the decision, or {@code null} if a full evaluation is required
+     */
+    @Nullable
+    public Boolean testFlow(Block from, Block to, boolean useMaxPriorityAssociation, StateFlag... flags) {
+        RegionManager manager = getRegionManager(from.getWorld());
+        if (manager == null) {
+            return null;
+        }
+
+        RegionBorderMap map = manager.getBorderMap(from.getX() >> 4, from.getZ() >> 4);
+        if (map == null || !map.isCompact() || !map.contains(to.getX(), to.getZ())) {
+            return null;
+        }
+
+        long mask = map.getRegionMask(from.getX(), from.getY(), from.getZ());
+        if (mask != map.getRegionMask(to.getX(), to.getY(), to.getZ())) {
+            return null;
+        }
+
+        List<ProtectedRegion> regions = map.getRegions(mask);
+        ApplicableRegionSet set = createSet(manager, regions);
+        RegionAssociable associable = new RegionOverlapAssociation(new HashSet<>(regions), useMaxPriorityAssociation);
+
+        return StateFlag.test(StateFlag.combine(
+                StateFlag.denyToNone(set.queryState(associable, Flags.BUILD)),
+                set.queryState(associable, flags)));
+    }
+
+    /**
+     * Query a flow flag (such as {@link Flags#WATER_FLOW}) at a block.
+     *
+     * @param block the block
+     * @param flag the flag
+     * @return the state, or {@code null} if a full evaluation is required
+     */
+    @Nullable
+    public State queryFlow(Block block, StateFlag flag) {
+        RegionManager manager = getRegionManager(block.getWorld());
+        if (manager == null) {
+            return null;
+        }
+
+        RegionBorderMap map = manager.getBorderMap(block.getX() >> 4, block.getZ() >> 4);
+        if (map == null || !map.isCompact()) {
+            return null;
+        }
+
+        long mask = map.getRegionMask(block.getX(), block.getY(), block.getZ());
+        return createSet(manager, map.getRegions(mask)).queryState(null, flag);
+    }
+
+    /**
+     * Create a result set for the given regions, adding parents as
+     * {@link com.sk89q.worldguard.protection.regions.RegionQuery.QueryOption#COMPUTE_PARENTS}
+     * would.
+     *
+     * <p>The memoized list of the border map is used as is if it is still
+     * in normative order (no parents and priorities not changed since the
+     * map was built).</p>
+     *
+     * @param manager the region manager
+     * @param regions the regions containing the block
+     * @return a result set
+     */
+    private static ApplicableRegionSet createSet(RegionManager manager, List<ProtectedRegion> regions) {
+        ProtectedRegion global = manager.getRegion(ProtectedRegion.GLOBAL_REGION);
+        int lastPriority = Integer.MAX_VALUE;
+
+        for (ProtectedRegion region : regions) {
+            if (region.getParent() != null || region.getPriority() > lastPriority) {
+                Set<ProtectedRegion> applicable = new HashSet<>();
+                regions.forEach(new RegionCollectionConsumer(applicable, true)::apply);
+                return new RegionResultSet(applicable, global);
+            }
+            lastPriority = region.getPriority();
+        }
+
+        return RegionResultSet.fromSortedList(regions, global);
+    }
+
+    @Nullable
+    private static RegionManager getRegionManager(World world) {
+        com.sk89q.worldedit.world.World weWorld = BukkitAdapter.adapt(world);
+        if (!WorldGuard.getInstance().getPlatform().getGlobalStateManager().get(weWorld).useRegions) {
+            return null;
+        }
+        return WorldGuard.getInstance().getPlatform().getRegionContainer().get(weWorld);
+    }
+
+}
@@ -35,6 +35,7 @@
 import com.sk89q.worldguard.protection.association.Associables;
 import com.sk89q.worldguard.protection.association.RegionAssociable;
 import com.sk89q.worldguard.protection.regions.RegionQuery;
+import com.sk89q.worldguard.util.metrics.MetricsRegistry;
 import io.papermc.lib.PaperLib;
 import org.bukkit.Location;
 import org.bukkit.OfflinePlayer;
@@ -64,7 +65,22 @@ public AbstractListener(WorldGuardPlugin plugin) {
      * Register events.
      */
     public void registerEvents() {
-        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        registerEvents(this);
+    }
+
+    /**
+     * Register the handlers of a listener, timing them if metrics are
+     * enabled.
+     *
+     * @param listener the listener
+     */
+    protected void registerEvents(Listener listener) {
+        MetricsRegistry metrics = WorldGuard.getInstance().getMetrics();
+        if (metrics.isEnabled()) {
+            TimedEventExecutor.registerEvents(listener, plugin, metrics);
+        } else {
+            plugin.getServer().getPluginManager().registerEvents(listener, plugin);
+        }
     }
 
     /**
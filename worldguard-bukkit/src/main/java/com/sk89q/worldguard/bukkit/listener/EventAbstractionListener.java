@@ -145,7 +145,6 @@
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.plugin.PluginManager;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 import org.bukkit.projectiles.ProjectileSource;
@@ -190,8 +189,7 @@ public void registerEvents() {
         super.registerEvents();
 
         if (PaperLib.isPaper()) {
-            PluginManager pm = getPlugin().getServer().getPluginManager();
-            pm.registerEvents(new EventAbstractionListener.PaperListener(), getPlugin());
+            registerEvents(new EventAbstractionListener.PaperListener());
         }
     }
 
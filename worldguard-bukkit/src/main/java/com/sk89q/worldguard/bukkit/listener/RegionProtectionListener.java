@@ -160,10 +160,14 @@ public void onPlaceBlock(final PlaceBlockEvent event) {
         final RegionAssociable associable = createRegionAssociable(event.getCause());
 
         // Don't check liquid flow unless it's enabled
-        if (event.getCause().getRootCause() instanceof Block
-                && Materials.isLiquid(type)
-                && !getWorldConfig(event.getWorld()).checkLiquidFlow) {
-            return;
+        final Block liquidSource;
+        if (event.getCause().getRootCause() instanceof Block && Materials.isLiquid(type)) {
+            if (!getWorldConfig(event.getWorld()).checkLiquidFlow) {
+                return;
+            }
+            liquidSource = (Block) event.getCause().getRootCause();
+        } else {
+            liquidSource = null;
         }
 
         event.filter((Predicate<Location>) target -> {
@@ -189,7 +193,15 @@ public void onPlaceBlock(final PlaceBlockEvent event) {
                 what = "používat enchant Mrazík"; // hidden anyway
             /* Everything else */
             } else {
-                canPlace = query.testBuild(BukkitAdapter.adapt(target), associable, combine(event, Flags.BLOCK_PLACE));
+                Boolean canFlow = null;
+                if (liquidSource != null) {
+                    /* Liquid flowing within a single set of regions */
+                    canFlow = getPlugin().getLiquidFlowEngine().testFlow(liquidSource, target.getBlock(),
+                            getWorldConfig(event.getWorld()).useMaxPriorityAssociation, combine(event, Flags.BLOCK_PLACE));
+                }
+                canPlace = canFlow != null
+                        ? canFlow
+                        : query.testBuild(BukkitAdapter.adapt(target), associable, combine(event, Flags.BLOCK_PLACE));
                 what = "pokládat";
             }
 
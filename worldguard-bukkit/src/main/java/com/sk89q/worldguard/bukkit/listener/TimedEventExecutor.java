@@ -0,0 +1,142 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.bukkit.listener;
+
+import com.sk89q.worldguard.util.metrics.LatencyHistogram;
+import com.sk89q.worldguard.util.metrics.MetricsRegistry;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Registers the handlers of a listener the same way as
+ * {@link PluginManager#registerEvents(Listener, Plugin)}, but with an
+ * executor that records the time spent in each handler.
+ *
+ * <p>Each handler gets a histogram labelled with the simple name of the
+ * listener class and the name of the method.</p>
+ *
+ * <p>Whether listeners are wrapped at all is decided when they are
+ * registered, so enabling metrics with a reload does not time handlers
+ * until the next restart. Disabling them stops recording right away.</p>
+ */
+final class TimedEventExecutor implements EventExecutor {
+
+    static final String HANDLER_METRIC = "worldguard_event_handler_seconds";
+
+    private final MethodHandle handle;
+    private final Class<? extends Event> eventClass;
+    private final MetricsRegistry metrics;
+    private final LatencyHistogram histogram;
+
+    private TimedEventExecutor(MethodHandle handle, Class<? extends Event> eventClass, MetricsRegistry metrics, LatencyHistogram histogram) {
+        this.handle = handle;
+        this.eventClass = eventClass;
+        this.metrics = metrics;
+        this.histogram = histogram;
+    }
+
+    @Override
+    public void execute(Listener listener, Event event) throws EventException {
+        if (!eventClass.isInstance(event)) {
+            return;
+        }
+
+        if (!metrics.isEnabled()) {
+            invoke(listener, event);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            invoke(listener, event);
+        } finally {
+            histogram.recordSince(start);
+        }
+    }
+
+    private void invoke(Listener listener, Event event) throws EventException {
+        try {
+            handle.invokeExact(listener, event);
+        } catch (Throwable t) {
+            throw new EventException(t);
+        }
+    }
+
+    /**
+     * Register the handlers of a listener.
+     *
+     * @param listener the listener
+     * @param plugin the plugin
+     * @param metrics the metrics registry
+     */
+    static void registerEvents(Listener listener, Plugin plugin, MetricsRegistry metrics) {
+        PluginManager pluginManager = plugin.getServer().getPluginManager();
+
+        Set<Method> methods = new HashSet<>();
+        try {
+            for (Method method : listener.getClass().getMethods()) {
+                methods.add(method);
+            }
+            for (Method method : listener.getClass().getDeclaredMethods()) {
+                methods.add(method);
+            }
+        } catch (NoClassDefFoundError e) {
+            // Let Bukkit report handlers of events missing on this server
+            pluginManager.registerEvents(listener, plugin);
+            return;
+        }
+
+        String prefix = listener.getClass().getSimpleName() + ".";
+
+        for (Method method : methods) {
+            EventHandler handler = method.getAnnotation(EventHandler.class);
+            if (handler == null || method.isBridge() || method.isSynthetic()
+                    || method.getParameterCount() != 1 || !Event.class.isAssignableFrom(method.getParameterTypes()[0])) {
+                continue;
+            }
+
+            Class<? extends Event> eventClass = method.getParameterTypes()[0].asSubclass(Event.class);
+            MethodHandle handle;
+            try {
+                method.setAccessible(true);
+                handle = MethodHandles.lookup().unreflect(method)
+                        .asType(MethodType.methodType(void.class, Listener.class, Event.class));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Nelze zpřístupnit obsluhu události " + prefix + method.getName(), e);
+            }
+            LatencyHistogram histogram = metrics.histogram(HANDLER_METRIC, "handler", prefix + method.getName());
+            pluginManager.registerEvent(eventClass, listener, handler.priority(),
+                    new TimedEventExecutor(handle, eventClass, metrics, histogram), plugin, handler.ignoreCancelled());
+        }
+    }
+
+}
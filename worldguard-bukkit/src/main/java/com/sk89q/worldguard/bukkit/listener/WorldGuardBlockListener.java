@@ -169,18 +169,35 @@ public void onBlockFromTo(BlockFromToEvent event) {
         }
 
         if (wcfg.highFreqFlags && (isWater || blockFrom.getBlockData() instanceof Waterlogged)
-                && WorldGuard.getInstance().getPlatform().getRegionContainer().createQuery().queryState(BukkitAdapter.adapt(blockFrom.getLocation()), (RegionAssociable) null, Flags.WATER_FLOW) == StateFlag.State.DENY) {
+                && queryFlow(blockFrom, Flags.WATER_FLOW) == StateFlag.State.DENY) {
             event.setCancelled(true);
             return;
         }
 
         if (wcfg.highFreqFlags && isLava
-                && !StateFlag.test(WorldGuard.getInstance().getPlatform().getRegionContainer().createQuery().queryState(BukkitAdapter.adapt(blockFrom.getLocation()), (RegionAssociable) null, Flags.LAVA_FLOW))) {
+                && !StateFlag.test(queryFlow(blockFrom, Flags.LAVA_FLOW))) {
             event.setCancelled(true);
             return;
         }
     }
 
+    /**
+     * Query a liquid flow flag at the source block of a flow, using the
+     * region border map of the chunk when possible.
+     *
+     * @param block the source block
+     * @param flag the flag
+     * @return the state
+     */
+    private StateFlag.State queryFlow(Block block, StateFlag flag) {
+        StateFlag.State state = getPlugin().getLiquidFlowEngine().queryFlow(block, flag);
+        if (state != null) {
+            return state;
+        }
+        return WorldGuard.getInstance().getPlatform().getRegionContainer().createQuery()
+                .queryState(BukkitAdapter.adapt(block.getLocation()), (RegionAssociable) null, flag);
+    }
+
     /*
      * Called when a block gets ignited.
      */
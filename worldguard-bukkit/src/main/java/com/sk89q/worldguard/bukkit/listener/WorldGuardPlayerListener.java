@@ -59,7 +59,6 @@
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.Iterator;
-import java.util.Set;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -480,9 +479,7 @@ public void onPlayerCommandPreprocess(PlayerCommandPreprocessEvent event) {
             ApplicableRegionSet set =
                     WorldGuard.getInstance().getPlatform().getRegionContainer().createQuery().getApplicableRegions(localPlayer.getLocation());
 
-            Set<String> allowedCommands = set.queryValue(localPlayer, Flags.ALLOWED_CMDS);
-            Set<String> blockedCommands = set.queryValue(localPlayer, Flags.BLOCKED_CMDS);
-            CommandFilter test = new CommandFilter(allowedCommands, blockedCommands);
+            CommandFilter test = set.getCommandFilter(localPlayer);
 
             if (!test.apply(event.getMessage())) {
                 String message = set.queryValue(localPlayer, Flags.DENY_MESSAGE);
@@ -19,21 +19,44 @@
 
 package com.sk89q.worldguard.bukkit.session;
 
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.sk89q.worldedit.util.Location;
 import com.sk89q.worldedit.world.World;
 import com.sk89q.worldguard.LocalPlayer;
 import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.bukkit.BukkitPlayer;
 import com.sk89q.worldguard.bukkit.WorldGuardPlugin;
 import com.sk89q.worldguard.bukkit.event.player.ProcessPlayerEvent;
+import com.sk89q.worldguard.protection.ApplicableRegionSet;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.RegionContainer;
+import com.sk89q.worldguard.protection.regions.RegionQuery;
 import com.sk89q.worldguard.session.AbstractSessionManager;
 import com.sk89q.worldguard.session.Session;
 import com.sk89q.worldguard.session.handler.Handler;
+import com.sk89q.worldguard.util.concurrent.EvenMoreExecutors;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Nullable;
 
 /**
  * Keeps tracks of sessions and also does session-related handling
@@ -41,7 +64,17 @@
  */
 public class BukkitSessionManager extends AbstractSessionManager implements Runnable, Listener {
 
+    private static final Logger log = Logger.getLogger(BukkitSessionManager.class.getCanonicalName());
+    private static final int TICK_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int MIN_TICK_BATCH_SIZE = 16;
+    private static final int PURGE_INTERVAL = (int) (SESSION_LIFETIME * 60 * 20 / RUN_DELAY);
+
+    private final ListeningExecutorService tickExecutor = MoreExecutors.listeningDecorator(
+            EvenMoreExecutors.newBoundedCachedThreadPool(0, TICK_THREADS, Integer.MAX_VALUE, "WorldGuard Session Tick %d"));
+    @Nullable
+    private ListenableFuture<?> pendingTick;
     private boolean useTimings;
+    private int runsSincePurge;
 
     @Override
     protected Handler.Factory<? extends Handler> wrapForRegistration(Handler.Factory<? extends Handler> factory) {
@@ -56,10 +89,10 @@ protected Handler.Factory<? extends Handler> wrapForRegistration(Handler.Factory
     public void resetAllStates() {
         Collection<? extends Player> players = Bukkit.getServer().getOnlinePlayers();
         for (Player player : players) {
-            BukkitPlayer bukkitPlayer = new BukkitPlayer(WorldGuardPlugin.inst(), player);
-            Session session = getIfPresent(bukkitPlayer);
+            LocalPlayer localPlayer = WorldGuardPlugin.inst().wrapPlayer(player);
+            Session session = getIfPresent(localPlayer);
             if (session != null) {
-                session.resetState(bukkitPlayer);
+                session.resetState(localPlayer);
             }
         }
     }
@@ -71,12 +104,83 @@ public void onPlayerProcess(ProcessPlayerEvent event) {
         get(player).initialize(player);
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Tick sessions.
+     *
+     * <p>Only the locations of players are collected here. Regions are
+     * looked up from region snapshots, and the handlers that need ticking
+     * are selected, in parallel off the main thread. The handlers are then
+     * ticked back on the main thread.</p>
+     */
     @Override
     public void run() {
+        if (pendingTick != null && !pendingTick.isDone()) {
+            return; // Still busy with the last round
+        }
+
+        if (++runsSincePurge >= PURGE_INTERVAL) {
+            // Sessions of fake players are not removed on quit
+            removeIf(uniqueId -> Bukkit.getPlayer(uniqueId) == null);
+            runsSincePurge = 0;
+        }
+
+        List<PlayerTick> ticks = new ArrayList<>();
         for (Player player : Bukkit.getServer().getOnlinePlayers()) {
             LocalPlayer localPlayer = WorldGuardPlugin.inst().wrapPlayer(player);
-            get(localPlayer).tick(localPlayer);
+            ticks.add(new PlayerTick(localPlayer, get(localPlayer), localPlayer.getLocation()));
+        }
+
+        if (ticks.isEmpty()) {
+            return;
+        }
+
+        // Take any missing snapshots of the worlds with players here, so the
+        // workers never copy live regions
+        RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
+        container.updateSnapshots();
+        Set<World> worlds = new HashSet<>();
+        for (PlayerTick tick : ticks) {
+            World world = (World) tick.location.getExtent();
+            if (worlds.add(world)) {
+                RegionManager manager = container.get(world);
+                if (manager != null) {
+                    manager.getSnapshot();
+                }
+            }
+        }
+        RegionQuery query = container.createSnapshotQuery();
+        int batchSize = Math.max(MIN_TICK_BATCH_SIZE, (ticks.size() + TICK_THREADS - 1) / TICK_THREADS);
+        List<ListenableFuture<?>> futures = new ArrayList<>();
+
+        try {
+            for (List<PlayerTick> batch : Lists.partition(ticks, batchSize)) {
+                futures.add(tickExecutor.submit(() -> batch.forEach(tick -> tick.evaluate(query))));
+            }
+        } catch (RejectedExecutionException e) {
+            return; // Shutting down
         }
+
+        ListenableFuture<?> future = Futures.allAsList(futures);
+        pendingTick = future;
+        future.addListener(() -> {
+            WorldGuardPlugin plugin = WorldGuardPlugin.inst();
+            if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, () -> ticks.forEach(PlayerTick::apply));
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Stop the threads used for ticking sessions and drop all sessions.
+     */
+    public void shutdown() {
+        tickExecutor.shutdownNow();
+        clear();
     }
 
     @Override
@@ -100,4 +204,50 @@ public boolean isUsingTimings() {
     public void setUsingTimings(boolean useTimings) {
         this.useTimings = useTimings;
     }
+
+    /**
+     * The state of a session tick for one player.
+     */
+    private static final class PlayerTick {
+        private final LocalPlayer player;
+        private final Session session;
+        private final Location location;
+        @Nullable
+        private ApplicableRegionSet set;
+        private List<Handler> handlers = Collections.emptyList();
+
+        private PlayerTick(LocalPlayer player, Session session, Location location) {
+            this.player = player;
+            this.session = session;
+            this.location = location;
+        }
+
+        /**
+         * Look up the regions and the handlers to tick. Called off the main thread.
+         *
+         * @param query a thread safe query
+         */
+        private void evaluate(RegionQuery query) {
+            try {
+                ApplicableRegionSet set = query.getApplicableRegions(location);
+                handlers = session.getTickHandlers(set);
+                this.set = set;
+            } catch (Throwable t) {
+                log.log(Level.WARNING, "Nepodařilo se vyhodnotit relaci hráče " + player.getName(), t);
+            }
+        }
+
+        /**
+         * Tick the selected handlers. Called on the main thread.
+         */
+        private void apply() {
+            if (set == null || handlers.isEmpty()) {
+                return;
+            }
+            if (player instanceof BukkitPlayer && !((BukkitPlayer) player).getPlayer().isOnline()) {
+                return;
+            }
+            session.tick(player, set, handlers);
+        }
+    }
 }
@@ -25,6 +25,7 @@
 import com.sk89q.worldguard.LocalPlayer;
 import com.sk89q.worldguard.bukkit.WorldGuardPlugin;
 import com.sk89q.worldguard.protection.ApplicableRegionSet;
+import com.sk89q.worldguard.protection.flags.Flag;
 import com.sk89q.worldguard.protection.flags.StateFlag;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import com.sk89q.worldguard.session.MoveType;
@@ -77,6 +78,11 @@ public Handler create(Session session) {
         return new TimedHandler(factory.create(session), session, timing);
     }
 
+    @Override
+    public Set<Flag<?>> getFlags() {
+        return factory.getFlags();
+    }
+
     static class TimedHandler extends Handler {
         private final Handler handler;
         private final MCTiming timing;
@@ -108,6 +114,11 @@ public boolean onCrossBoundary(LocalPlayer player, Location from, Location to, A
             }
         }
 
+        @Override
+        public boolean isMembershipDependent() {
+            return handler.isMembershipDependent();
+        }
+
         @Override
         public void tick(LocalPlayer player, ApplicableRegionSet set) {
             try (MCTiming ignored = timing.startTiming()) {
@@ -115,6 +126,11 @@ public void tick(LocalPlayer player, ApplicableRegionSet set) {
             }
         }
 
+        @Override
+        public boolean isTickRequired(ApplicableRegionSet set) {
+            return handler.isTickRequired(set);
+        }
+
         @Nullable
         @Override
         public StateFlag.State getInvincibility(LocalPlayer player) {
@@ -19,7 +19,11 @@
 
 package com.sk89q.worldguard.bukkit.util;
 
+import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.bukkit.event.BulkEvent;
+import com.sk89q.worldguard.bukkit.event.DelegateEvent;
+import com.sk89q.worldguard.util.trace.QueryTrace;
+import com.sk89q.worldguard.util.trace.QueryTracer;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
@@ -46,7 +50,7 @@ private Events() {
      */
     public static void fire(Event event) {
         checkNotNull(event);
-        Bukkit.getServer().getPluginManager().callEvent(event);
+        call(event);
     }
 
     /**
@@ -57,7 +61,7 @@ public static void fire(Event event) {
      * @return true if the event was cancelled
      */
     public static <T extends Event & Cancellable> boolean fireAndTestCancel(T eventToFire) {
-        Bukkit.getServer().getPluginManager().callEvent(eventToFire);
+        call(eventToFire);
         return eventToFire.isCancelled();
     }
 
@@ -71,7 +75,7 @@ public static <T extends Event & Cancellable> boolean fireAndTestCancel(T eventT
      * @return true if the event was fired and it caused the original event to be cancelled
      */
     public static <T extends Event & Cancellable> boolean fireToCancel(Cancellable original, T eventToFire) {
-        Bukkit.getServer().getPluginManager().callEvent(eventToFire);
+        call(eventToFire);
         if (eventToFire.isCancelled()) {
             original.setCancelled(true);
             return true;
@@ -90,7 +94,7 @@ public static <T extends Event & Cancellable> boolean fireToCancel(Cancellable o
      * @return true if the event was fired and it caused the original event to be cancelled
      */
     public static <T extends Event & Cancellable> boolean fireItemEventToCancel(PlayerInteractEvent original, T eventToFire) {
-        Bukkit.getServer().getPluginManager().callEvent(eventToFire);
+        call(eventToFire);
         if (eventToFire.isCancelled()) {
             original.setUseItemInHand(Result.DENY);
             return true;
@@ -109,7 +113,7 @@ public static <T extends Event & Cancellable> boolean fireItemEventToCancel(Play
      * @return true if the event was fired and it caused the original event to be cancelled
      */
     public static <T extends Event & Cancellable & BulkEvent> boolean fireBulkEventToCancel(Cancellable original, T eventToFire) {
-        Bukkit.getServer().getPluginManager().callEvent(eventToFire);
+        call(eventToFire);
         if (eventToFire.getExplicitResult() == Result.DENY) {
             original.setCancelled(true);
             return true;
@@ -118,6 +122,33 @@ public static <T extends Event & Cancellable & BulkEvent> boolean fireBulkEventT
         return false;
     }
 
+    /**
+     * Call an event, sampling it with the query tracer.
+     *
+     * @param event the event
+     */
+    private static void call(Event event) {
+        QueryTracer tracer = WorldGuard.getInstance().getQueryTracer();
+        QueryTrace trace = tracer.begin();
+        try {
+            Bukkit.getServer().getPluginManager().callEvent(event);
+        } finally {
+            if (trace != null) {
+                tracer.end(trace, getTraceName(event));
+            }
+        }
+    }
+
+    private static String getTraceName(Event event) {
+        if (event instanceof DelegateEvent) {
+            Event original = ((DelegateEvent) event).getOriginalEvent();
+            if (original != null) {
+                return event.getEventName() + " (" + original.getEventName() + ")";
+            }
+        }
+        return event.getEventName();
+    }
+
     /**
      * Return whether the given damage cause is fire-reltaed.
      *
@@ -27,59 +27,42 @@
 import org.bukkit.block.BlockState;
 import org.bukkit.entity.Entity;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 public class PerformanceReport extends DataReport {
 
     public PerformanceReport() {
-        super("Performance");
+        this(snapshot());
+    }
 
-        List<World> worlds = Bukkit.getServer().getWorlds();
+    /**
+     * Create a report from world data captured with {@link #snapshot()},
+     * which may be done off the main thread.
+     *
+     * @param worlds the captured worlds
+     */
+    public PerformanceReport(List<WorldSnapshot> worlds) {
+        super("Performance");
 
         append("World Count", worlds.size());
 
-        for (World world : worlds) {
-            int loadedChunkCount = world.getLoadedChunks().length;
+        for (WorldSnapshot world : worlds) {
+            int loadedChunkCount = world.loadedChunkCount;
 
-            DataReport report = new DataReport("World: " + world.getName());
-            report.append("Keep in Memory?", world.getKeepSpawnInMemory());
-            report.append("Entity Count", world.getEntities().size());
+            DataReport report = new DataReport("World: " + world.name);
+            report.append("Keep in Memory?", world.keepSpawnInMemory);
+            report.append("Entity Count", world.entityClasses.size());
             report.append("Chunk Count", loadedChunkCount);
+            report.append("Tile Entity Count", world.tileEntityClasses.size());
 
-            Map<Class<? extends Entity>, Integer> entityCounts = Maps.newHashMap();
-            Map<Class<? extends BlockState>, Integer> tileEntityCounts = Maps.newHashMap();
-
-            // Collect tile entities
-            int teCount = 0;
-            for (Chunk chunk : world.getLoadedChunks()) {
-                teCount += chunk.getTileEntities().length;
-                for (BlockState state : chunk.getTileEntities()) {
-                    Class<? extends BlockState> cls = state.getClass();
-
-                    if (tileEntityCounts.containsKey(cls)) {
-                        tileEntityCounts.put(cls, tileEntityCounts.get(cls) + 1);
-                    } else {
-                        tileEntityCounts.put(cls, 1);
-                    }
-                }
-            }
-            report.append("Tile Entity Count", teCount);
-
-            // Collect entities
-            for (Entity entity : world.getEntities()) {
-                Class<? extends Entity> cls = entity.getClass();
-
-                if (entityCounts.containsKey(cls)) {
-                    entityCounts.put(cls, entityCounts.get(cls) + 1);
-                } else {
-                    entityCounts.put(cls, 1);
-                }
-            }
+            Map<Class<?>, Integer> entityCounts = count(world.entityClasses);
+            Map<Class<?>, Integer> tileEntityCounts = count(world.tileEntityClasses);
 
             // Print entities
             DataReport entities = new DataReport("Entity Distribution");
-            for (Map.Entry<Class<? extends Entity>, Integer> entry : entityCounts.entrySet()) {
+            for (Map.Entry<Class<?>, Integer> entry : entityCounts.entrySet()) {
                 entities.append(entry.getKey().getSimpleName(), "%d [%f/chunk]",
                         entry.getValue(),
                         (float) (entry.getValue() / (double) loadedChunkCount));
@@ -88,7 +71,7 @@ public PerformanceReport() {
 
             // Print tile entities
             DataReport tileEntities = new DataReport("Tile Entity Distribution");
-            for (Map.Entry<Class<? extends BlockState>, Integer> entry : tileEntityCounts.entrySet()) {
+            for (Map.Entry<Class<?>, Integer> entry : tileEntityCounts.entrySet()) {
                 tileEntities.append(entry.getKey().getSimpleName(), "%d [%f/chunk]",
                         entry.getValue(),
                         (float) (entry.getValue() / (double) loadedChunkCount));
@@ -97,7 +80,68 @@ public PerformanceReport() {
 
             append(report.getTitle(), report);
         }
+    }
+
+    private static Map<Class<?>, Integer> count(List<Class<?>> classes) {
+        Map<Class<?>, Integer> counts = Maps.newHashMap();
+        for (Class<?> cls : classes) {
+            counts.merge(cls, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Capture the data of the report, which must be done on the main thread.
+     *
+     * <p>Loaded chunks and their tile entities are only listed once, and
+     * only the classes of entities and tile entities are kept.</p>
+     *
+     * @return the captured worlds
+     */
+    public static List<WorldSnapshot> snapshot() {
+        List<World> worlds = Bukkit.getServer().getWorlds();
+        List<WorldSnapshot> snapshots = new ArrayList<>(worlds.size());
+
+        for (World world : worlds) {
+            Chunk[] chunks = world.getLoadedChunks();
+            List<Class<?>> tileEntityClasses = new ArrayList<>();
+            for (Chunk chunk : chunks) {
+                for (BlockState state : chunk.getTileEntities()) {
+                    tileEntityClasses.add(state.getClass());
+                }
+            }
+
+            List<Entity> entities = world.getEntities();
+            List<Class<?>> entityClasses = new ArrayList<>(entities.size());
+            for (Entity entity : entities) {
+                entityClasses.add(entity.getClass());
+            }
+
+            snapshots.add(new WorldSnapshot(world.getName(), world.getKeepSpawnInMemory(), chunks.length,
+                    entityClasses, tileEntityClasses));
+        }
+
+        return snapshots;
+    }
 
+    /**
+     * The data of a world needed by the report.
+     */
+    public static final class WorldSnapshot {
+        private final String name;
+        private final boolean keepSpawnInMemory;
+        private final int loadedChunkCount;
+        private final List<Class<?>> entityClasses;
+        private final List<Class<?>> tileEntityClasses;
+
+        private WorldSnapshot(String name, boolean keepSpawnInMemory, int loadedChunkCount,
+                              List<Class<?>> entityClasses, List<Class<?>> tileEntityClasses) {
+            this.name = name;
+            this.keepSpawnInMemory = keepSpawnInMemory;
+            this.loadedChunkCount = loadedChunkCount;
+            this.entityClasses = entityClasses;
+            this.tileEntityClasses = tileEntityClasses;
+        }
     }
 
 }
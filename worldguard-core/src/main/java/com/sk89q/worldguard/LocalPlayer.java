@@ -28,6 +28,9 @@
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 
 import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nullable;
 
 public interface LocalPlayer extends Player, RegionAssociable {
 
@@ -39,6 +42,21 @@ public interface LocalPlayer extends Player, RegionAssociable {
      */
     boolean hasGroup(String group);
 
+    /**
+     * Get the lower-cased names of the groups this player is in, if the
+     * platform keeps a cache of group membership.
+     *
+     * <p>If a set is returned, it is used for group membership tests
+     * of {@link com.sk89q.worldguard.domains.GroupDomain}s instead of
+     * calling {@link #hasGroup(String)} for every group.</p>
+     *
+     * @return a set of groups, or {@code null} if no cached data is available
+     */
+    @Nullable
+    default Set<String> getCachedGroups() {
+        return null;
+    }
+
     /**
      * Kick this player.
      * 
@@ -26,18 +26,24 @@
 import com.sk89q.worldedit.util.task.SimpleSupervisor;
 import com.sk89q.worldedit.util.task.Supervisor;
 import com.sk89q.worldedit.util.task.Task;
+import com.sk89q.worldguard.config.ConfigurationManager;
 import com.sk89q.worldguard.internal.platform.WorldGuardPlatform;
 import com.sk89q.worldguard.protection.flags.Flags;
 import com.sk89q.worldguard.protection.flags.registry.FlagRegistry;
 import com.sk89q.worldguard.protection.flags.registry.SimpleFlagRegistry;
 import com.sk89q.worldguard.util.WorldGuardExceptionConverter;
 import com.sk89q.worldguard.util.concurrent.EvenMoreExecutors;
+import com.sk89q.worldguard.util.metrics.MetricsRegistry;
+import com.sk89q.worldguard.util.metrics.PrometheusFileExporter;
+import com.sk89q.worldguard.util.trace.QueryTracer;
 import com.sk89q.worldguard.util.profile.cache.HashMapCache;
 import com.sk89q.worldguard.util.profile.cache.ProfileCache;
 import com.sk89q.worldguard.util.profile.cache.SQLiteCache;
 import com.sk89q.worldguard.util.profile.resolver.ProfileService;
+import com.sk89q.worldguard.util.profiler.ContinuousSampler;
 import org.yaml.snakeyaml.Yaml;
 
+import javax.annotation.Nullable;
 import java.io.*;
 import java.net.URL;
 import java.net.URLConnection;
@@ -71,6 +77,13 @@ public final class WorldGuard {
     private ProfileService profileService;
     private ListeningExecutorService executorService;
     private WorldGuardExceptionConverter exceptionConverter = new WorldGuardExceptionConverter();
+    @Nullable
+    private ContinuousSampler continuousSampler;
+    private long mainThreadId;
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    @Nullable
+    private PrometheusFileExporter metricsExporter;
+    private final QueryTracer queryTracer = new QueryTracer();
 
     static {
         Flags.registerAll();
@@ -128,6 +141,39 @@ public void setup() {
         profileService = getPlatform().createProfileService(profileCache);
 
         getPlatform().load();
+
+        // Setup is called from the main server thread, which is the one worth sampling
+        mainThreadId = Thread.currentThread().getId();
+        ConfigurationManager config = getPlatform().getGlobalStateManager();
+        configureContinuousSampler(config);
+
+        metrics.setEnabled(config.metricsEnabled);
+        if (config.metricsEnabled && !config.metricsPrometheusFile.isEmpty()) {
+            metricsExporter = new PrometheusFileExporter(metrics,
+                    getPlatform().getConfigDir().resolve(config.metricsPrometheusFile), config.metricsPrometheusInterval);
+            metricsExporter.start();
+        }
+
+        queryTracer.configure(config.queryTraceSampleRate, config.queryTraceBufferSize);
+    }
+
+    /**
+     * Stop the continuous sampler, if there is one, and start a new one
+     * with the given configuration if continuous profiling is enabled.
+     *
+     * @param config the configuration
+     */
+    public void configureContinuousSampler(ConfigurationManager config) {
+        if (continuousSampler != null) {
+            continuousSampler.stop();
+            continuousSampler = null;
+        }
+
+        if (config.continuousProfiling) {
+            continuousSampler = new ContinuousSampler(mainThreadId,
+                    config.continuousProfilingInterval, config.continuousProfilingWindow, ContinuousSampler.DEFAULT_MAX_DEPTH);
+            continuousSampler.start();
+        }
     }
 
     /**
@@ -192,6 +238,44 @@ public ProfileCache getProfileCache() {
         return profileCache;
     }
 
+    /**
+     * Get the sampler that continuously profiles the main server thread.
+     *
+     * @return the sampler, or {@code null} if continuous profiling is disabled
+     */
+    @Nullable
+    public ContinuousSampler getContinuousSampler() {
+        return continuousSampler;
+    }
+
+    /**
+     * Get the registry of performance metrics.
+     *
+     * @return the metrics registry
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the exporter that periodically writes metrics to a file.
+     *
+     * @return the exporter, or {@code null} if none is configured
+     */
+    @Nullable
+    public PrometheusFileExporter getMetricsExporter() {
+        return metricsExporter;
+    }
+
+    /**
+     * Get the tracer that samples region queries made while handling events.
+     *
+     * @return the query tracer
+     */
+    public QueryTracer getQueryTracer() {
+        return queryTracer;
+    }
+
     /**
      * Get the exception converter
      *
@@ -220,6 +304,16 @@ public LocalPlayer checkPlayer(Actor sender) throws CommandException {
      * Called when WorldGuard should be disabled.
      */
     public void disable() {
+        if (continuousSampler != null) {
+            continuousSampler.stop();
+            continuousSampler = null;
+        }
+
+        if (metricsExporter != null) {
+            metricsExporter.stop();
+            metricsExporter = null;
+        }
+
         executorService.shutdown();
 
         try {
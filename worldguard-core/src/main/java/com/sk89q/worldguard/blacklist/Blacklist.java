@@ -19,9 +19,6 @@
 
 package com.sk89q.worldguard.blacklist;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.blacklist.action.Action;
 import com.sk89q.worldguard.blacklist.action.ActionType;
@@ -39,7 +36,6 @@
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -51,10 +47,7 @@ public class Blacklist {
     private final BlacklistLoggerHandler blacklistLogger = new BlacklistLoggerHandler();
     private BlacklistEvent lastEvent;
     private boolean useAsWhitelist;
-    private LoadingCache<String, TrackedEvent> repeatingEventCache = CacheBuilder.newBuilder()
-            .maximumSize(1000)
-            .expireAfterAccess(30, TimeUnit.SECONDS)
-            .build(CacheLoader.from(TrackedEvent::new));
+    private final RepeatTracker repeatTracker = new RepeatTracker();
 
     public Blacklist(boolean useAsWhitelist) {
         this.useAsWhitelist = useAsWhitelist;
@@ -105,16 +98,26 @@ public BlacklistLoggerHandler getLogger() {
      * @return Whether the event is allowed
      */
     public boolean check(BlacklistEvent event, boolean forceRepeat, boolean silent) {
-        List<BlacklistEntry> entries = index.getEntries(event.getTarget());
+        MatcherIndex.Rule[] rules = index.getRules(event.getTarget(), event.getEventType());
 
-        if (entries == null) {
+        if (rules.length == 0) {
             return true;
         }
 
         boolean ret = true;
+        Boolean repeating = null;
 
-        for (BlacklistEntry entry : entries) {
-            if (!entry.check(useAsWhitelist, event, forceRepeat, silent)) {
+        for (MatcherIndex.Rule rule : rules) {
+            BlacklistEntry entry = rule.getEntry();
+            if (!rule.getMatcher().test(event.getTarget()) || entry.shouldIgnore(event.getPlayer())) {
+                continue;
+            }
+
+            if (repeating == null) {
+                repeating = repeatTracker.isRepeated(event);
+            }
+
+            if (!entry.apply(useAsWhitelist, event, rule.getActions(), forceRepeat, silent, repeating)) {
                 ret = false;
             }
         }
@@ -210,7 +213,7 @@ public void load(File file) throws IOException {
                 }
             }
 
-            this.index = builder.build();
+            this.index = builder.build(useAsWhitelist);
         }
     }
 
@@ -260,8 +263,8 @@ public void notify(BlacklistEvent event, String comment) {
         WorldGuard.getInstance().getPlatform().broadcastNotification(new BlacklistNotify(event, comment).create());
     }
 
-    public LoadingCache<String, TrackedEvent> getRepeatingEventCache() {
-        return repeatingEventCache;
+    RepeatTracker getRepeatTracker() {
+        return repeatTracker;
     }
 
 }
@@ -23,7 +23,6 @@
 import com.sk89q.worldguard.blacklist.action.Action;
 import com.sk89q.worldguard.blacklist.action.ActionResult;
 import com.sk89q.worldguard.blacklist.event.BlacklistEvent;
-import com.google.common.cache.LoadingCache;
 
 import javax.annotation.Nullable;
 import java.util.*;
@@ -165,28 +164,24 @@ public boolean check(boolean useAsWhitelist, BlacklistEvent event, boolean force
             return true;
         }
 
-        boolean repeating = false;
-        String eventCacheKey = event.getCauseName();
-        LoadingCache<String, TrackedEvent> repeatingEventCache = blacklist.getRepeatingEventCache();
-
-        // Check to see whether this event is being repeated
-        TrackedEvent tracked = repeatingEventCache.getUnchecked(eventCacheKey);
-        if (tracked.matches(event)) {
-            repeating = true;
-        } else {
-            tracked.setLastEvent(event);
-            tracked.resetTimer();
-        }
-
-        List<Action> actions = getActions(event.getClass());
+        boolean repeating = blacklist.getRepeatTracker().isRepeated(event);
+        return apply(useAsWhitelist, event, getActions(event.getClass()), forceRepeat, silent, repeating);
+    }
 
+    /**
+     * Apply the actions of this entry to an event.
+     *
+     * @param useAsWhitelist Whether this entry is being used in a whitelist
+     * @param event The event to check
+     * @param actions The actions of this entry for the event's type
+     * @param forceRepeat Whether to force repeating notifications even within the delay limit
+     * @param silent Whether to prevent notifications from happening
+     * @param repeating Whether the event repeats the last event of its cause
+     * @return Whether the action was allowed
+     */
+    boolean apply(boolean useAsWhitelist, BlacklistEvent event, List<Action> actions, boolean forceRepeat, boolean silent, boolean repeating) {
         boolean ret = !useAsWhitelist;
 
-        // Nothing to do
-        if (actions == null) {
-            return ret;
-        }
-
         for (Action action : actions) {
             ActionResult result = action.apply(event, silent, repeating, forceRepeat);
             switch (result) {
@@ -20,10 +20,16 @@
 package com.sk89q.worldguard.blacklist;
 
 import com.sk89q.worldguard.blacklist.event.BlacklistEvent;
+import com.sk89q.worldguard.blacklist.logger.AsyncLoggerHandler;
+import com.sk89q.worldguard.blacklist.logger.LoggedEvent;
 import com.sk89q.worldguard.blacklist.logger.LoggerHandler;
 
-import java.util.HashSet;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.logging.Logger;
 
 public class BlacklistLoggerHandler implements LoggerHandler {
 
@@ -31,7 +37,13 @@ public class BlacklistLoggerHandler implements LoggerHandler {
      * List of logger handlers.
      */
     private Set<LoggerHandler> handlers
-            = new HashSet<>();
+            = new CopyOnWriteArraySet<>();
+
+    /**
+     * The queue in front of the handlers, if events are logged in the background.
+     */
+    @Nullable
+    private AsyncLoggerHandler async;
 
     /**
      * Add a handler.
@@ -58,6 +70,46 @@ public void clearHandlers() {
         handlers.clear();
     }
 
+    /**
+     * Log events from a background thread instead of the thread raising
+     * them.
+     *
+     * @param capacity The maximum number of events waiting to be logged
+     * @param policy What to do when too many events are waiting
+     * @param name The name of the background thread
+     * @param logger The logger to log errors to
+     */
+    public void enableAsync(int capacity, AsyncLoggerHandler.OverflowPolicy policy, String name, Logger logger) {
+        if (async == null) {
+            async = new AsyncLoggerHandler(new LoggerHandler() {
+                @Override
+                public void logEvent(BlacklistEvent event, String comment) {
+                    dispatch(Collections.singletonList(new LoggedEvent(event, comment, System.currentTimeMillis())));
+                }
+
+                @Override
+                public void logEvents(List<LoggedEvent> events) {
+                    dispatch(events);
+                }
+
+                @Override
+                public void close() {
+                    closeHandlers();
+                }
+            }, capacity, policy, name, logger);
+        }
+    }
+
+    /**
+     * Get the queue in front of the handlers.
+     *
+     * @return The queue, or {@code null} if events are logged synchronously
+     */
+    @Nullable
+    public AsyncLoggerHandler getAsync() {
+        return async;
+    }
+
     /**
      * Log an event.
      *
@@ -65,8 +117,19 @@ public void clearHandlers() {
      */
     @Override
     public void logEvent(BlacklistEvent event, String comment) {
+        AsyncLoggerHandler async = this.async;
+        if (async != null) {
+            async.logEvent(event, comment);
+        } else {
+            for (LoggerHandler handler : handlers) {
+                handler.logEvent(event, comment);
+            }
+        }
+    }
+
+    private void dispatch(List<LoggedEvent> events) {
         for (LoggerHandler handler : handlers) {
-            handler.logEvent(event, comment);
+            handler.logEvents(events);
         }
     }
 
@@ -75,6 +138,15 @@ public void logEvent(BlacklistEvent event, String comment) {
      */
     @Override
     public void close() {
+        AsyncLoggerHandler async = this.async;
+        if (async != null) {
+            async.close(); // Closes the handlers once the queue is written
+        } else {
+            closeHandlers();
+        }
+    }
+
+    private void closeHandlers() {
         for (LoggerHandler handler : handlers) {
             handler.close();
         }
@@ -19,61 +19,138 @@
 
 package com.sk89q.worldguard.blacklist;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
+import com.google.common.collect.ImmutableList;
+import com.sk89q.worldguard.blacklist.action.Action;
+import com.sk89q.worldguard.blacklist.event.EventType;
 import com.sk89q.worldguard.blacklist.target.Target;
 import com.sk89q.worldguard.blacklist.target.TargetMatcher;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map.Entry;
+import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+/**
+ * A compiled index of blacklist entries.
+ *
+ * <p>Entries are bucketed by the type ID of their target and by event
+ * type, and each bucket holds the actions of its entries for that event
+ * type, so checking an event is a map lookup followed by the matchers of
+ * the entries that can act on the event. Events on unlisted items, and
+ * events for which no entry has actions, find an empty bucket.</p>
+ */
 class MatcherIndex {
 
-    private static final MatcherIndex EMPTY_INSTANCE = new MatcherIndex(HashBasedTable.create());
-    private final Table<String, TargetMatcher, BlacklistEntry> entries;
+    private static final Rule[] NO_RULES = new Rule[0];
+    private static final EventType[] EVENT_TYPES = EventType.values();
+    private static final MatcherIndex EMPTY_INSTANCE = new MatcherIndex(new HashMap<>(), 0);
+
+    private final Map<String, Rule[][]> rules;
+    private final int size;
 
-    private MatcherIndex(Table<String, TargetMatcher, BlacklistEntry> entries) {
-        checkNotNull(entries);
-        this.entries = entries;
+    private MatcherIndex(Map<String, Rule[][]> rules, int size) {
+        checkNotNull(rules);
+        this.rules = rules;
+        this.size = size;
     }
 
-    public List<BlacklistEntry> getEntries(Target target) {
-        List<BlacklistEntry> found = new ArrayList<>();
-        for (Entry<TargetMatcher, BlacklistEntry> entry : entries.row(target.getTypeId()).entrySet()) {
-            if (entry.getKey().test(target)) {
-                found.add(entry.getValue());
-            }
-        }
-        return found;
+    /**
+     * Get the rules that may apply to an event on the given target.
+     *
+     * <p>The matcher of each rule still has to be tested against the
+     * target.</p>
+     *
+     * @param target the target
+     * @param type the event type
+     * @return an array of rules, which must not be modified
+     */
+    public Rule[] getRules(Target target, EventType type) {
+        Rule[][] byType = rules.get(target.getTypeId());
+        return byType != null ? byType[type.ordinal()] : NO_RULES;
     }
 
     public int size() {
-        return entries.size();
+        return size;
     }
 
     public boolean isEmpty() {
-        return entries.isEmpty();
+        return size == 0;
     }
 
     public static MatcherIndex getEmptyInstance() {
         return EMPTY_INSTANCE;
     }
 
+    /**
+     * An entry together with its matcher and its actions for one event type.
+     */
+    static final class Rule {
+        private final TargetMatcher matcher;
+        private final BlacklistEntry entry;
+        private final List<Action> actions;
+
+        private Rule(TargetMatcher matcher, BlacklistEntry entry, List<Action> actions) {
+            this.matcher = matcher;
+            this.entry = entry;
+            this.actions = actions;
+        }
+
+        TargetMatcher getMatcher() {
+            return matcher;
+        }
+
+        BlacklistEntry getEntry() {
+            return entry;
+        }
+
+        List<Action> getActions() {
+            return actions;
+        }
+    }
+
     public static class Builder {
-        private final Table<String, TargetMatcher, BlacklistEntry> entries = HashBasedTable.create();
+        private final Map<String, Map<TargetMatcher, BlacklistEntry>> entries = new LinkedHashMap<>();
 
         public Builder add(TargetMatcher matcher, BlacklistEntry entry) {
             checkNotNull(matcher);
-            checkNotNull(entries);
-            entries.put(matcher.getMatchedTypeId(), matcher, entry);
+            checkNotNull(entry);
+            entries.computeIfAbsent(matcher.getMatchedTypeId(), k -> new LinkedHashMap<>()).put(matcher, entry);
             return this;
         }
 
-        public MatcherIndex build() {
-            return new MatcherIndex(entries);
+        /**
+         * Compile the index.
+         *
+         * <p>This must be called after the actions of the entries have
+         * been set.</p>
+         *
+         * @param useAsWhitelist whether the blacklist is used as a whitelist, in which case entries without actions still apply
+         * @return the index
+         */
+        public MatcherIndex build(boolean useAsWhitelist) {
+            Map<String, Rule[][]> rules = new HashMap<>();
+            int size = 0;
+
+            for (Map.Entry<String, Map<TargetMatcher, BlacklistEntry>> row : entries.entrySet()) {
+                Rule[][] byType = new Rule[EVENT_TYPES.length][];
+                for (EventType type : EVENT_TYPES) {
+                    List<Rule> bucket = new ArrayList<>();
+                    for (Map.Entry<TargetMatcher, BlacklistEntry> cell : row.getValue().entrySet()) {
+                        List<Action> actions = cell.getValue().getActions(type.getEventClass());
+                        if (!actions.isEmpty() || useAsWhitelist) {
+                            bucket.add(new Rule(cell.getKey(), cell.getValue(), ImmutableList.copyOf(actions)));
+                        }
+                    }
+                    byType[type.ordinal()] = bucket.isEmpty() ? NO_RULES : bucket.toArray(NO_RULES);
+                }
+                rules.put(row.getKey(), byType);
+                size += row.getValue().size();
+            }
+
+            return new MatcherIndex(rules, size);
         }
     }
 
@@ -0,0 +1,122 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.blacklist;
+
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.LocalPlayer;
+import com.sk89q.worldguard.blacklist.event.BlacklistEvent;
+import com.sk89q.worldguard.blacklist.event.EventType;
+import com.sk89q.worldguard.util.collect.EntryBase;
+import com.sk89q.worldguard.util.collect.LongBaseHashTable;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the last event of each cause, so that notifications of quickly
+ * repeated events can be suppressed.
+ *
+ * <p>Causes are keyed by a {@code long} derived from the player's unique
+ * ID, or from the position of the event if there is no player. Entries
+ * that have not been accessed for {@link #EXPIRY} milliseconds are purged
+ * when the tracker grows.</p>
+ *
+ * <p>This class is thread safe.</p>
+ */
+final class RepeatTracker {
+
+    static final long EXPIRY = TimeUnit.SECONDS.toMillis(30);
+    private static final int MIN_PURGE_THRESHOLD = 64;
+
+    private final LongBaseHashTable events = new LongBaseHashTable();
+    private int size;
+    private int purgeThreshold = MIN_PURGE_THRESHOLD;
+
+    /**
+     * Record an event and return whether it repeats the last event of
+     * its cause.
+     *
+     * @param event the event
+     * @return true if repeated
+     */
+    boolean isRepeated(BlacklistEvent event) {
+        return isRepeated(getKey(event), event.getEventType(), System.currentTimeMillis());
+    }
+
+    synchronized boolean isRepeated(long key, EventType type, long now) {
+        TrackedEvent tracked = (TrackedEvent) events.getEntry(key);
+        if (tracked != null) {
+            return tracked.track(type, now);
+        }
+
+        tracked = new TrackedEvent(key);
+        tracked.track(type, now);
+        events.put(tracked);
+        if (++size > purgeThreshold) {
+            purge(now);
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of tracked causes.
+     *
+     * @return the number of causes
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    private void purge(long now) {
+        for (EntryBase entry : events.entries()) {
+            TrackedEvent tracked = (TrackedEvent) entry;
+            if (tracked.getLastAccess() <= now - EXPIRY) {
+                events.remove(tracked.getKey());
+                size--;
+            }
+        }
+
+        purgeThreshold = Math.max(MIN_PURGE_THRESHOLD, size * 2);
+    }
+
+    static long getKey(BlacklistEvent event) {
+        LocalPlayer player = event.getPlayer();
+        if (player != null) {
+            UUID uuid = player.getUniqueId();
+            return mix(uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits());
+        }
+
+        BlockVector3 position = event.getPosition();
+        return mix(((long) position.getBlockX() & 0x3FFFFFF) << 38
+                | ((long) position.getBlockZ() & 0x3FFFFFF) << 12
+                | ((long) position.getBlockY() & 0xFFF));
+    }
+
+    /**
+     * Spread the bits of a key, as {@link LongBaseHashTable} only hashes
+     * a few of them.
+     */
+    private static long mix(long key) {
+        key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return key ^ (key >>> 33);
+    }
+
+}
@@ -19,29 +19,50 @@
 
 package com.sk89q.worldguard.blacklist;
 
-import com.sk89q.worldguard.blacklist.event.BlacklistEvent;
+import com.sk89q.worldguard.blacklist.event.EventType;
+import com.sk89q.worldguard.util.collect.EntryBase;
 
 import javax.annotation.Nullable;
 
-class TrackedEvent {
+/**
+ * The last event of a cause, stored in a {@link RepeatTracker}.
+ */
+class TrackedEvent extends EntryBase {
+
+    private static final long REPEAT_DELAY = 3000;
 
     @Nullable
-    private BlacklistEvent lastEvent;
-    private long time = 0;
+    private EventType lastType;
+    private long time;
+    private long lastAccess;
 
-    public boolean matches(BlacklistEvent other) {
-        if (lastEvent == null) {
-            return false;
-        }
-        long now = System.currentTimeMillis();
-        return other.getEventType() == lastEvent.getEventType() && time > now - 3000;
+    TrackedEvent(long key) {
+        super(key);
     }
 
-    public void resetTimer() {
-        time = System.currentTimeMillis();
+    long getKey() {
+        return key;
     }
 
-    public void setLastEvent(@Nullable BlacklistEvent lastEvent) {
-        this.lastEvent = lastEvent;
+    long getLastAccess() {
+        return lastAccess;
     }
+
+    /**
+     * Record an event.
+     *
+     * @param type the event type
+     * @param now the current time in milliseconds
+     * @return true if the event repeats the last event within the delay
+     */
+    boolean track(EventType type, long now) {
+        lastAccess = now;
+        if (type == lastType && time > now - REPEAT_DELAY) {
+            return true;
+        }
+        lastType = type;
+        time = now;
+        return false;
+    }
+
 }
@@ -0,0 +1,233 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.blacklist.logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.worldguard.blacklist.event.BlacklistEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Passes events to another handler from a background thread, so that the
+ * thread raising blacklist events does not wait for files or databases.
+ *
+ * <p>Events are put in a bounded, lock-free queue and handed to the
+ * delegate in batches with {@link LoggerHandler#logEvents(List)}. What
+ * happens when the queue is full is decided by the {@link OverflowPolicy}.</p>
+ */
+public class AsyncLoggerHandler implements LoggerHandler {
+
+    /**
+     * The default capacity of the queue.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long CLOSE_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+
+    private final LoggerHandler delegate;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final Logger logger;
+    private final Queue<LoggedEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * Create a new instance and start its writer thread.
+     *
+     * @param delegate The handler to pass events to
+     * @param capacity The maximum number of events waiting to be logged
+     * @param policy What to do when the queue is full
+     * @param name The name of the writer thread
+     * @param logger The logger to log errors to
+     */
+    public AsyncLoggerHandler(LoggerHandler delegate, int capacity, OverflowPolicy policy, String name, Logger logger) {
+        checkNotNull(delegate);
+        checkArgument(capacity >= 1, "Kapacita fronty nesmí být menší než 1");
+        checkNotNull(policy);
+        checkNotNull(name);
+        checkNotNull(logger);
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.logger = logger;
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public void logEvent(BlacklistEvent event, String comment) {
+        if (closed) {
+            dropped.incrementAndGet();
+            return;
+        }
+
+        while (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            if (policy == OverflowPolicy.DROP || closed) {
+                dropped.incrementAndGet();
+                return;
+            }
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+
+        queue.offer(new LoggedEvent(event, comment, System.currentTimeMillis()));
+        queued.incrementAndGet();
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        List<LoggedEvent> batch = new ArrayList<>(MAX_BATCH_SIZE);
+
+        while (!closed) {
+            if (!drain(batch)) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Write up to one batch of queued events.
+     *
+     * @param batch A list to collect the batch in
+     * @return true if any events were written
+     */
+    private boolean drain(List<LoggedEvent> batch) {
+        LoggedEvent event;
+        while (batch.size() < MAX_BATCH_SIZE && (event = queue.poll()) != null) {
+            batch.add(event);
+        }
+
+        if (batch.isEmpty()) {
+            return false;
+        }
+
+        size.addAndGet(-batch.size());
+        try {
+            delegate.logEvents(batch);
+            written.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Nepodařilo se zapsat " + batch.size() + " událostí černé listiny", e);
+        }
+        batch.clear();
+        return true;
+    }
+
+    /**
+     * Get the number of events that have been accepted into the queue.
+     *
+     * @return The number of queued events
+     */
+    public long getQueuedCount() {
+        return queued.get();
+    }
+
+    /**
+     * Get the number of events that were dropped because the queue was
+     * full or the handler was closed.
+     *
+     * @return The number of dropped events
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Get the number of events that have been passed to the delegate.
+     *
+     * @return The number of written events
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * Get the number of events currently waiting in the queue.
+     *
+     * @return The number of pending events
+     */
+    public int getPendingCount() {
+        return size.get();
+    }
+
+    /**
+     * Stop the writer thread, write the events still in the queue and
+     * close the delegate.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(CLOSE_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!thread.isAlive()) {
+            List<LoggedEvent> batch = new ArrayList<>(MAX_BATCH_SIZE);
+            while (drain(batch)) {
+                // Write the rest of the queue
+            }
+            delegate.close();
+        } else {
+            logger.warning("Zapisovač událostí černé listiny se nezastavil včas");
+        }
+    }
+
+    /**
+     * Decides what happens to an event when the queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Discard the event and count it as dropped.
+         */
+        DROP,
+        /**
+         * Wait until the writer thread has made room in the queue.
+         */
+        BLOCK
+    }
+
+}
@@ -22,17 +22,16 @@
 import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldguard.LocalPlayer;
 import com.sk89q.worldguard.blacklist.event.BlacklistEvent;
-import com.sk89q.worldguard.blacklist.event.EventType;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import javax.annotation.Nullable;
-
 public class DatabaseHandler implements LoggerHandler {
 
     private final String dsn;
@@ -76,42 +75,50 @@ private Connection getConnection() throws SQLException {
         return conn;
     }
 
+    @Override
+    public void logEvent(BlacklistEvent event, String comment) {
+        logEvents(Collections.singletonList(new LoggedEvent(event, comment, System.currentTimeMillis())));
+    }
+
     /**
-     * Log an event to the database.
+     * Log a batch of events to the database with a single batched insert.
      *
-     * @param eventType The event type to log
-     * @param player The player associated with the event
-     * @param pos The location of the event
-     * @param item The item used
-     * @param comment The comment associated with the event
+     * @param events The events to log
      */
-    private void logEvent(EventType eventType, @Nullable LocalPlayer player, BlockVector3 pos, String item, String comment) {
+    @Override
+    public void logEvents(List<LoggedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
         try {
             Connection conn = getConnection();
-            PreparedStatement stmt = conn.prepareStatement(
+            try (PreparedStatement stmt = conn.prepareStatement(
                     "INSERT INTO " + table
                       + "(event, world, player, x, y, z, item, time, comment) VALUES "
-                      + "(?, ?, ?, ?, ?, ?, ?, ?, ?)");
-            stmt.setString(1, eventType.name());
-            stmt.setString(2, worldName);
-            stmt.setString(3, player != null ? player.getName() : "");
-            stmt.setInt(4, pos.getBlockX());
-            stmt.setInt(5, pos.getBlockY());
-            stmt.setInt(6, pos.getBlockZ());
-            stmt.setString(7, item);
-            stmt.setInt(8, (int)(System.currentTimeMillis() / 1000));
-            stmt.setString(9, comment);
-            stmt.executeUpdate();
+                      + "(?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (LoggedEvent entry : events) {
+                    BlacklistEvent event = entry.getEvent();
+                    LocalPlayer player = event.getPlayer();
+                    BlockVector3 pos = event.getLoggedPosition();
+                    stmt.setString(1, event.getEventType().name());
+                    stmt.setString(2, worldName);
+                    stmt.setString(3, player != null ? player.getName() : "");
+                    stmt.setInt(4, pos.getBlockX());
+                    stmt.setInt(5, pos.getBlockY());
+                    stmt.setInt(6, pos.getBlockZ());
+                    stmt.setString(7, event.getTarget().getTypeId());
+                    stmt.setInt(8, (int) (entry.getTime() / 1000));
+                    stmt.setString(9, entry.getComment());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Nepodařilo se zapsat událost černé listiny do databáze: " + e.getMessage());
         }
     }
 
-    @Override
-    public void logEvent(BlacklistEvent event, String comment) {
-        logEvent(event.getEventType(), event.getPlayer(), event.getLoggedPosition(), event.getTarget().getTypeId(), comment);
-    }
-
     @Override
     public void close() {
         try {
@@ -29,28 +29,27 @@
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.GregorianCalendar;
-import java.util.Iterator;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class FileHandler implements LoggerHandler {
 
-    private static Pattern pattern = Pattern.compile("%.");
-    private static SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+
+    private final int cacheSize;
+    private final LogPathTemplate pathTemplate;
+    private final Map<String, LogFileWriter> writers;
 
-    private int cacheSize = 10;
-    private String pathPattern;
-    private String worldName;
-    private TreeMap<String,LogFileWriter> writers = new TreeMap<>();
-    
     private final Logger logger;
 
     /**
@@ -61,9 +60,7 @@ public class FileHandler implements LoggerHandler {
      * @param logger The logger used to log errors
      */
     public FileHandler(String pathPattern, String worldName, Logger logger) {
-        this.pathPattern = pathPattern;
-        this.worldName = worldName;
-        this.logger = logger;
+        this(pathPattern, 10, worldName, logger);
     }
 
     /**
@@ -78,83 +75,53 @@ public FileHandler(String pathPattern, int cacheSize, String worldName, Logger l
         if (cacheSize < 1) {
             throw new IllegalArgumentException("Velikost mezipaměti nesmí být menší než 1");
         }
-        this.pathPattern = pathPattern;
+        this.pathTemplate = new LogPathTemplate(pathPattern, worldName);
         this.cacheSize = cacheSize;
-        this.worldName = worldName;
         this.logger = logger;
-    }
-
-    /**
-     * Build the path.
-     *
-     * @param playerName The name of the player
-     * @return The path for the logfile, null when no applicable path could be found
-     */
-    private @Nullable String buildPath(@Nullable String playerName) {
-        GregorianCalendar calendar = new GregorianCalendar();
-
-        Matcher m = pattern.matcher(pathPattern);
-        StringBuilder buffer = new StringBuilder();
-
-        // Pattern replacements
-        while (m.find()) {
-            String group = m.group();
-            String rep = "?";
-
-            if (group.matches("%%")) {
-                rep = "%";
-            } else if (group.matches("%u")) {
-                if (playerName == null) return null; // Unable to create a path for non player logging events
-                rep = playerName.toLowerCase().replaceAll("[^A-Za-z0-9_]", "_");
-                if (rep.length() > 32) { // Actual max length is 16
-                    rep = rep.substring(0, 32);
-                }
 
-            } else if (group.matches("%w")) {
-                rep = worldName.toLowerCase().replaceAll("[^A-Za-z0-9_]", "_");
-                if (rep.length() > 32) { // Actual max length is 16
-                    rep = rep.substring(0, 32);
+        // Least recently used writers come first and are closed when the cache is full
+        this.writers = new LinkedHashMap<String, LogFileWriter>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LogFileWriter> eldest) {
+                if (size() > FileHandler.this.cacheSize) {
+                    closeWriter(eldest.getValue());
+                    return true;
                 }
-
-            // Date and time
-            } else if (group.matches("%Y")) {
-                rep = String.valueOf(calendar.get(Calendar.YEAR));
-            } else if (group.matches("%m")) {
-                rep = String.format("%02d", calendar.get(Calendar.MONTH));
-            } else if (group.matches("%d")) {
-                rep = String.format("%02d", calendar.get(Calendar.DAY_OF_MONTH));
-            } else if (group.matches("%W")) {
-                rep = String.format("%02d", calendar.get(Calendar.WEEK_OF_YEAR));
-            } else if (group.matches("%H")) {
-                rep = String.format("%02d", calendar.get(Calendar.HOUR_OF_DAY));
-            } else if (group.matches("%h")) {
-                rep = String.format("%02d", calendar.get(Calendar.HOUR));
-            } else if (group.matches("%i")) {
-                rep = String.format("%02d", calendar.get(Calendar.MINUTE));
-            } else if (group.matches("%s")) {
-                rep = String.format("%02d", calendar.get(Calendar.SECOND));
+                return false;
             }
+        };
+    }
 
-            m.appendReplacement(buffer, rep);
+    private void closeWriter(LogFileWriter writer) {
+        try {
+            writer.getWriter().close();
+        } catch (IOException ignore) {
         }
-
-        m.appendTail(buffer);
-
-        return buffer.toString();
     }
 
     /**
-     * Log a message.
+     * Write a message to the log file of its player, without flushing it.
      *
      * @param player The player to log
      * @param message The message to log
      * @param comment The comment associated with the logged event
+     * @param time The time of the event
+     * @param used The writers that have been written to, for flushing them afterwards
      */
-    private void log(@Nullable LocalPlayer player, String message, String comment) {
-        String path = buildPath(player != null ? player.getName() : null);
+    private void log(@Nullable LocalPlayer player, String message, String comment, long time, Set<LogFileWriter> used) {
+        if (pathTemplate.rollsOver(time)) {
+            // Files of the previous period are not written to anymore
+            for (LogFileWriter writer : writers.values()) {
+                closeWriter(writer);
+                used.remove(writer);
+            }
+            writers.clear();
+        }
+
+        String path = pathTemplate.build(player != null ? player.getName() : null, time);
         if (path == null) return;
         try {
-            String date = dateFormat.format(new Date());
+            String date = dateFormat.format(Instant.ofEpochMilli(time));
             String line = "[" + date + "] " + (player != null ? player.getName() : "Neznámý zdroj") + ": " + message
                     + (comment != null ? " (" + comment + ")" : "") + "\r\n";
 
@@ -165,8 +132,8 @@ private void log(@Nullable LocalPlayer player, String message, String comment) {
                 try {
                     BufferedWriter out = writer.getWriter();
                     out.write(line);
-                    out.flush();
                     writer.updateLastUse();
+                    used.add(writer);
                     return;
                 } catch (IOException e) {
                     // Failed initial rewrite... let's re-open
@@ -183,31 +150,9 @@ private void log(@Nullable LocalPlayer player, String message, String comment) {
             FileWriter stream = new FileWriter(path, true);
             BufferedWriter out = new BufferedWriter(stream);
             out.write(line);
-            out.flush();
             writer = new LogFileWriter(path, out);
-            writers.put(path, writer);
-
-            // Check to make sure our cache doesn't get too big!
-            if (writers.size() > cacheSize) {
-                Iterator<Map.Entry<String,LogFileWriter>> it =
-                        writers.entrySet().iterator();
-
-                // Remove some entries
-                while (it.hasNext()) {
-                    Map.Entry<String,LogFileWriter> entry = it.next();
-                    try {
-                        entry.getValue().getWriter().close();
-                    } catch (IOException ignore) {
-                    }
-                    it.remove();
-
-                    // Trimmed enough
-                    if (writers.size() <= cacheSize) {
-                        break;
-                    }
-                }
-            }
-
+            writers.put(path, writer); // May close the least recently used writer
+            used.add(writer);
         } catch (IOException e) {
             logger.log(Level.WARNING, "Nepodařilo se zapsat událost na černou listinu '"
                     + path + "': " + e.getMessage());
@@ -224,23 +169,43 @@ private String getCoordinates(BlockVector3 pos) {
         return "@" + pos.getBlockX() + "," + pos.getBlockY() + "," + pos.getBlockZ();
     }
 
-    private void logEvent(BlacklistEvent event, String text, Target target, BlockVector3 pos, String comment) {
-        log(event.getPlayer(), "Pokus o " + text + " " + target.getFriendlyName() + " " + getCoordinates(pos), comment);
+    private void logEvent(BlacklistEvent event, String text, Target target, BlockVector3 pos, String comment,
+                          long time, Set<LogFileWriter> used) {
+        log(event.getPlayer(), "Pokus o " + text + " " + target.getFriendlyName() + " " + getCoordinates(pos), comment, time, used);
     }
 
     @Override
     public void logEvent(BlacklistEvent event, String comment) {
-        logEvent(event, event.getDescription(), event.getTarget(), event.getPosition(), comment);
+        logEvents(Collections.singletonList(new LoggedEvent(event, comment, System.currentTimeMillis())));
     }
 
     @Override
-    public void close() {
-        for (Map.Entry<String,LogFileWriter> entry : writers.entrySet()) {
+    public void logEvents(List<LoggedEvent> events) {
+        Set<LogFileWriter> used = new HashSet<>();
+        for (LoggedEvent entry : events) {
+            BlacklistEvent event = entry.getEvent();
+            logEvent(event, event.getDescription(), event.getTarget(), event.getPosition(), entry.getComment(), entry.getTime(), used);
+        }
+
+        // Flush once per file for the whole batch
+        for (LogFileWriter writer : used) {
+            if (writers.get(writer.getPath()) != writer) {
+                continue; // Closed when evicted, which flushed it
+            }
             try {
-                entry.getValue().getWriter().close();
-            } catch (IOException ignore) {
+                writer.getWriter().flush();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Nepodařilo se zapsat událost na černou listinu '"
+                        + writer.getPath() + "': " + e.getMessage());
             }
         }
+    }
+
+    @Override
+    public void close() {
+        for (LogFileWriter writer : writers.values()) {
+            closeWriter(writer);
+        }
 
         writers.clear();
     }
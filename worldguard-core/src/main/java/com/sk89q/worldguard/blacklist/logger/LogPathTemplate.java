@@ -0,0 +1,286 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.blacklist.logger;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A log file path pattern, such as {@code logs/%Y-%m-%d.log}, compiled
+ * into a list of segments.
+ *
+ * <p>The values of the date and time placeholders are only recomputed when
+ * the finest time field used by the pattern rolls over, and the paths
+ * built in the current period are remembered per player, so building the
+ * path of an event usually costs a map lookup.</p>
+ *
+ * <p>Instances are not thread safe.</p>
+ */
+final class LogPathTemplate {
+
+    private static final int MAX_CACHED_NAMES = 1024;
+    private static final int MAX_NAME_LENGTH = 32; // Actual max length is 16
+
+    private static final int LITERAL = 0;
+    private static final int PLAYER = 1;
+    private static final int UNKNOWN = 2;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private final int granularity;
+    private final boolean usesPlayer;
+    private final Map<String, String> paths = new HashMap<>();
+    private final Map<String, String> sanitizedNames = new HashMap<>();
+    private final String[] timeValues;
+    private long periodStart = Long.MAX_VALUE;
+    private long periodEnd = Long.MIN_VALUE;
+
+    /**
+     * Compile a pattern.
+     *
+     * @param pattern The pattern
+     * @param worldName The name of the world, for {@code %w}
+     */
+    LogPathTemplate(String pattern, String worldName) {
+        checkNotNull(pattern);
+        checkNotNull(worldName);
+
+        StringBuilder literal = new StringBuilder();
+        int granularity = -1;
+        boolean usesPlayer = false;
+
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c != '%' || i + 1 >= pattern.length()) {
+                literal.append(c);
+                continue;
+            }
+
+            char code = pattern.charAt(++i);
+            int field = getCalendarField(code);
+            if (code == '%') {
+                literal.append('%');
+            } else if (code == 'w') {
+                literal.append(sanitize(worldName));
+            } else {
+                flush(literal);
+                if (code == 'u') {
+                    segments.add(new Segment(PLAYER, -1, null));
+                    usesPlayer = true;
+                } else if (field != -1) {
+                    segments.add(new Segment(-1, field, null));
+                    granularity = Math.max(granularity, getGranularity(field));
+                } else {
+                    segments.add(new Segment(UNKNOWN, -1, null));
+                }
+            }
+        }
+
+        flush(literal);
+
+        this.granularity = granularity;
+        this.usesPlayer = usesPlayer;
+        this.timeValues = new String[segments.size()];
+    }
+
+    private void flush(StringBuilder literal) {
+        if (literal.length() > 0) {
+            segments.add(new Segment(LITERAL, -1, literal.toString()));
+            literal.setLength(0);
+        }
+    }
+
+    /**
+     * Build the path of the log file for an event.
+     *
+     * @param playerName The name of the player, or {@code null} if the event has no player
+     * @param time The time of the event, in milliseconds since the epoch
+     * @return The path, or {@code null} if the pattern needs a player and there is none
+     */
+    @Nullable
+    String build(@Nullable String playerName, long time) {
+        if (usesPlayer && playerName == null) {
+            return null; // Unable to create a path for non player logging events
+        }
+
+        updatePeriod(time);
+
+        String key = usesPlayer ? playerName : "";
+        String path = paths.get(key);
+        if (path == null) {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < segments.size(); i++) {
+                Segment segment = segments.get(i);
+                switch (segment.kind) {
+                    case LITERAL:
+                        builder.append(segment.literal);
+                        break;
+                    case PLAYER:
+                        builder.append(getSanitizedName(playerName));
+                        break;
+                    case UNKNOWN:
+                        builder.append('?');
+                        break;
+                    default:
+                        builder.append(timeValues[i]);
+                }
+            }
+            path = builder.toString();
+            if (paths.size() >= MAX_CACHED_NAMES) {
+                paths.clear();
+            }
+            paths.put(key, path);
+        }
+
+        return path;
+    }
+
+    /**
+     * Test whether the given time lies outside of the period of the last
+     * built path, meaning that paths built from now on may differ.
+     *
+     * @param time The time, in milliseconds since the epoch
+     * @return true if the paths roll over
+     */
+    boolean rollsOver(long time) {
+        return granularity != -1 && (time < periodStart || time >= periodEnd);
+    }
+
+    /**
+     * Recompute the values of the time placeholders if the time lies
+     * outside of the current period.
+     *
+     * @param time The time
+     */
+    private void updatePeriod(long time) {
+        if (granularity == -1 || (time >= periodStart && time < periodEnd)) {
+            return;
+        }
+
+        Calendar calendar = new GregorianCalendar();
+        calendar.setTimeInMillis(time);
+
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            if (segment.field != -1) {
+                int value = calendar.get(segment.field);
+                timeValues[i] = segment.field == Calendar.YEAR ? String.valueOf(value) : String.format("%02d", value);
+            }
+        }
+
+        // Truncate to the start of the finest field and find the next rollover
+        switch (granularity) {
+            case Calendar.YEAR:
+                calendar.set(Calendar.MONTH, 0);
+                // fall through
+            case Calendar.MONTH:
+                calendar.set(Calendar.DAY_OF_MONTH, 1);
+                // fall through
+            case Calendar.DAY_OF_MONTH:
+                calendar.set(Calendar.HOUR_OF_DAY, 0);
+                // fall through
+            case Calendar.HOUR_OF_DAY:
+                calendar.set(Calendar.MINUTE, 0);
+                // fall through
+            case Calendar.MINUTE:
+                calendar.set(Calendar.SECOND, 0);
+                // fall through
+            default:
+                calendar.set(Calendar.MILLISECOND, 0);
+        }
+
+        periodStart = calendar.getTimeInMillis();
+        calendar.add(granularity, 1);
+        periodEnd = calendar.getTimeInMillis();
+        paths.clear();
+    }
+
+    private String getSanitizedName(String playerName) {
+        String name = sanitizedNames.get(playerName);
+        if (name == null) {
+            name = sanitize(playerName);
+            if (sanitizedNames.size() >= MAX_CACHED_NAMES) {
+                sanitizedNames.clear();
+            }
+            sanitizedNames.put(playerName, name);
+        }
+        return name;
+    }
+
+    private static String sanitize(String name) {
+        String result = name.toLowerCase().replaceAll("[^A-Za-z0-9_]", "_");
+        if (result.length() > MAX_NAME_LENGTH) {
+            result = result.substring(0, MAX_NAME_LENGTH);
+        }
+        return result;
+    }
+
+    private static int getCalendarField(char code) {
+        switch (code) {
+            case 'Y': return Calendar.YEAR;
+            case 'm': return Calendar.MONTH;
+            case 'd': return Calendar.DAY_OF_MONTH;
+            case 'W': return Calendar.WEEK_OF_YEAR;
+            case 'H': return Calendar.HOUR_OF_DAY;
+            case 'h': return Calendar.HOUR;
+            case 'i': return Calendar.MINUTE;
+            case 's': return Calendar.SECOND;
+            default: return -1;
+        }
+    }
+
+    /**
+     * Get the field whose rollover may change the value of the given field.
+     *
+     * <p>Weeks do not line up with months and years, so they are
+     * recomputed daily. The returned fields are ordered so that finer
+     * fields are greater.</p>
+     *
+     * @param field The calendar field
+     * @return The field to track
+     */
+    private static int getGranularity(int field) {
+        switch (field) {
+            case Calendar.WEEK_OF_YEAR: return Calendar.DAY_OF_MONTH;
+            case Calendar.HOUR: return Calendar.HOUR_OF_DAY;
+            default: return field;
+        }
+    }
+
+    private static final class Segment {
+        private final int kind;
+        private final int field;
+        @Nullable
+        private final String literal;
+
+        private Segment(int kind, int field, @Nullable String literal) {
+            this.kind = kind;
+            this.field = field;
+            this.literal = literal;
+        }
+    }
+
+}
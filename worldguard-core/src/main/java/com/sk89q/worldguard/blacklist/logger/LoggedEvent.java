@@ -0,0 +1,81 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.blacklist.logger;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.worldguard.blacklist.event.BlacklistEvent;
+
+import javax.annotation.Nullable;
+
+/**
+ * A blacklist event waiting to be logged, together with the time at which
+ * it happened.
+ */
+public final class LoggedEvent {
+
+    private final BlacklistEvent event;
+    @Nullable
+    private final String comment;
+    private final long time;
+
+    /**
+     * Create a new instance.
+     *
+     * @param event The event
+     * @param comment The comment to log with the event
+     * @param time The time of the event, in milliseconds since the epoch
+     */
+    public LoggedEvent(BlacklistEvent event, @Nullable String comment, long time) {
+        checkNotNull(event);
+        this.event = event;
+        this.comment = comment;
+        this.time = time;
+    }
+
+    /**
+     * Get the event.
+     *
+     * @return The event
+     */
+    public BlacklistEvent getEvent() {
+        return event;
+    }
+
+    /**
+     * Get the comment to log with the event.
+     *
+     * @return The comment, or {@code null}
+     */
+    @Nullable
+    public String getComment() {
+        return comment;
+    }
+
+    /**
+     * Get the time of the event.
+     *
+     * @return The time, in milliseconds since the epoch
+     */
+    public long getTime() {
+        return time;
+    }
+
+}
@@ -21,6 +21,8 @@
 
 import com.sk89q.worldguard.blacklist.event.BlacklistEvent;
 
+import java.util.List;
+
 /**
  * Interface for loggers for the blacklist.
  */
@@ -34,6 +36,21 @@ public interface LoggerHandler {
      */
     public void logEvent(BlacklistEvent event, String comment);
 
+    /**
+     * Log a batch of events, in the order given.
+     *
+     * <p>Handlers that can write several events at once more cheaply
+     * than one by one should override this method and use the time of
+     * each event rather than the current time.</p>
+     *
+     * @param events The events
+     */
+    default void logEvents(List<LoggedEvent> events) {
+        for (LoggedEvent event : events) {
+            logEvent(event.getEvent(), event.getComment());
+        }
+    }
+
     /**
      * Close the logger.
      */
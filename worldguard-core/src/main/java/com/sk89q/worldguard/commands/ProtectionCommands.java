@@ -24,6 +24,7 @@
 import com.sk89q.minecraft.util.commands.NestedCommand;
 import com.sk89q.worldedit.extension.platform.Actor;
 import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.commands.region.BulkCommands;
 import com.sk89q.worldguard.commands.region.MemberCommands;
 import com.sk89q.worldguard.commands.region.RegionCommands;
 
@@ -36,7 +37,7 @@ public ProtectionCommands(WorldGuard worldGuard) {
     }
 
     @Command(aliases = {"region", "regions", "rg"}, desc = "Příkazy pro správu regionu")
-    @NestedCommand({RegionCommands.class, MemberCommands.class})
+    @NestedCommand({RegionCommands.class, MemberCommands.class, BulkCommands.class})
     public void region(CommandContext args, Actor sender) {}
 
     @Command(aliases = {"worldguard", "wg"}, desc = "Příkazy WorldGuardu")
@@ -22,6 +22,7 @@
 import com.google.common.io.Files;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.sk89q.minecraft.util.commands.*;
 import com.sk89q.worldedit.WorldEdit;
@@ -34,7 +35,6 @@
 import com.sk89q.worldedit.util.formatting.text.event.ClickEvent;
 import com.sk89q.worldedit.util.formatting.text.format.TextColor;
 import com.sk89q.worldedit.util.paste.ActorCallbackPaste;
-import com.sk89q.worldedit.util.report.ReportList;
 import com.sk89q.worldedit.util.report.SystemInfoReport;
 import com.sk89q.worldedit.util.task.FutureForwardingTask;
 import com.sk89q.worldedit.util.task.Task;
@@ -43,14 +43,23 @@
 import com.sk89q.worldguard.LocalPlayer;
 import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.config.ConfigurationManager;
+import com.sk89q.worldguard.config.WorldConfiguration;
 import com.sk89q.worldguard.internal.platform.WorldGuardPlatform;
 import com.sk89q.worldguard.util.logging.LoggerToChatHandler;
+import com.sk89q.worldguard.util.metrics.Counter;
+import com.sk89q.worldguard.util.metrics.LatencyHistogram;
+import com.sk89q.worldguard.util.metrics.MetricsRegistry;
+import com.sk89q.worldguard.util.profiler.ContinuousSampler;
 import com.sk89q.worldguard.util.profiler.SamplerBuilder;
 import com.sk89q.worldguard.util.profiler.SamplerBuilder.Sampler;
 import com.sk89q.worldguard.util.profiler.ThreadIdFilter;
 import com.sk89q.worldguard.util.profiler.ThreadNameFilter;
 import com.sk89q.worldguard.util.report.ApplicableRegionsReport;
 import com.sk89q.worldguard.util.report.ConfigReport;
+import com.sk89q.worldguard.util.report.QueryTraceReport;
+import com.sk89q.worldguard.util.report.ReportWriter;
+import com.sk89q.worldguard.util.trace.QueryTrace;
+import com.sk89q.worldguard.util.trace.QueryTracer;
 
 import javax.annotation.Nullable;
 import java.io.*;
@@ -59,6 +68,8 @@
 import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.logging.Level;
@@ -177,6 +188,9 @@ public void reload(CommandContext args, Actor sender) throws CommandException {
             ConfigurationManager config = WorldGuard.getInstance().getPlatform().getGlobalStateManager();
             config.unload();
             config.load();
+            WorldGuard.getInstance().getMetrics().setEnabled(config.metricsEnabled);
+            WorldGuard.getInstance().getQueryTracer().configure(config.queryTraceSampleRate, config.queryTraceBufferSize);
+            WorldGuard.getInstance().configureContinuousSampler(config);
             for (World world : WorldEdit.getInstance().getPlatformManager().queryCapability(Capability.GAME_HOOKS).getWorlds()) {
                 config.get(world);
             }
@@ -195,27 +209,52 @@ public void reload(CommandContext args, Actor sender) throws CommandException {
     @Command(aliases = {"report"}, desc = "Nahlásí chybu na WorldGuard", flags = "p", max = 0)
     @CommandPermissions({"worldguard.report"})
     public void report(CommandContext args, final Actor sender) throws CommandException, AuthorizationException {
-        ReportList report = new ReportList("Seznam nahlášených chyb");
+        final boolean pastebin = args.hasFlag('p');
+        if (pastebin) {
+            sender.checkPermission("worldguard.report.pastebin");
+        }
+
+        // Only data that must be read on the main thread is captured here
+        ReportWriter report = new ReportWriter("Seznam nahlášených chyb");
         worldGuard.getPlatform().addPlatformReports(report);
-        report.add(new SystemInfoReport());
-        report.add(new ConfigReport());
+        report.addDeferred(SystemInfoReport::new);
+        List<? extends World> worlds = WorldEdit.getInstance().getPlatformManager().queryCapability(Capability.GAME_HOOKS).getWorlds();
+        Map<World, WorldConfiguration> configs = ConfigReport.getConfigs(worlds);
+        report.addDeferred(() -> new ConfigReport(configs));
         if (sender instanceof LocalPlayer) {
             report.add(new ApplicableRegionsReport((LocalPlayer) sender));
         }
-        String result = report.toString();
 
+        File dest = new File(worldGuard.getPlatform().getConfigDir().toFile(), "report.txt");
+        ListenableFuture<File> future;
         try {
-            File dest = new File(worldGuard.getPlatform().getConfigDir().toFile(), "report.txt");
-            Files.write(result, dest, StandardCharsets.UTF_8);
-            sender.print("Chyby byly zapsány do: " + dest.getAbsolutePath());
-        } catch (IOException e) {
-            throw new CommandException("Nepodařilo se vytvořit soubor s chybou: " + e.getMessage());
-        }
-        
-        if (args.hasFlag('p')) {
-            sender.checkPermission("worldguard.report.pastebin");
-            ActorCallbackPaste.pastebin(worldGuard.getSupervisor(), sender, result, "WorldGuard chyby: %s.report");
+            future = report.write(worldGuard.getExecutorService(), dest);
+        } catch (RejectedExecutionException e) {
+            throw new CommandException("Seznam chyb teď nelze zapsat, protože se WorldGuard vypíná.");
         }
+
+        worldGuard.getSupervisor().monitor(FutureForwardingTask.create(future, "Zápis seznamu chyb", sender));
+
+        Futures.addCallback(future, new FutureCallback<>() {
+            @Override
+            public void onSuccess(File result) {
+                sender.print("Chyby byly zapsány do: " + result.getAbsolutePath());
+
+                if (pastebin) {
+                    try {
+                        String content = Files.asCharSource(result, StandardCharsets.UTF_8).read();
+                        ActorCallbackPaste.pastebin(worldGuard.getSupervisor(), sender, content, "WorldGuard chyby: %s.report");
+                    } catch (IOException e) {
+                        sender.printError("Nepodařilo se načíst soubor s chybou: " + e.getMessage());
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                sender.printError("Nepodařilo se vytvořit soubor s chybou: " + throwable.getMessage());
+            }
+        }, MoreExecutors.directExecutor());
     }
 
     @Command(aliases = {"profile"}, usage = "[-p] [-i <interval>] [-t <filtr ohrožení>] [<minuty>]",
@@ -303,6 +342,12 @@ public void onSuccess(Sampler result) {
                     File dest = new File(worldGuard.getPlatform().getConfigDir().toFile(), "profile.txt");
                     Files.write(output, dest, StandardCharsets.UTF_8);
                     sender.print("Data profilování CPU byla zapsaná do " + dest.getAbsolutePath());
+
+                    StringBuilder collapsed = new StringBuilder();
+                    result.writeCollapsed(collapsed);
+                    File flameGraphDest = new File(worldGuard.getPlatform().getConfigDir().toFile(), "profile-flamegraph.txt");
+                    Files.write(collapsed, flameGraphDest, StandardCharsets.UTF_8);
+                    sender.print("Data pro flame graph byla zapsaná do " + flameGraphDest.getAbsolutePath());
                 } catch (IOException e) {
                     sender.printError("Zápis dat profilování CPU se nezdařil: " + e.getMessage());
                 }
@@ -333,6 +378,107 @@ public void stopProfile(CommandContext args, final Actor sender) throws CommandE
         sender.print("Spuštěné profilování bylo zrušeno.");
     }
 
+    @Command(aliases = {"dumpprofile"}, usage = "", desc = "Zapíše data průběžného profilování pro flame graph", min = 0, max = 0)
+    @CommandPermissions("worldguard.profile")
+    public void dumpProfile(CommandContext args, final Actor sender) throws CommandException {
+        ContinuousSampler sampler = worldGuard.getContinuousSampler();
+        if (sampler == null) {
+            throw new CommandException("Průběžné profilování není zapnuté (profiling.continuous.enable v config.yml).");
+        }
+
+        StringBuilder output = new StringBuilder();
+        try {
+            sampler.writeCollapsed(output);
+            File dest = new File(worldGuard.getPlatform().getConfigDir().toFile(), "profile-continuous.txt");
+            Files.write(output, dest, StandardCharsets.UTF_8);
+            sender.print("Data průběžného profilování (" + sampler.getSampleCount() + " vzorků) byla zapsaná do " + dest.getAbsolutePath());
+        } catch (IOException e) {
+            throw new CommandException("Zápis dat průběžného profilování se nezdařil: " + e.getMessage());
+        }
+    }
+
+    @Command(aliases = {"metrics", "metriky"}, usage = "[-d] [-r]",
+            desc = "Zobrazí naměřené metriky", flags = "dr", min = 0, max = 0)
+    @CommandPermissions("worldguard.metrics")
+    public void metrics(CommandContext args, final Actor sender) throws CommandException {
+        MetricsRegistry metrics = worldGuard.getMetrics();
+        if (!metrics.isEnabled()) {
+            throw new CommandException("Metriky nejsou zapnuté (metrics.enable v config.yml).");
+        }
+
+        if (args.hasFlag('r')) {
+            metrics.reset();
+            sender.print("Naměřené metriky byly vynulovány.");
+            return;
+        }
+
+        if (args.hasFlag('d')) {
+            StringBuilder output = new StringBuilder();
+            try {
+                metrics.writePrometheus(output);
+                File dest = new File(worldGuard.getPlatform().getConfigDir().toFile(), "metrics.prom");
+                Files.write(output, dest, StandardCharsets.UTF_8);
+                sender.print("Metriky byly zapsané do " + dest.getAbsolutePath());
+            } catch (IOException e) {
+                throw new CommandException("Zápis metrik se nezdařil: " + e.getMessage());
+            }
+            return;
+        }
+
+        Map<String, Counter> counters = metrics.getCounters();
+        Map<String, LatencyHistogram> histograms = metrics.getHistograms();
+        if (counters.isEmpty() && histograms.isEmpty()) {
+            sender.print("Zatím nebyly naměřené žádné metriky.");
+            return;
+        }
+
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            sender.print(entry.getKey() + ": " + entry.getValue().get());
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            sender.print(String.format("%s: %d×, průměr %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                    entry.getKey(), histogram.getCount(), histogram.getMean() / 1e6,
+                    histogram.getPercentile(50) / 1e6, histogram.getPercentile(99) / 1e6, histogram.getMax() / 1e6));
+        }
+    }
+
+    @Command(aliases = {"trace"}, usage = "[-c] [-p]",
+            desc = "Vypíše nejnáročnější chunky, regiony a události podle vzorkovaných dotazů", flags = "cp", min = 0, max = 0)
+    @CommandPermissions("worldguard.trace")
+    public void trace(CommandContext args, final Actor sender) throws CommandException, AuthorizationException {
+        QueryTracer tracer = worldGuard.getQueryTracer();
+        if (!tracer.isEnabled()) {
+            throw new CommandException("Sledování dotazů není zapnuté (profiling.query-trace.sample-rate v config.yml).");
+        }
+
+        if (args.hasFlag('c')) {
+            tracer.clear();
+            sender.print("Zaznamenané dotazy byly vymazány.");
+            return;
+        }
+
+        List<QueryTrace> traces = tracer.getTraces();
+        if (traces.isEmpty()) {
+            throw new CommandException("Zatím nebyly zaznamenány žádné dotazy.");
+        }
+
+        String result = new QueryTraceReport(traces, tracer.getSampleRate()).toString();
+
+        try {
+            File dest = new File(worldGuard.getPlatform().getConfigDir().toFile(), "trace.txt");
+            Files.write(result, dest, StandardCharsets.UTF_8);
+            sender.print("Přehled " + traces.size() + " vzorkovaných událostí byl zapsán do " + dest.getAbsolutePath());
+        } catch (IOException e) {
+            throw new CommandException("Zápis přehledu dotazů se nezdařil: " + e.getMessage());
+        }
+
+        if (args.hasFlag('p')) {
+            sender.checkPermission("worldguard.report.pastebin");
+            ActorCallbackPaste.pastebin(worldGuard.getSupervisor(), sender, result, "WorldGuard dotazy: %s.report");
+        }
+    }
+
     @Command(aliases = {"flushstates", "clearstates"},
             usage = "[player]", desc = "...", max = 1)
     @CommandPermissions("worldguard.flushstates")
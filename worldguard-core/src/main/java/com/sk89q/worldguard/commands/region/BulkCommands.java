@@ -0,0 +1,222 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.commands.region;
+
+import com.sk89q.minecraft.util.commands.Command;
+import com.sk89q.minecraft.util.commands.CommandContext;
+import com.sk89q.minecraft.util.commands.CommandException;
+import com.sk89q.minecraft.util.commands.CommandPermissions;
+import com.sk89q.worldedit.command.util.AsyncCommandBuilder;
+import com.sk89q.worldedit.extension.platform.Actor;
+import com.sk89q.worldedit.util.formatting.text.Component;
+import com.sk89q.worldedit.world.World;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.domains.DefaultDomain;
+import com.sk89q.worldguard.internal.permission.RegionPermissionModel;
+import com.sk89q.worldguard.protection.flags.Flag;
+import com.sk89q.worldguard.protection.flags.FlagContext;
+import com.sk89q.worldguard.protection.flags.Flags;
+import com.sk89q.worldguard.protection.flags.InvalidFlagFormat;
+import com.sk89q.worldguard.protection.managers.RegionChangeSet;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.managers.RegionSelectors;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.util.DomainInputResolver;
+import com.sk89q.worldguard.protection.util.DomainInputResolver.UserLocatorPolicy;
+import com.sk89q.worldguard.util.profile.Profile;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+public class BulkCommands extends RegionCommandsBase {
+
+    private final WorldGuard worldGuard;
+
+    public BulkCommands(WorldGuard worldGuard) {
+        this.worldGuard = worldGuard;
+    }
+
+    /**
+     * Change many regions at once.
+     *
+     * @param args the arguments
+     * @param sender the sender
+     * @throws CommandException any error
+     */
+    @Command(aliases = {"bulk", "hromadne"},
+             usage = "[-w svět] [-p rodič] [-o vlastník] [-f značka=hodnota] [-s] [-n] "
+                     + "<flag|addmember|removemember|addowner|removeowner> <argumenty...>",
+             flags = "w:p:o:f:sn",
+             desc = "Hromadně upraví vybrané regiony",
+             min = 2)
+    @CommandPermissions("worldguard.region.bulk")
+    public void bulk(CommandContext args, Actor sender) throws CommandException {
+        warnAboutSaveFailures(sender);
+
+        World world = checkWorld(args, sender, 'w'); // Get the world
+        RegionManager manager = checkRegionManager(world);
+        RegionPermissionModel permModel = getPermissionModel(sender);
+        boolean nameOnly = args.hasFlag('n');
+
+        // Build the selector of regions
+        Predicate<ProtectedRegion> selector = RegionSelectors.notGlobal();
+
+        if (args.hasFlag('p')) {
+            ProtectedRegion parent = checkExistingRegion(manager, args.getFlag('p'), false);
+            selector = selector.and(RegionSelectors.childrenOf(parent));
+        }
+
+        if (args.hasFlag('f')) {
+            String filter = args.getFlag('f');
+            int split = filter.indexOf('=');
+            String flagName = split >= 0 ? filter.substring(0, split) : filter;
+            String value = split >= 0 && split < filter.length() - 1 ? filter.substring(split + 1) : null;
+            selector = selector.and(createFlagSelector(checkFlag(flagName), value, sender));
+        }
+
+        if (args.hasFlag('s')) {
+            selector = selector.and(RegionSelectors.intersecting(checkRegionFromSelection(sender, "tmp")));
+        }
+
+        String ownerName = args.hasFlag('o') ? args.getFlag('o') : null;
+
+        if (!args.hasFlag('p') && !args.hasFlag('f') && !args.hasFlag('s') && ownerName == null) {
+            throw new CommandException("Zadej alespoň jeden výběr regionů (-p, -o, -f nebo -s).");
+        }
+
+        // Build the changes, leaving players to be resolved asynchronously
+        String action = args.getString(0).toLowerCase(Locale.ROOT);
+        RegionChangeSet changes = new RegionChangeSet();
+        Predicate<ProtectedRegion> permitted;
+        DomainInputResolver resolver = null;
+
+        switch (action) {
+            case "flag":
+                Flag<?> flag = checkFlag(args.getString(1));
+                String value = args.argsLength() >= 3 ? args.getJoinedStrings(2) : null;
+                addFlagChange(changes, flag, value, sender);
+                permitted = region -> permModel.maySetFlag(region, flag, value);
+                break;
+            case "addmember":
+                permitted = permModel::mayAddMembers;
+                break;
+            case "removemember":
+                permitted = permModel::mayRemoveMembers;
+                break;
+            case "addowner":
+                permitted = permModel::mayAddOwners;
+                break;
+            case "removeowner":
+                permitted = permModel::mayRemoveOwners;
+                break;
+            default:
+                throw new CommandException("Neznámá akce '" + action + "'. Použij flag, addmember, removemember, addowner nebo removeowner.");
+        }
+
+        if (!action.equals("flag")) {
+            resolver = new DomainInputResolver(worldGuard.getProfileService(), args.getParsedPaddedSlice(1, 0));
+            resolver.setLocatorPolicy(nameOnly ? UserLocatorPolicy.NAME_ONLY : UserLocatorPolicy.UUID_ONLY);
+        }
+
+        final Predicate<ProtectedRegion> baseSelector = selector;
+        final DomainInputResolver domainResolver = resolver;
+
+        AsyncCommandBuilder.wrap(() -> {
+            Predicate<ProtectedRegion> finalSelector = baseSelector;
+            if (ownerName != null) {
+                finalSelector = finalSelector.and(RegionSelectors.ownedBy(ownerName, nameOnly ? null : findUniqueId(ownerName)));
+            }
+
+            if (domainResolver != null) {
+                DefaultDomain domain = domainResolver.call();
+                switch (action) {
+                    case "addmember":
+                        changes.addMembers(domain);
+                        break;
+                    case "removemember":
+                        changes.removeMembers(domain);
+                        break;
+                    case "addowner":
+                        changes.addOwners(domain);
+                        break;
+                    default:
+                        changes.removeOwners(domain);
+                        break;
+                }
+            }
+
+            // Regions that may not be changed by the sender are skipped
+            AtomicInteger denied = new AtomicInteger();
+            List<ProtectedRegion> changed = manager.applyBulk(finalSelector.and(region -> {
+                if (permitted.test(region)) {
+                    return true;
+                }
+                denied.incrementAndGet();
+                return false;
+            }), changes);
+
+            String message = "Upraveno " + changed.size() + " regionů ve světě '" + world.getName() + "'.";
+            if (denied.get() > 0) {
+                message += " " + denied.get() + " regionů bylo přeskočeno kvůli chybějícím oprávněním.";
+            }
+            return message;
+        }, sender)
+                .registerWithSupervisor(worldGuard.getSupervisor(), "Hromadná úprava regionů ve světě '" + world.getName() + "'")
+                .sendMessageAfterDelay("(Prosím počkej... Upravuji regiony...)")
+                .onSuccess((Component) null, sender::print)
+                .onFailure("Nepodařilo se hromadně upravit regiony", worldGuard.getExceptionConverter())
+                .buildAndExec(worldGuard.getExecutorService());
+    }
+
+    private static Flag<?> checkFlag(String name) throws CommandException {
+        Flag<?> flag = Flags.fuzzyMatchFlag(WorldGuard.getInstance().getFlagRegistry(), name);
+        if (flag == null) {
+            throw new CommandException("Neznámá značka '" + name + "'.");
+        }
+        return flag;
+    }
+
+    private static <V> void addFlagChange(RegionChangeSet changes, Flag<V> flag, @Nullable String value, Actor sender) throws CommandException {
+        changes.setFlag(flag, value != null ? parseFlag(flag, value, sender) : null);
+    }
+
+    private static <V> Predicate<ProtectedRegion> createFlagSelector(Flag<V> flag, @Nullable String value, Actor sender) throws CommandException {
+        return RegionSelectors.withFlag(flag, value != null ? parseFlag(flag, value, sender) : null);
+    }
+
+    private static <V> V parseFlag(Flag<V> flag, String value, Actor sender) throws CommandException {
+        try {
+            return flag.parseInput(FlagContext.create().setSender(sender).setInput(value).build());
+        } catch (InvalidFlagFormat e) {
+            throw new CommandException(e.getMessage());
+        }
+    }
+
+    @Nullable
+    private static UUID findUniqueId(String name) throws Exception {
+        Profile profile = WorldGuard.getInstance().getProfileService().findByName(name);
+        return profile != null ? profile.getUniqueId() : null;
+    }
+
+}
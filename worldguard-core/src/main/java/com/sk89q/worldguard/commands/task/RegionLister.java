@@ -38,22 +38,32 @@
 import com.sk89q.worldguard.protection.association.RegionAssociable;
 import com.sk89q.worldguard.protection.flags.Flags;
 import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.managers.RegionMembershipIndex;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 public class RegionLister implements Callable<Integer> {
 
     private static final Logger log = Logger.getLogger(RegionLister.class.getCanonicalName());
+    private static final ListingCache cache = new ListingCache();
 
     private final Actor sender;
     private final RegionManager manager;
@@ -108,6 +118,13 @@ public String getName() {
             public boolean isContainedWithin(DefaultDomain domain) {
                 return domain.contains(name);
             }
+
+            @Override
+            public Collection<ProtectedRegion> getCandidates(RegionMembershipIndex index) {
+                Set<ProtectedRegion> regions = new HashSet<>(index.getOwnedRegions(name));
+                regions.addAll(index.getMemberRegions(name));
+                return regions;
+            }
         };
     }
 
@@ -126,6 +143,20 @@ public boolean isContainedWithin(DefaultDomain domain) throws CommandException {
                     return true;
                 }
 
+                return domain.contains(getUniqueId());
+            }
+
+            @Override
+            public Collection<ProtectedRegion> getCandidates(RegionMembershipIndex index) throws CommandException {
+                Set<ProtectedRegion> regions = new HashSet<>(index.getOwnedRegions(name));
+                regions.addAll(index.getMemberRegions(name));
+                UUID uniqueId = getUniqueId();
+                regions.addAll(index.getOwnedRegions(uniqueId));
+                regions.addAll(index.getMemberRegions(uniqueId));
+                return regions;
+            }
+
+            private UUID getUniqueId() throws CommandException {
                 if (uniqueId == null) {
                     Profile profile;
 
@@ -146,7 +177,7 @@ public boolean isContainedWithin(DefaultDomain domain) throws CommandException {
                     uniqueId = profile.getUniqueId();
                 }
 
-                return domain.contains(uniqueId);
+                return uniqueId;
             }
         };
     }
@@ -157,33 +188,84 @@ public void filterIdByMatch(String idFilter) {
 
     @Override
     public Integer call() throws Exception {
-        Map<String, ProtectedRegion> regions = manager.getRegions();
-        Collection<ProtectedRegion> iterableRegions = regions.values();
-
-        if (filterByIntersecting != null) {
-            iterableRegions = filterByIntersecting.getIntersectingRegions(iterableRegions);
+        List<RegionListEntry> entries;
+
+        // Listings filtered by a selection are not worth keeping
+        if (filterByIntersecting == null) {
+            ListingKey key = new ListingKey(world, playerName, nameOnly, idFilter);
+            entries = cache.get(key, manager);
+            if (entries == null) {
+                long version = manager.getVersion();
+                entries = createEntries();
+                cache.put(key, manager, version, entries);
+            }
+        } else {
+            entries = createEntries();
         }
 
-        // Build a list of regions to show
-        List<RegionListEntry> entries = new ArrayList<>();
+        RegionPermissionModel perms = sender.isPlayer() ? new RegionPermissionModel(sender) : null;
+        String title = ownerMatcher == null ? "Regiony" : "Regiony hráče " + ownerMatcher.getName();
+        String cmd = "/rg list -w \"" + world + "\""
+                + (playerName != null ? " -p " + playerName : "")
+                + (nameOnly ? " -n" : "")
+                + (filterByIntersecting != null ? " -s" : "")
+                + (idFilter != null ? " -i " + idFilter : "")
+                + " %page%";
+        PaginationBox box = new RegionListBox(title, cmd, perms, entries, world);
+        sender.print(box.create(page));
+
+        return page;
+    }
 
-        for (ProtectedRegion rg : iterableRegions) {
-            if (rg.getId().equals("__global__")) {
-                continue;
+    /**
+     * Build the sorted list of regions to show.
+     *
+     * @return a list of entries
+     * @throws CommandException if the owner could not be resolved
+     */
+    private List<RegionListEntry> createEntries() throws CommandException {
+        List<RegionListEntry> entries;
+
+        if (ownerMatcher == null && filterByIntersecting == null) {
+            // Listing all regions of a world is the expensive case, so the
+            // entries are matched and sorted in parallel
+            entries = manager.getRegions().values().parallelStream()
+                    .filter(rg -> !rg.getId().equals("__global__"))
+                    .map(RegionListEntry::new)
+                    .filter(entry -> entry.matches(idFilter))
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+        } else {
+            // Only the regions of the player have to be looked at when matching owners
+            Collection<ProtectedRegion> iterableRegions = ownerMatcher != null
+                    ? ownerMatcher.getCandidates(manager.getMembershipIndex())
+                    : manager.getRegions().values();
+
+            if (filterByIntersecting != null) {
+                iterableRegions = filterByIntersecting.getIntersectingRegions(iterableRegions);
             }
-            final RegionListEntry entry = new RegionListEntry(rg);
 
-            if (entry.matches(idFilter) && entry.matches(ownerMatcher)) {
-                entries.add(entry);
+            entries = new ArrayList<>();
+            for (ProtectedRegion rg : iterableRegions) {
+                if (rg.getId().equals("__global__")) {
+                    continue;
+                }
+                final RegionListEntry entry = new RegionListEntry(rg);
+
+                if (entry.matches(idFilter) && entry.matches(ownerMatcher)) {
+                    entries.add(entry);
+                }
             }
-        }
 
-        if (ownerMatcher == null) {
-            Collections.sort(entries);
+            if (ownerMatcher == null) {
+                Collections.sort(entries);
+            }
         }
+
         // insert global on top
-        if (regions.containsKey("__global__")) {
-            final RegionListEntry entry = new RegionListEntry(regions.get("__global__"));
+        ProtectedRegion global = manager.getRegion("__global__");
+        if (global != null) {
+            final RegionListEntry entry = new RegionListEntry(global);
             if (entry.matches(idFilter) && entry.matches(ownerMatcher)) {
                 entries.add(0, entry);
             }
@@ -193,33 +275,26 @@ public Integer call() throws Exception {
             Collections.sort(entries);
         }
 
-        RegionPermissionModel perms = sender.isPlayer() ? new RegionPermissionModel(sender) : null;
-        String title = ownerMatcher == null ? "Regiony" : "Regiony hráče " + ownerMatcher.getName();
-        String cmd = "/rg list -w \"" + world + "\""
-                + (playerName != null ? " -p " + playerName : "")
-                + (nameOnly ? " -n" : "")
-                + (filterByIntersecting != null ? " -s" : "")
-                + (idFilter != null ? " -i " + idFilter : "")
-                + " %page%";
-        PaginationBox box = new RegionListBox(title, cmd, perms, entries, world);
-        sender.print(box.create(page));
-
-        return page;
+        return Collections.unmodifiableList(entries);
     }
 
     private interface OwnerMatcher {
         String getName();
 
         boolean isContainedWithin(DefaultDomain domain) throws CommandException;
+
+        Collection<ProtectedRegion> getCandidates(RegionMembershipIndex index) throws CommandException;
     }
 
     private static final class RegionListEntry implements Comparable<RegionListEntry> {
         private final ProtectedRegion region;
+        private final String id;
         private boolean isOwner;
         private boolean isMember;
 
         private RegionListEntry(ProtectedRegion rg) {
             this.region = rg;
+            this.id = rg.getId();
         }
 
         public boolean matches(OwnerMatcher matcher) throws CommandException {
@@ -229,7 +304,7 @@ public boolean matches(OwnerMatcher matcher) throws CommandException {
         }
 
         public boolean matches(String idMatcher) {
-            return idMatcher == null || region.getId().contains(idMatcher);
+            return idMatcher == null || id.contains(idMatcher);
         }
 
         public ProtectedRegion getRegion() {
@@ -252,7 +327,90 @@ public int compareTo(RegionListEntry o) {
             if (isMember != o.isMember) {
                 return isMember ? -1 : 1;
             }
-            return region.getId().compareTo(o.region.getId());
+            return id.compareTo(o.id);
+        }
+    }
+
+    /**
+     * Identifies a listing by the name of the world and the filters used.
+     */
+    private static final class ListingKey {
+        private final String world;
+        @Nullable
+        private final String playerName;
+        private final boolean nameOnly;
+        @Nullable
+        private final String idFilter;
+
+        private ListingKey(String world, @Nullable String playerName, boolean nameOnly, @Nullable String idFilter) {
+            this.world = world;
+            this.playerName = playerName != null ? playerName.toLowerCase(Locale.ROOT) : null;
+            this.nameOnly = nameOnly;
+            this.idFilter = idFilter;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ListingKey that = (ListingKey) o;
+            return world.equals(that.world)
+                    && nameOnly == that.nameOnly
+                    && Objects.equals(playerName, that.playerName)
+                    && Objects.equals(idFilter, that.idFilter);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(world, playerName, nameOnly, idFilter);
+        }
+    }
+
+    /**
+     * Keeps the most recently computed listings, so that paging through
+     * a listing does not compute it again.
+     *
+     * <p>A listing is discarded as soon as the regions of its manager
+     * change, or when the world has been given a new manager, such as
+     * after a reload. Listings only refer to their manager weakly.</p>
+     */
+    private static final class ListingCache {
+        private static final int MAX_SIZE = 16;
+
+        private final Map<ListingKey, Listing> listings = new LinkedHashMap<ListingKey, Listing>(MAX_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ListingKey, Listing> eldest) {
+                return size() > MAX_SIZE;
+            }
+        };
+
+        @Nullable
+        private synchronized List<RegionListEntry> get(ListingKey key, RegionManager manager) {
+            Listing listing = listings.get(key);
+            if (listing == null) {
+                return null;
+            }
+            if (listing.manager.get() != manager || listing.version != manager.getVersion()) {
+                listings.remove(key);
+                return null;
+            }
+            return listing.entries;
+        }
+
+        private synchronized void put(ListingKey key, RegionManager manager, long version, List<RegionListEntry> entries) {
+            listings.put(key, new Listing(manager, version, entries));
+        }
+    }
+
+    private static final class Listing {
+        private final WeakReference<RegionManager> manager;
+        private final long version;
+        private final List<RegionListEntry> entries;
+
+        private Listing(RegionManager manager, long version, List<RegionListEntry> entries) {
+            this.manager = new WeakReference<>(manager);
+            this.version = version;
+            this.entries = entries;
         }
     }
 
@@ -77,8 +77,17 @@ public abstract class ConfigurationManager {
     public boolean keepUnresolvedNames;
     public boolean particleEffects;
     public boolean disablePermissionCache;
+    public int groupCacheRefreshInterval;
     public boolean disableDefaultBypass;
     public boolean announceBypassStatus;
+    public boolean continuousProfiling;
+    public int continuousProfilingInterval;
+    public int continuousProfilingWindow;
+    public boolean metricsEnabled;
+    public String metricsPrometheusFile;
+    public int metricsPrometheusInterval;
+    public int queryTraceSampleRate;
+    public int queryTraceBufferSize;
 
     @Unreported public Map<String, String> hostKeys = new HashMap<>();
     public boolean hostKeysAllowFMLClients;
@@ -28,6 +28,7 @@
 import com.sk89q.worldguard.protection.managers.storage.sql.SQLDriver;
 import com.sk89q.worldedit.util.report.Unreported;
 import com.sk89q.worldguard.util.sql.DataSourceConfig;
+import com.sk89q.worldguard.util.trace.QueryTracer;
 
 import java.io.File;
 import java.io.IOException;
@@ -67,6 +68,7 @@ public void load() {
         usePlayerTeleports = config.getBoolean("use-player-teleports", true);
         particleEffects = config.getBoolean("use-particle-effects", true);
         disablePermissionCache = config.getBoolean("disable-permission-cache", false);
+        groupCacheRefreshInterval = config.getInt("group-cache-refresh-interval", 60);
 
         deopOnJoin = config.getBoolean("security.deop-everyone-on-join", false);
         blockInGameOp = config.getBoolean("security.block-in-game-op-command", false);
@@ -84,6 +86,17 @@ public void load() {
         }
         hostKeysAllowFMLClients = config.getBoolean("security.host-keys-allow-forge-clients", false);
 
+        continuousProfiling = config.getBoolean("profiling.continuous.enable", false);
+        continuousProfilingInterval = Math.max(10, config.getInt("profiling.continuous.interval", 100));
+        continuousProfilingWindow = Math.max(1, config.getInt("profiling.continuous.window-minutes", 5));
+
+        metricsEnabled = config.getBoolean("metrics.enable", false);
+        metricsPrometheusFile = config.getString("metrics.prometheus-file.path", "");
+        metricsPrometheusInterval = Math.max(1, config.getInt("metrics.prometheus-file.interval-seconds", 60));
+
+        queryTraceSampleRate = Math.max(0, config.getInt("profiling.query-trace.sample-rate", 0));
+        queryTraceBufferSize = Math.max(1, config.getInt("profiling.query-trace.buffer-size", QueryTracer.DEFAULT_CAPACITY));
+
         // ====================================================================
         // Region store drivers
         // ====================================================================
@@ -49,6 +49,8 @@ public class DefaultDomain implements Domain, ChangeTracked {
 
     private PlayerDomain playerDomain = new PlayerDomain();
     private GroupDomain groupDomain = new GroupDomain();
+    @Nullable
+    private volatile Runnable changeListener;
 
     /**
      * Create a new domain.
@@ -82,7 +84,11 @@ public PlayerDomain getPlayerDomain() {
      */
     public void setPlayerDomain(PlayerDomain playerDomain) {
         checkNotNull(playerDomain);
-        this.playerDomain = new PlayerDomain(playerDomain);
+        PlayerDomain copy = new PlayerDomain(playerDomain);
+        copy.setChangeListener(changeListener);
+        this.playerDomain.setChangeListener(null);
+        this.playerDomain = copy;
+        fireChanged();
     }
 
     /**
@@ -101,7 +107,11 @@ public GroupDomain getGroupDomain() {
      */
     public void setGroupDomain(GroupDomain groupDomain) {
         checkNotNull(groupDomain);
-        this.groupDomain = new GroupDomain(groupDomain);
+        GroupDomain copy = new GroupDomain(groupDomain);
+        copy.setChangeListener(changeListener);
+        this.groupDomain.setChangeListener(null);
+        this.groupDomain = copy;
+        fireChanged();
     }
 
     /**
@@ -442,6 +452,29 @@ private Component toPlayersComponent(ProfileCache cache) {
         return builder.build();
     }
 
+    /**
+     * Set a listener that is called after the players or groups of this
+     * domain have changed.
+     *
+     * <p>Only one listener can be set at a time. The listener is set by
+     * the region that owns the domain, so it should not be replaced by
+     * other code.</p>
+     *
+     * @param changeListener the listener, or {@code null}
+     */
+    public void setChangeListener(@Nullable Runnable changeListener) {
+        this.changeListener = changeListener;
+        playerDomain.setChangeListener(changeListener);
+        groupDomain.setChangeListener(changeListener);
+    }
+
+    private void fireChanged() {
+        Runnable listener = changeListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
     @Override
     public boolean isDirty() {
         return playerDomain.isDirty() || groupDomain.isDirty();
@@ -22,6 +22,7 @@
 import com.sk89q.worldguard.LocalPlayer;
 import com.sk89q.worldguard.util.ChangeTracked;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.Set;
 import java.util.UUID;
@@ -36,6 +37,8 @@ public class GroupDomain implements Domain, ChangeTracked {
 
     private final Set<String> groups = new CopyOnWriteArraySet<>();
     private boolean dirty = true;
+    @Nullable
+    private volatile Runnable changeListener;
 
     /**
      * Create a new instance.
@@ -75,6 +78,7 @@ public void addGroup(String name) {
         if (!name.trim().isEmpty()) {
             setDirty(true);
             groups.add(name.trim().toLowerCase());
+            fireChanged();
         }
     }
 
@@ -87,11 +91,21 @@ public void removeGroup(String name) {
         checkNotNull(name);
         setDirty(true);
         groups.remove(name.trim().toLowerCase());
+        fireChanged();
     }
 
     @Override
     public boolean contains(LocalPlayer player) {
         checkNotNull(player);
+        if (groups.isEmpty()) {
+            return false;
+        }
+
+        Set<String> cached = player.getCachedGroups();
+        if (cached != null) {
+            return !Collections.disjoint(groups, cached);
+        }
+
         for (String group : groups) {
             if (player.hasGroup(group)) {
                 return true;
@@ -129,6 +143,24 @@ public int size() {
     public void clear() {
         setDirty(true);
         groups.clear();
+        fireChanged();
+    }
+
+    /**
+     * Set a listener that is called after the contents of this domain
+     * have changed.
+     *
+     * @param changeListener the listener, or {@code null}
+     */
+    void setChangeListener(@Nullable Runnable changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    private void fireChanged() {
+        Runnable listener = changeListener;
+        if (listener != null) {
+            listener.run();
+        }
     }
 
     @Override
@@ -22,6 +22,7 @@
 import com.sk89q.worldguard.LocalPlayer;
 import com.sk89q.worldguard.util.ChangeTracked;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.Set;
 import java.util.UUID;
@@ -37,6 +38,8 @@ public class PlayerDomain implements Domain, ChangeTracked {
     private final Set<UUID> uniqueIds = new CopyOnWriteArraySet<>();
     private final Set<String> names = new CopyOnWriteArraySet<>();
     private boolean dirty = true;
+    @Nullable
+    private volatile Runnable changeListener;
 
     /**
      * Create a new instance.
@@ -84,6 +87,7 @@ public void addPlayer(String name) {
             // Trim because some names contain spaces (previously valid Minecraft
             // names) and we cannot store these correctly in the SQL storage
             // implementations
+            fireChanged();
         }
     }
 
@@ -96,6 +100,7 @@ public void addPlayer(UUID uniqueId) {
         checkNotNull(uniqueId);
         setDirty(true);
         uniqueIds.add(uniqueId);
+        fireChanged();
     }
 
     /**
@@ -120,6 +125,7 @@ public void removePlayer(String name) {
         checkNotNull(name);
         setDirty(true);
         names.remove(name.trim().toLowerCase());
+        fireChanged();
     }
 
     /**
@@ -131,6 +137,7 @@ public void removePlayer(UUID uuid) {
         checkNotNull(uuid);
         setDirty(true);
         uniqueIds.remove(uuid);
+        fireChanged();
     }
 
     /**
@@ -194,6 +201,24 @@ public void clear() {
         setDirty(true);
         uniqueIds.clear();
         names.clear();
+        fireChanged();
+    }
+
+    /**
+     * Set a listener that is called after the contents of this domain
+     * have changed.
+     *
+     * @param changeListener the listener, or {@code null}
+     */
+    void setChangeListener(@Nullable Runnable changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    private void fireChanged() {
+        Runnable listener = changeListener;
+        if (listener != null) {
+            listener.run();
+        }
     }
 
     @Override
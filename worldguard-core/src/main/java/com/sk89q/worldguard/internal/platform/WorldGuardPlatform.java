@@ -31,6 +31,7 @@
 import com.sk89q.worldguard.session.SessionManager;
 import com.sk89q.worldguard.util.profile.cache.ProfileCache;
 import com.sk89q.worldguard.util.profile.resolver.ProfileService;
+import com.sk89q.worldguard.util.report.ReportWriter;
 
 import javax.annotation.Nullable;
 import java.nio.file.Path;
@@ -154,6 +155,21 @@ public interface WorldGuardPlatform {
      */
     void addPlatformReports(ReportList report);
 
+    /**
+     * Adds reports specific to this platform to a report that is written
+     * off the main thread.
+     *
+     * <p>This is called on the main thread. By default, the reports of
+     * {@link #addPlatformReports(ReportList)} are built immediately.</p>
+     *
+     * @param report The report writer
+     */
+    default void addPlatformReports(ReportWriter report) {
+        ReportList list = new ReportList("Platform");
+        addPlatformReports(list);
+        report.add(list);
+    }
+
     /**
      * Internal use.
      */
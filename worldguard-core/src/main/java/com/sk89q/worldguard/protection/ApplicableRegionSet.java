@@ -29,6 +29,7 @@
 import com.sk89q.worldguard.protection.flags.StateFlag.State;
 import com.sk89q.worldguard.protection.managers.RegionManager;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.util.command.CommandFilter;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
@@ -212,4 +213,33 @@ public interface ApplicableRegionSet extends Iterable<ProtectedRegion> {
      */
     Set<ProtectedRegion> getRegions();
 
+    /**
+     * Return whether the given flag is set on any region of this set,
+     * including the parents of the regions and the global region.
+     *
+     * <p>If {@code false} is returned, querying the flag returns the same
+     * result as if the flag had never been set on any region. Virtual sets
+     * may conservatively return {@code true}.</p>
+     *
+     * @param flag the flag
+     * @return true if the flag may be set
+     */
+    default boolean isFlagPresent(Flag<?> flag) {
+        return true;
+    }
+
+    /**
+     * Get a filter for the commands allowed by the {@link Flags#ALLOWED_CMDS}
+     * and {@link Flags#BLOCKED_CMDS} flags.
+     *
+     * <p>Implementations may return the same compiled filter for as long
+     * as the effective values of both flags do not change.</p>
+     *
+     * @param subject an optional subject, which would be used to determine the region group to apply
+     * @return a command filter
+     */
+    default CommandFilter getCommandFilter(@Nullable RegionAssociable subject) {
+        return new CommandFilter(queryValue(subject, Flags.ALLOWED_CMDS), queryValue(subject, Flags.BLOCKED_CMDS));
+    }
+
 }
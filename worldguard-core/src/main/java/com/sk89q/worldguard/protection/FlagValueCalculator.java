@@ -22,6 +22,7 @@
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.domains.Association;
 import com.sk89q.worldguard.protection.association.RegionAssociable;
 import com.sk89q.worldguard.protection.flags.Flags;
@@ -32,6 +33,7 @@
 import com.sk89q.worldguard.protection.flags.StateFlag.State;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import com.sk89q.worldguard.protection.util.NormativeOrders;
+import com.sk89q.worldguard.util.metrics.MetricsRegistry;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
@@ -58,6 +60,8 @@
  */
 public class FlagValueCalculator {
 
+    private static final String EVALUATIONS_METRIC = "worldguard_flag_evaluations_total";
+
     @Nullable
     private final ProtectedRegion globalRegion;
     private final Iterable<ProtectedRegion> applicable;
@@ -251,6 +255,7 @@ public <V> V queryValue(@Nullable RegionAssociable subject, Flag<V> flag) {
     public <V, K> V queryMapValue(@Nullable RegionAssociable subject, MapFlag<K, V> flag, K key, Flag<V> fallback) {
         checkNotNull(flag);
         checkNotNull(key);
+        recordEvaluation(flag);
 
         Map<ProtectedRegion, V> consideredValues = new HashMap<>();
         Map<ProtectedRegion, V> fallbackValues = new HashMap<>();
@@ -381,6 +386,7 @@ public <V> Collection<V> queryAllValues(@Nullable RegionAssociable subject, Flag
     @SuppressWarnings("unchecked")
     private <V> Collection<V> queryAllValues(@Nullable RegionAssociable subject, Flag<V> flag, boolean acceptOne) {
         checkNotNull(flag);
+        recordEvaluation(flag);
 
         // Can't use this optimization with flags that have a conflict resolution strategy
         if (acceptOne && flag.hasConflictStrategy()) {
@@ -555,6 +561,15 @@ private void addParents(Set<ProtectedRegion> ignored, ProtectedRegion region) {
         }
     }
 
+    private static void recordEvaluation(Flag<?> flag) {
+        WorldGuard worldGuard = WorldGuard.getInstance();
+        MetricsRegistry metrics = worldGuard.getMetrics();
+        if (metrics.isEnabled()) {
+            metrics.counter(EVALUATIONS_METRIC, "flag", flag.getName()).increment();
+        }
+        worldGuard.getQueryTracer().recordFlag(flag);
+    }
+
     /**
      * Describes the membership result from
      * {@link #getMembership(RegionAssociable)}.
@@ -21,32 +21,57 @@
 
 import com.google.common.collect.ImmutableSet;
 import com.sk89q.worldguard.LocalPlayer;
+import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.protection.association.RegionAssociable;
 import com.sk89q.worldguard.protection.flags.Flag;
+import com.sk89q.worldguard.protection.flags.Flags;
 import com.sk89q.worldguard.protection.flags.MapFlag;
 import com.sk89q.worldguard.protection.flags.StateFlag;
 import com.sk89q.worldguard.protection.flags.StateFlag.State;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import com.sk89q.worldguard.protection.util.NormativeOrders;
+import com.sk89q.worldguard.util.command.CommandFilter;
+import com.sk89q.worldguard.util.metrics.MetricsRegistry;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * An implementation that calculates flags using a list of regions.
+ *
+ * <p>Instances created with {@link #memoized(Set, ProtectedRegion, LongSupplier)}
+ * memoize values queried without a subject until the regions of their
+ * manager change, which pays off when the same instance is shared between
+ * many locations (see {@link com.sk89q.worldguard.protection.managers.RegionManager#getSharedRegionSet(Set)}).</p>
  */
 public class RegionResultSet extends AbstractRegionSet {
 
+    private static final Object NULL_VALUE = new Object();
+    private static final String MEMO_HITS_METRIC = "worldguard_flag_memo_hits_total";
+    private static final String MEMO_MISSES_METRIC = "worldguard_flag_memo_misses_total";
+
     private final List<ProtectedRegion> applicable;
     private final FlagValueCalculator flagValueCalculator;
     @Nullable
+    private final ProtectedRegion globalRegion;
+    @Nullable
     private Set<ProtectedRegion> regionSet;
+    @Nullable
+    private LongSupplier version;
+    @Nullable
+    private volatile Memo memo;
+    @Nullable
+    private volatile CompiledCommandFilter commandFilter;
 
     /**
      * Create a new region result set.
@@ -90,6 +115,7 @@ public RegionResultSet(List<ProtectedRegion> applicable, @Nullable ProtectedRegi
         }
         this.applicable = Collections.unmodifiableList(applicable);
         this.flagValueCalculator = new FlagValueCalculator(applicable, globalRegion);
+        this.globalRegion = globalRegion;
     }
 
     @Override
@@ -100,13 +126,56 @@ public boolean isVirtual() {
     @Override
     @Nullable
     public State queryState(@Nullable RegionAssociable subject, StateFlag... flags) {
-        return flagValueCalculator.queryState(subject, flags);
+        if (subject != null) {
+            return flagValueCalculator.queryState(subject, flags);
+        }
+
+        State value = null;
+        for (StateFlag flag : flags) {
+            value = StateFlag.combine(value, queryValue(null, flag));
+            if (value == State.DENY) {
+                break;
+            }
+        }
+        return value;
     }
 
     @Override
     @Nullable
+    @SuppressWarnings("unchecked")
     public <V> V queryValue(@Nullable RegionAssociable subject, Flag<V> flag) {
-        return flagValueCalculator.queryValue(subject, flag);
+        if (subject != null) {
+            return flagValueCalculator.queryValue(subject, flag);
+        }
+
+        if (this.version == null) {
+            return flagValueCalculator.queryValue(null, flag);
+        }
+
+        long version = this.version.getAsLong();
+        Memo memo = this.memo;
+        if (memo == null || memo.version != version) {
+            memo = new Memo(version);
+            this.memo = memo;
+        } else {
+            Object value = memo.values.get(flag);
+            if (value != null) {
+                countMemo(MEMO_HITS_METRIC);
+                return value == NULL_VALUE ? null : (V) value;
+            }
+        }
+
+        countMemo(MEMO_MISSES_METRIC);
+        V value = flagValueCalculator.queryValue(null, flag);
+        memo.values.put(flag, value != null ? value : NULL_VALUE);
+        return value;
+    }
+
+    private static void countMemo(String metric) {
+        MetricsRegistry metrics = WorldGuard.getInstance().getMetrics();
+        if (metrics.isEnabled()) {
+            metrics.counter(metric).increment();
+        }
     }
 
     @Override
@@ -166,6 +235,38 @@ public Set<ProtectedRegion> getRegions() {
         return regionSet;
     }
 
+    @Override
+    public boolean isFlagPresent(Flag<?> flag) {
+        checkNotNull(flag);
+
+        if (globalRegion != null && globalRegion.getFlags().containsKey(flag)) {
+            return true;
+        }
+
+        for (ProtectedRegion region : applicable) {
+            for (ProtectedRegion current = region; current != null; current = current.getParent()) {
+                if (current.getFlags().containsKey(flag)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public CommandFilter getCommandFilter(@Nullable RegionAssociable subject) {
+        Set<String> allowed = queryValue(subject, Flags.ALLOWED_CMDS);
+        Set<String> blocked = queryValue(subject, Flags.BLOCKED_CMDS);
+
+        CompiledCommandFilter compiled = this.commandFilter;
+        if (compiled == null || !Objects.equals(compiled.allowed, allowed) || !Objects.equals(compiled.blocked, blocked)) {
+            compiled = new CompiledCommandFilter(allowed, blocked);
+            this.commandFilter = compiled;
+        }
+        return compiled.filter;
+    }
+
     @Override
     public Iterator<ProtectedRegion> iterator() {
         return applicable.iterator();
@@ -183,4 +284,55 @@ public static RegionResultSet fromSortedList(List<ProtectedRegion> regions, @Nul
         return new RegionResultSet(regions, globalRegion, true);
     }
 
+    /**
+     * Create a new instance that memoizes the values queried without a
+     * subject for as long as the given version does not change.
+     *
+     * <p>The version must be read before any region data is read and must
+     * change whenever the regions, their parents or the global region
+     * change, such as {@link com.sk89q.worldguard.protection.managers.RegionManager#getVersion()}.</p>
+     *
+     * @param applicable the regions contained in this set
+     * @param globalRegion the global region, set aside for special handling.
+     * @param version the version of the region data
+     * @return an instance
+     */
+    public static RegionResultSet memoized(Set<ProtectedRegion> applicable, @Nullable ProtectedRegion globalRegion, LongSupplier version) {
+        checkNotNull(version);
+        RegionResultSet set = new RegionResultSet(applicable, globalRegion);
+        set.version = version;
+        return set;
+    }
+
+    /**
+     * Values queried without a subject, valid as long as the version
+     * has not moved.
+     */
+    private static final class Memo {
+        private final long version;
+        private final ConcurrentMap<Flag<?>, Object> values = new ConcurrentHashMap<>();
+
+        private Memo(long version) {
+            this.version = version;
+        }
+    }
+
+    /**
+     * The last command filter compiled for this set, together with the
+     * flag values it was compiled from.
+     */
+    private static final class CompiledCommandFilter {
+        @Nullable
+        private final Set<String> allowed;
+        @Nullable
+        private final Set<String> blocked;
+        private final CommandFilter filter;
+
+        private CompiledCommandFilter(@Nullable Set<String> allowed, @Nullable Set<String> blocked) {
+            this.allowed = allowed;
+            this.blocked = blocked;
+            this.filter = new CommandFilter(allowed, blocked);
+        }
+    }
+
 }
@@ -0,0 +1,201 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.protection.managers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.flags.Flag;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.regions.RegionChangeListener;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Dispatches region changes to the listeners of a {@link RegionManager}.
+ *
+ * <p>The listeners are kept in a copy-on-write array, so dispatching does
+ * not allocate or lock. A listener that throws does not prevent the other
+ * listeners from being called, nor the change from being made.</p>
+ *
+ * <p>The feed also keeps a version number that is incremented after every
+ * change, before the listeners are called, so that caches derived from the
+ * regions of a single manager can tell whether they are stale.</p>
+ */
+final class RegionChangeFeed implements RegionChangeListener {
+
+    private static final Logger log = Logger.getLogger(RegionChangeFeed.class.getCanonicalName());
+    private static final RegionChangeListener[] NO_LISTENERS = new RegionChangeListener[0];
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile RegionChangeListener[] listeners = NO_LISTENERS;
+
+    long getVersion() {
+        return version.get();
+    }
+
+    void markChanged() {
+        version.incrementAndGet();
+    }
+
+    synchronized void add(RegionChangeListener listener) {
+        checkNotNull(listener);
+        RegionChangeListener[] current = listeners;
+        RegionChangeListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    synchronized void remove(RegionChangeListener listener) {
+        RegionChangeListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                RegionChangeListener[] updated = new RegionChangeListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onRegionAdded(ProtectedRegion region) {
+        markChanged();
+        for (RegionChangeListener listener : listeners) {
+            try {
+                listener.onRegionAdded(region);
+            } catch (RuntimeException e) {
+                handle(listener, e);
+            }
+        }
+    }
+
+    @Override
+    public void onRegionRemoved(ProtectedRegion region) {
+        markChanged();
+        for (RegionChangeListener listener : listeners) {
+            try {
+                listener.onRegionRemoved(region);
+            } catch (RuntimeException e) {
+                handle(listener, e);
+            }
+        }
+    }
+
+    @Override
+    public void onGeometryChanged(ProtectedRegion region, BlockVector3 oldMinimumPoint, BlockVector3 oldMaximumPoint) {
+        markChanged();
+        for (RegionChangeListener listener : listeners) {
+            try {
+                listener.onGeometryChanged(region, oldMinimumPoint, oldMaximumPoint);
+            } catch (RuntimeException e) {
+                handle(listener, e);
+            }
+        }
+    }
+
+    @Override
+    public void onPriorityChanged(ProtectedRegion region, int oldPriority, int newPriority) {
+        markChanged();
+        for (RegionChangeListener listener : listeners) {
+            try {
+                listener.onPriorityChanged(region, oldPriority, newPriority);
+            } catch (RuntimeException e) {
+                handle(listener, e);
+            }
+        }
+    }
+
+    @Override
+    public void onParentChanged(ProtectedRegion region, @Nullable ProtectedRegion oldParent, @Nullable ProtectedRegion newParent) {
+        markChanged();
+        for (RegionChangeListener listener : listeners) {
+            try {
+                listener.onParentChanged(region, oldParent, newParent);
+            } catch (RuntimeException e) {
+                handle(listener, e);
+            }
+        }
+    }
+
+    @Override
+    public void onFlagChanged(ProtectedRegion region, Flag<?> flag, @Nullable Object oldValue, @Nullable Object newValue) {
+        markChanged();
+        for (RegionChangeListener listener : listeners) {
+            try {
+                listener.onFlagChanged(region, flag, oldValue, newValue);
+            } catch (RuntimeException e) {
+                handle(listener, e);
+            }
+        }
+    }
+
+    @Override
+    public void onOwnersChanged(ProtectedRegion region) {
+        markChanged();
+        for (RegionChangeListener listener : listeners) {
+            try {
+                listener.onOwnersChanged(region);
+            } catch (RuntimeException e) {
+                handle(listener, e);
+            }
+        }
+    }
+
+    @Override
+    public void onMembersChanged(ProtectedRegion region) {
+        markChanged();
+        for (RegionChangeListener listener : listeners) {
+            try {
+                listener.onMembersChanged(region);
+            } catch (RuntimeException e) {
+                handle(listener, e);
+            }
+        }
+    }
+
+    /**
+     * Call the listeners without marking a change, for changes made while
+     * their regions were not reporting to this feed, once
+     * {@link #markChanged()} has been called for all of them.
+     *
+     * @param notification the call to make on each listener
+     */
+    void notifyListeners(Consumer<RegionChangeListener> notification) {
+        for (RegionChangeListener listener : listeners) {
+            try {
+                notification.accept(listener);
+            } catch (RuntimeException e) {
+                handle(listener, e);
+            }
+        }
+    }
+
+    private static void handle(RegionChangeListener listener, RuntimeException e) {
+        log.log(Level.WARNING, "Posluchač změn regionů " + listener.getClass().getName() + " selhal", e);
+    }
+
+}
@@ -0,0 +1,291 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.protection.managers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.worldguard.domains.DefaultDomain;
+import com.sk89q.worldguard.protection.flags.Flag;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A set of changes to apply to many regions at once with
+ * {@link RegionManager#applyBulk(java.util.function.Predicate, RegionChangeSet)}.
+ *
+ * <p>Changes that would leave a region as it is are skipped, so that
+ * unaffected regions are not marked as dirty.</p>
+ */
+public final class RegionChangeSet {
+
+    private final Map<Flag<?>, Object> flags = new LinkedHashMap<>();
+    private final DefaultDomain addedOwners = new DefaultDomain();
+    private final DefaultDomain removedOwners = new DefaultDomain();
+    private final DefaultDomain addedMembers = new DefaultDomain();
+    private final DefaultDomain removedMembers = new DefaultDomain();
+
+    /**
+     * Set the value of a flag.
+     *
+     * @param flag the flag
+     * @param value the value, or {@code null} to remove the flag
+     * @param <V> the type of the value
+     * @return this object
+     */
+    public <V> RegionChangeSet setFlag(Flag<V> flag, @Nullable V value) {
+        checkNotNull(flag);
+        flags.put(flag, value);
+        return this;
+    }
+
+    /**
+     * Add owners.
+     *
+     * @param domain the owners to add
+     * @return this object
+     */
+    public RegionChangeSet addOwners(DefaultDomain domain) {
+        addedOwners.addAll(domain);
+        return this;
+    }
+
+    /**
+     * Remove owners.
+     *
+     * @param domain the owners to remove
+     * @return this object
+     */
+    public RegionChangeSet removeOwners(DefaultDomain domain) {
+        removedOwners.addAll(domain);
+        return this;
+    }
+
+    /**
+     * Add members.
+     *
+     * @param domain the members to add
+     * @return this object
+     */
+    public RegionChangeSet addMembers(DefaultDomain domain) {
+        addedMembers.addAll(domain);
+        return this;
+    }
+
+    /**
+     * Remove members.
+     *
+     * @param domain the members to remove
+     * @return this object
+     */
+    public RegionChangeSet removeMembers(DefaultDomain domain) {
+        removedMembers.addAll(domain);
+        return this;
+    }
+
+    /**
+     * Get the flag changes, where a {@code null} value removes the flag.
+     *
+     * @return an unmodifiable map of flags
+     */
+    public Map<Flag<?>, Object> getFlags() {
+        return Collections.unmodifiableMap(flags);
+    }
+
+    /**
+     * Return whether this change set contains no changes.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return flags.isEmpty()
+                && addedOwners.size() == 0 && removedOwners.size() == 0
+                && addedMembers.size() == 0 && removedMembers.size() == 0;
+    }
+
+    /**
+     * Apply the changes to a region.
+     *
+     * @param region the region
+     * @return true if the region was changed
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public boolean applyTo(ProtectedRegion region) {
+        boolean changed = false;
+
+        for (Map.Entry<Flag<?>, Object> entry : flags.entrySet()) {
+            if (!Objects.equals(region.getFlag(entry.getKey()), entry.getValue())) {
+                region.setFlag((Flag) entry.getKey(), entry.getValue());
+                changed = true;
+            }
+        }
+
+        changed |= add(region.getOwners(), addedOwners);
+        changed |= remove(region.getOwners(), removedOwners);
+        changed |= add(region.getMembers(), addedMembers);
+        changed |= remove(region.getMembers(), removedMembers);
+
+        return changed;
+    }
+
+    /**
+     * Remember the parts of a region that {@link #applyTo(ProtectedRegion)}
+     * may change.
+     *
+     * @param region the region
+     * @return a backup of the region
+     */
+    Backup backup(ProtectedRegion region) {
+        return new Backup(region);
+    }
+
+    private static boolean add(DefaultDomain target, DefaultDomain added) {
+        if (added.size() == 0) {
+            return false;
+        }
+
+        for (String name : added.getPlayers()) {
+            if (!target.getPlayers().contains(name)) {
+                target.addAll(added);
+                return true;
+            }
+        }
+        for (UUID uniqueId : added.getUniqueIds()) {
+            if (!target.getUniqueIds().contains(uniqueId)) {
+                target.addAll(added);
+                return true;
+            }
+        }
+        for (String group : added.getGroups()) {
+            if (!target.getGroups().contains(group)) {
+                target.addAll(added);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean remove(DefaultDomain target, DefaultDomain removed) {
+        if (removed.size() == 0) {
+            return false;
+        }
+
+        for (String name : removed.getPlayers()) {
+            if (target.getPlayers().contains(name)) {
+                target.removeAll(removed);
+                return true;
+            }
+        }
+        for (UUID uniqueId : removed.getUniqueIds()) {
+            if (target.getUniqueIds().contains(uniqueId)) {
+                target.removeAll(removed);
+                return true;
+            }
+        }
+        for (String group : removed.getGroups()) {
+            if (target.getGroups().contains(group)) {
+                target.removeAll(removed);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The state of a region before the changes were applied to it.
+     */
+    final class Backup {
+        private final ProtectedRegion region;
+        private final Map<Flag<?>, Object> flags = new HashMap<>();
+        @Nullable
+        private final DefaultDomain owners;
+        @Nullable
+        private final DefaultDomain members;
+        private final boolean dirty;
+
+        private Backup(ProtectedRegion region) {
+            this.region = region;
+            for (Flag<?> flag : RegionChangeSet.this.flags.keySet()) {
+                flags.put(flag, region.getFlag(flag));
+            }
+            owners = addedOwners.size() > 0 || removedOwners.size() > 0 ? new DefaultDomain(region.getOwners()) : null;
+            members = addedMembers.size() > 0 || removedMembers.size() > 0 ? new DefaultDomain(region.getMembers()) : null;
+            dirty = region.isDirty();
+        }
+
+        /**
+         * Get the region.
+         *
+         * @return the region
+         */
+        ProtectedRegion getRegion() {
+            return region;
+        }
+
+        /**
+         * Put the region back in the state it was in.
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        void restore() {
+            for (Map.Entry<Flag<?>, Object> entry : flags.entrySet()) {
+                region.setFlag((Flag) entry.getKey(), entry.getValue());
+            }
+            if (owners != null) {
+                region.setOwners(owners);
+            }
+            if (members != null) {
+                region.setMembers(members);
+            }
+            if (!dirty) {
+                region.setDirty(false);
+            }
+        }
+
+        /**
+         * Report the changes made to the region since the backup to the
+         * listeners of a feed, without marking a change on the feed.
+         *
+         * @param feed the feed
+         */
+        void report(RegionChangeFeed feed) {
+            for (Map.Entry<Flag<?>, Object> entry : flags.entrySet()) {
+                Flag<?> flag = entry.getKey();
+                Object oldValue = entry.getValue();
+                Object newValue = region.getFlag(flag);
+                if (!Objects.equals(oldValue, newValue)) {
+                    feed.notifyListeners(listener -> listener.onFlagChanged(region, flag, oldValue, newValue));
+                }
+            }
+            if (owners != null) {
+                feed.notifyListeners(listener -> listener.onOwnersChanged(region));
+            }
+            if (members != null) {
+                feed.notifyListeners(listener -> listener.onMembersChanged(region));
+            }
+        }
+    }
+
+}
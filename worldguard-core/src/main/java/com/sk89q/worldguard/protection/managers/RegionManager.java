@@ -21,21 +21,28 @@
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.sk89q.worldedit.math.BlockVector2;
 import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldguard.LocalPlayer;
+import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.protection.ApplicableRegionSet;
 import com.sk89q.worldguard.protection.RegionResultSet;
+import com.sk89q.worldguard.protection.flags.Flag;
 import com.sk89q.worldguard.protection.flags.registry.FlagRegistry;
+import com.sk89q.worldguard.protection.managers.index.ChunkHashTable;
 import com.sk89q.worldguard.protection.managers.index.ConcurrentRegionIndex;
+import com.sk89q.worldguard.protection.managers.index.RegionBorderMap;
 import com.sk89q.worldguard.protection.managers.index.RegionIndex;
 import com.sk89q.worldguard.protection.managers.storage.DifferenceSaveException;
 import com.sk89q.worldguard.protection.managers.storage.RegionDatabase;
 import com.sk89q.worldguard.protection.managers.storage.StorageException;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.regions.RegionChangeListener;
 import com.sk89q.worldguard.protection.regions.RegionQuery.QueryOption;
 import com.sk89q.worldguard.util.Normal;
+import com.sk89q.worldguard.util.metrics.MetricsRegistry;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
@@ -47,18 +54,37 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * A region manager holds the regions for a world.
  */
 public final class RegionManager {
 
+    private static final String LOAD_METRIC = "worldguard_region_load_seconds";
+    private static final String SAVE_METRIC = "worldguard_region_save_seconds";
+
     private final RegionDatabase store;
     private final Function<String, ? extends ConcurrentRegionIndex> indexFactory;
     private final FlagRegistry flagRegistry;
     private ConcurrentRegionIndex index;
+    private final Object snapshotLock = new Object();
+    private final Object writeLock = new Object();
+    @Nullable
+    private volatile RegionSnapshot snapshot;
+    private volatile long snapshotVersion;
+    private volatile boolean snapshotUsed;
+    private final RegionSetInterner interner = new RegionSetInterner(this::getVersion);
+    private final RegionChangeFeed feed = new RegionChangeFeed();
+    private final RegionMembershipIndex membershipIndex = new RegionMembershipIndex();
+    private final AtomicLong flagChanges = new AtomicLong();
+    private final AtomicLong geometryChanges = new AtomicLong();
+    private final Object flagLock = new Object();
+    private final Map<Flag<?>, Integer> flagCounts = new HashMap<>();
+    @Nullable
+    private volatile Set<Flag<?>> presentFlags = Collections.emptySet();
 
     /**
      * Create a new index.
@@ -76,6 +102,43 @@ public RegionManager(RegionDatabase store, Function<String, ? extends Concurrent
         this.indexFactory = indexFactory;
         this.index = indexFactory.apply(store.getName());
         this.flagRegistry = flagRegistry;
+
+        feed.add(new RegionChangeListener() {
+            @Override
+            public void onRegionAdded(ProtectedRegion region) {
+                geometryChanges.incrementAndGet();
+                flagChanges.incrementAndGet();
+                countFlags(region, 1);
+            }
+
+            @Override
+            public void onRegionRemoved(ProtectedRegion region) {
+                geometryChanges.incrementAndGet();
+                flagChanges.incrementAndGet();
+                countFlags(region, -1);
+            }
+
+            @Override
+            public void onGeometryChanged(ProtectedRegion region, BlockVector3 oldMinimumPoint, BlockVector3 oldMaximumPoint) {
+                geometryChanges.incrementAndGet();
+            }
+
+            @Override
+            public void onParentChanged(ProtectedRegion region, @Nullable ProtectedRegion oldParent, @Nullable ProtectedRegion newParent) {
+                flagChanges.incrementAndGet(); // Flags are inherited
+            }
+
+            @Override
+            public void onFlagChanged(ProtectedRegion region, Flag<?> flag, @Nullable Object oldValue, @Nullable Object newValue) {
+                flagChanges.incrementAndGet();
+                if (oldValue == null && newValue != null) {
+                    countFlag(flag, 1);
+                } else if (oldValue != null && newValue == null) {
+                    countFlag(flag, -1);
+                }
+            }
+        });
+        feed.add(membershipIndex.getListener());
     }
 
     /**
@@ -97,11 +160,13 @@ public String getName() {
      * @throws StorageException thrown when loading fails
      */
     public void load() throws StorageException {
+        long start = System.nanoTime();
         Set<ProtectedRegion> regions = store.loadAll(flagRegistry);
         for (ProtectedRegion region : regions) {
             region.setDirty(false);
         }
         setRegions(regions);
+        recordStorageTime(LOAD_METRIC, start);
     }
 
     /**
@@ -110,8 +175,10 @@ public void load() throws StorageException {
      * @throws StorageException thrown on save error
      */
     public void save() throws StorageException {
+        long start = System.nanoTime();
         index.setDirty(false);
         store.saveAll(new HashSet<>(getFilteredValuesCopy()));
+        recordStorageTime(SAVE_METRIC, start);
     }
 
     /**
@@ -131,7 +198,9 @@ public boolean saveChanges() throws StorageException {
         try {
             if (diff.containsChanges()) {
                 try {
+                    long start = System.nanoTime();
                     store.saveChanges(diff);
+                    recordStorageTime(SAVE_METRIC, start);
                 } catch (DifferenceSaveException e) {
                     save(); // Partial save is not supported
                 }
@@ -175,6 +244,236 @@ public void unloadChunk(BlockVector2 position) {
         index.forget(position);
     }
 
+    /**
+     * Get the region border map for a loaded chunk.
+     *
+     * <p>{@code null} is returned if the chunk is not loaded, its regions
+     * have not been enumerated yet, or the index does not keep per-chunk
+     * data.</p>
+     *
+     * @param chunkX the chunk X coordinate
+     * @param chunkZ the chunk Z coordinate
+     * @return a border map, or {@code null}
+     */
+    @Nullable
+    public RegionBorderMap getBorderMap(int chunkX, int chunkZ) {
+        ConcurrentRegionIndex index = this.index;
+        if (index instanceof ChunkHashTable) {
+            return ((ChunkHashTable) index).getBorderMap(chunkX, chunkZ);
+        }
+        return null;
+    }
+
+    /**
+     * Get an immutable snapshot of the regions of this manager.
+     *
+     * <p>Snapshots can be queried from any thread without locking and
+     * without touching the regions of this manager. Snapshots are only
+     * kept for managers that have been asked for one. Once this method has
+     * been called, the snapshot is replaced by {@link #updateSnapshot()} on
+     * the thread that makes changes to region data, so the returned
+     * snapshot may lag slightly behind changes. Only if no snapshot has
+     * been taken yet, one is taken on the calling thread.</p>
+     *
+     * @return a snapshot
+     */
+    public RegionSnapshot getSnapshot() {
+        if (!snapshotUsed) {
+            snapshotUsed = true;
+        }
+
+        RegionSnapshot snapshot = this.snapshot;
+        if (snapshot == null) {
+            synchronized (snapshotLock) {
+                snapshot = this.snapshot;
+                if (snapshot == null) {
+                    // Take the version first to have the next update catch up
+                    long version = getVersion();
+                    snapshot = new RegionSnapshot(getName(), index.values());
+                    snapshotVersion = version;
+                    this.snapshot = snapshot;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Take a new snapshot for {@link #getSnapshot()} if the regions of this
+     * manager have changed since the last one.
+     *
+     * <p>Nothing is done until a snapshot has been asked for, as taking a
+     * snapshot copies every region of the manager.</p>
+     *
+     * <p>This method should be called periodically from the thread that
+     * makes changes to region data, so that snapshots are consistent.</p>
+     */
+    public void updateSnapshot() {
+        if (!snapshotUsed) {
+            return;
+        }
+
+        long version = getVersion();
+        if (snapshot != null && snapshotVersion == version) {
+            return;
+        }
+
+        synchronized (snapshotLock) {
+            if (snapshot == null || snapshotVersion != version) {
+                RegionSnapshot snapshot = new RegionSnapshot(getName(), index.values());
+                snapshotVersion = version;
+                this.snapshot = snapshot;
+            }
+        }
+    }
+
+    /**
+     * Get the version of the regions of this manager.
+     *
+     * <p>The version changes whenever a region is added to or removed from
+     * this manager, or a region of this manager is changed. It does not
+     * change with the regions of other managers, so caches of data derived
+     * from the regions of this manager can be validated by comparing the
+     * version read before the data was computed with the current one.</p>
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return feed.getVersion();
+    }
+
+    /**
+     * Get the version of the shapes of the regions of this manager.
+     *
+     * <p>Unlike {@link #getVersion()}, this version only changes when a
+     * region is added, removed or reshaped, so it can be used to validate
+     * data that depends only on which regions contain a location.</p>
+     *
+     * @return the version
+     */
+    public long getGeometryVersion() {
+        return geometryChanges.get();
+    }
+
+    /**
+     * Register a listener to be notified of changes to the regions of
+     * this manager.
+     *
+     * <p>Listeners are called on the thread making the change, right after
+     * the change has been made, so they should be quick and must not
+     * modify regions themselves. Regions loaded with {@link #load()} are
+     * reported as removed and added.</p>
+     *
+     * @param listener the listener
+     */
+    public void addChangeListener(RegionChangeListener listener) {
+        feed.add(listener);
+    }
+
+    /**
+     * Unregister a listener previously registered with
+     * {@link #addChangeListener(RegionChangeListener)}.
+     *
+     * @param listener the listener
+     */
+    public void removeChangeListener(RegionChangeListener listener) {
+        checkNotNull(listener);
+        feed.remove(listener);
+    }
+
+    /**
+     * Return whether the given flag is set on any region of this manager,
+     * including the global region.
+     *
+     * <p>The number of regions setting each flag is kept up to date as
+     * regions are added, removed or have their flags changed, so this
+     * method is cheap to call frequently.</p>
+     *
+     * @param flag the flag
+     * @return true if any region sets the flag
+     */
+    public boolean isFlagPresent(Flag<?> flag) {
+        checkNotNull(flag);
+        return getPresentFlags().contains(flag);
+    }
+
+    /**
+     * Return whether the block at the given position may be contained by
+     * a region that sets the given flag, either on itself or on a parent,
+     * or whether the global region sets the flag.
+     *
+     * <p>This method is conservative: {@code true} is returned unless the
+     * flag is known not to apply to the block. In chunks whose
+     * {@link RegionBorderMap} is available, the answer comes from a mask of
+     * the regions setting the flag that is built lazily per chunk, so most
+     * positions are decided with a single bit test.</p>
+     *
+     * @param flag the flag
+     * @param x the X coordinate
+     * @param y the Y coordinate
+     * @param z the Z coordinate
+     * @return false if no region setting the flag contains the block
+     */
+    public boolean isFlagPresent(Flag<?> flag, int x, int y, int z) {
+        checkNotNull(flag);
+
+        long version = flagChanges.get();
+        if (!getPresentFlags().contains(flag)) {
+            return false;
+        }
+
+        ProtectedRegion global = index.get(ProtectedRegion.GLOBAL_REGION);
+        if (global != null && global.getFlag(flag) != null) {
+            return true;
+        }
+
+        RegionBorderMap map = getBorderMap(x >> 4, z >> 4);
+        if (map == null || !map.isCompact()) {
+            return true;
+        }
+
+        return map.intersects(x, y, z, map.getFlagMask(flag, version));
+    }
+
+    /**
+     * Get the flags that are set on any region of this manager, including
+     * the global region.
+     *
+     * @return an immutable set of flags
+     */
+    public Set<Flag<?>> getPresentFlags() {
+        Set<Flag<?>> flags = presentFlags;
+        if (flags == null) {
+            synchronized (flagLock) {
+                flags = presentFlags;
+                if (flags == null) {
+                    flags = ImmutableSet.copyOf(flagCounts.keySet());
+                    presentFlags = flags;
+                }
+            }
+        }
+        return flags;
+    }
+
+    private void countFlags(ProtectedRegion region, int delta) {
+        for (Flag<?> flag : region.getFlags().keySet()) {
+            countFlag(flag, delta);
+        }
+    }
+
+    private void countFlag(Flag<?> flag, int delta) {
+        synchronized (flagLock) {
+            int count = flagCounts.getOrDefault(flag, 0) + delta;
+            if (count > 0) {
+                if (flagCounts.put(flag, count) == null) {
+                    presentFlags = null; // Rebuilt on next use
+                }
+            } else if (flagCounts.remove(flag) != null) {
+                presentFlags = null;
+            }
+        }
+    }
+
     /**
      * Get an unmodifiable map of regions containing the state of the
      * index at the time of call.
@@ -217,10 +516,25 @@ public void setRegions(Map<String, ProtectedRegion> regions) {
     public void setRegions(Collection<ProtectedRegion> regions) {
         checkNotNull(regions);
 
-        ConcurrentRegionIndex newIndex = indexFactory.apply(getName());
-        newIndex.addAll(regions);
-        newIndex.getAndClearDifference(); // Clear changes
-        this.index = newIndex;
+        synchronized (writeLock) {
+            ConcurrentRegionIndex newIndex = indexFactory.apply(getName());
+            newIndex.addAll(regions);
+            newIndex.getAndClearDifference(); // Clear changes
+            ConcurrentRegionIndex oldIndex = this.index;
+            this.index = newIndex;
+            feed.markChanged();
+            flagChanges.incrementAndGet();
+            geometryChanges.incrementAndGet();
+
+            for (ProtectedRegion region : oldIndex.values()) {
+                if (newIndex.get(region.getId()) != region) {
+                    detach(region);
+                }
+            }
+            for (ProtectedRegion region : newIndex.values()) {
+                attach(region);
+            }
+        }
     }
 
     /**
@@ -232,7 +546,18 @@ public void setRegions(Collection<ProtectedRegion> regions) {
      */
     public void addRegion(ProtectedRegion region) {
         checkNotNull(region);
-        index.add(region);
+        synchronized (writeLock) {
+            ProtectedRegion existing = index.get(region.getId());
+            index.add(region);
+            feed.markChanged();
+
+            if (existing != null && existing != region) {
+                detach(existing);
+            }
+            for (ProtectedRegion r = region; r != null; r = r.getParent()) {
+                attach(r);
+            }
+        }
     }
 
     /**
@@ -289,7 +614,120 @@ public Set<ProtectedRegion> removeRegion(String id) {
      */
     @Nullable
     public Set<ProtectedRegion> removeRegion(String id, RemovalStrategy strategy) {
-        return index.remove(id, strategy);
+        synchronized (writeLock) {
+            Set<ProtectedRegion> removed = index.remove(id, strategy);
+            feed.markChanged();
+            if (removed != null) {
+                for (ProtectedRegion region : removed) {
+                    detach(region);
+                }
+            }
+            return removed;
+        }
+    }
+
+    /**
+     * Apply a set of changes to all regions matching a selector, as one
+     * change.
+     *
+     * <p>The matching regions are determined before any change is made.
+     * Regions that the changes would leave as they are are skipped, so only
+     * the changed regions are marked as dirty and written by the next
+     * {@link #saveChanges()}.</p>
+     *
+     * <p>While the changes are made, no region can be added or removed and
+     * no snapshot is taken, and the changed regions do not report to the
+     * listeners of this manager. Once all regions are changed, the version
+     * is incremented once and the listeners are told of every change. If
+     * a change fails, the regions are put back as they were and nothing is
+     * reported. Code reading the regions themselves rather than a
+     * {@linkplain #getSnapshot() snapshot} may still see some regions
+     * changed before others.</p>
+     *
+     * @param selector the selector of regions
+     * @param changes the changes
+     * @return the regions that were changed
+     * @see RegionSelectors
+     */
+    public List<ProtectedRegion> applyBulk(Predicate<? super ProtectedRegion> selector, RegionChangeSet changes) {
+        checkNotNull(selector);
+        checkNotNull(changes);
+
+        synchronized (writeLock) {
+            List<ProtectedRegion> selected = new ArrayList<>();
+            for (ProtectedRegion region : index.values()) {
+                if (selector.test(region)) {
+                    selected.add(region);
+                }
+            }
+
+            List<ProtectedRegion> changed = new ArrayList<>();
+            List<RegionChangeSet.Backup> backups = new ArrayList<>();
+            List<RegionChangeSet.Backup> reported = new ArrayList<>();
+
+            synchronized (snapshotLock) {
+                try {
+                    for (ProtectedRegion region : selected) {
+                        RegionChangeSet.Backup backup = changes.backup(region);
+                        region.setChangeListener(null); // Reported below, once all regions are changed
+                        backups.add(backup);
+                        if (changes.applyTo(region)) {
+                            changed.add(region);
+                            reported.add(backup);
+                        }
+                    }
+                } catch (RuntimeException | Error e) {
+                    for (RegionChangeSet.Backup backup : backups) {
+                        backup.restore();
+                    }
+                    throw e;
+                } finally {
+                    for (RegionChangeSet.Backup backup : backups) {
+                        backup.getRegion().setChangeListener(feed);
+                    }
+                }
+
+                if (!changed.isEmpty()) {
+                    feed.markChanged();
+                }
+            }
+
+            for (RegionChangeSet.Backup backup : reported) {
+                backup.report(feed);
+            }
+            return changed;
+        }
+    }
+
+    private void recordStorageTime(String metric, long start) {
+        MetricsRegistry metrics = WorldGuard.getInstance().getMetrics();
+        if (metrics.isEnabled()) {
+            metrics.histogram(metric, "world", getName()).recordSince(start);
+        }
+    }
+
+    /**
+     * Start reporting changes of a region that is now in the index.
+     *
+     * @param region the region
+     */
+    private void attach(ProtectedRegion region) {
+        if (region.getChangeListener() != feed) {
+            region.setChangeListener(feed);
+            feed.onRegionAdded(region);
+        }
+    }
+
+    /**
+     * Stop reporting changes of a region that is no longer in the index.
+     *
+     * @param region the region
+     */
+    private void detach(ProtectedRegion region) {
+        if (region.getChangeListener() == feed) {
+            region.setChangeListener(null);
+            feed.onRegionRemoved(region);
+        }
     }
 
     /**
@@ -317,7 +755,23 @@ public ApplicableRegionSet getApplicableRegions(BlockVector3 position, QueryOpti
 
         Set<ProtectedRegion> regions = Sets.newHashSet();
         index.applyContaining(position, option.createIndexConsumer(regions));
-        return new RegionResultSet(option.constructResult(regions), index.get("__global__"), true);
+        return interner.intern(regions, index.get("__global__"));
+    }
+
+    /**
+     * Get a region set for the given regions that is shared with all other
+     * callers asking for the same regions, until region data changes.
+     *
+     * <p>The returned set is sorted with
+     * {@link com.sk89q.worldguard.protection.util.NormativeOrders}. Parents
+     * of the regions are not added.</p>
+     *
+     * @param regions the regions
+     * @return a shared region set
+     */
+    public ApplicableRegionSet getSharedRegionSet(Set<ProtectedRegion> regions) {
+        checkNotNull(regions);
+        return interner.intern(regions, index.get("__global__"));
     }
 
     /**
@@ -410,17 +864,17 @@ public int size() {
      */
     public int getRegionCountOfPlayer(final LocalPlayer player) {
         checkNotNull(player);
+        return membershipIndex.getOwnedRegionCount(player);
+    }
 
-        final AtomicInteger count = new AtomicInteger();
-
-        index.apply(test -> {
-            if (test.getOwners().contains(player)) {
-                count.incrementAndGet();
-            }
-            return true;
-        });
-
-        return count.get();
+    /**
+     * Get the index of the regions that players and groups own or are
+     * members of.
+     *
+     * @return the membership index
+     */
+    public RegionMembershipIndex getMembershipIndex() {
+        return membershipIndex;
     }
 
     /**
@@ -0,0 +1,255 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.protection.managers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableSet;
+import com.sk89q.worldguard.LocalPlayer;
+import com.sk89q.worldguard.domains.DefaultDomain;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.regions.RegionChangeListener;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A reverse index from players and groups to the regions that they own
+ * or are members of.
+ *
+ * <p>The index is kept up to date from the change feed of a
+ * {@link RegionManager}, so lookups take time proportional to the size
+ * of the result rather than to the number of regions. Only the direct
+ * owners and members of a region are indexed; inheritance from parent
+ * regions is not taken into account, the same as with
+ * {@link DefaultDomain#contains(LocalPlayer)}.</p>
+ *
+ * <p>Lookups can be made from any thread. Changes are made on the thread
+ * that modifies the regions.</p>
+ */
+public final class RegionMembershipIndex {
+
+    private final Role owners = new Role();
+    private final Role members = new Role();
+    private final RegionChangeListener listener = new RegionChangeListener() {
+        @Override
+        public void onRegionAdded(ProtectedRegion region) {
+            owners.update(region, region.getOwners());
+            members.update(region, region.getMembers());
+        }
+
+        @Override
+        public void onRegionRemoved(ProtectedRegion region) {
+            owners.update(region, null);
+            members.update(region, null);
+        }
+
+        @Override
+        public void onOwnersChanged(ProtectedRegion region) {
+            owners.update(region, region.getOwners());
+        }
+
+        @Override
+        public void onMembersChanged(ProtectedRegion region) {
+            members.update(region, region.getMembers());
+        }
+    };
+
+    RegionMembershipIndex() {
+    }
+
+    /**
+     * Get the listener that keeps this index up to date.
+     *
+     * @return the listener
+     */
+    RegionChangeListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Get the regions that the given player owns, by UUID, name or group.
+     *
+     * @param player the player
+     * @return an immutable set of regions
+     */
+    public Set<ProtectedRegion> getOwnedRegions(LocalPlayer player) {
+        return owners.get(player);
+    }
+
+    /**
+     * Get the regions that the given player is a member of, by UUID, name
+     * or group. Regions that the player only owns are not included.
+     *
+     * @param player the player
+     * @return an immutable set of regions
+     */
+    public Set<ProtectedRegion> getMemberRegions(LocalPlayer player) {
+        return members.get(player);
+    }
+
+    /**
+     * Get the regions that are owned by the player with the given UUID.
+     *
+     * @param uniqueId the UUID of the player
+     * @return an immutable set of regions
+     */
+    public Set<ProtectedRegion> getOwnedRegions(UUID uniqueId) {
+        checkNotNull(uniqueId);
+        return ImmutableSet.copyOf(owners.byUniqueId.getOrDefault(uniqueId, Collections.emptySet()));
+    }
+
+    /**
+     * Get the regions that the player with the given UUID is a member of.
+     *
+     * @param uniqueId the UUID of the player
+     * @return an immutable set of regions
+     */
+    public Set<ProtectedRegion> getMemberRegions(UUID uniqueId) {
+        checkNotNull(uniqueId);
+        return ImmutableSet.copyOf(members.byUniqueId.getOrDefault(uniqueId, Collections.emptySet()));
+    }
+
+    /**
+     * Get the regions that are owned by the player with the given name.
+     *
+     * @param name the name of the player
+     * @return an immutable set of regions
+     */
+    public Set<ProtectedRegion> getOwnedRegions(String name) {
+        checkNotNull(name);
+        return ImmutableSet.copyOf(owners.byName.getOrDefault(normalize(name), Collections.emptySet()));
+    }
+
+    /**
+     * Get the regions that the player with the given name is a member of.
+     *
+     * @param name the name of the player
+     * @return an immutable set of regions
+     */
+    public Set<ProtectedRegion> getMemberRegions(String name) {
+        checkNotNull(name);
+        return ImmutableSet.copyOf(members.byName.getOrDefault(normalize(name), Collections.emptySet()));
+    }
+
+    /**
+     * Get the number of regions that the given player owns, by UUID, name
+     * or group.
+     *
+     * @param player the player
+     * @return the number of regions
+     */
+    public int getOwnedRegionCount(LocalPlayer player) {
+        return owners.get(player).size();
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase();
+    }
+
+    /**
+     * The index of one kind of domain (owners or members).
+     */
+    private static final class Role {
+        private final Map<UUID, Set<ProtectedRegion>> byUniqueId = new ConcurrentHashMap<>();
+        private final Map<String, Set<ProtectedRegion>> byName = new ConcurrentHashMap<>();
+        private final Map<String, Set<ProtectedRegion>> byGroup = new ConcurrentHashMap<>();
+        private final Map<ProtectedRegion, Keys> indexed = new HashMap<>();
+
+        /**
+         * Re-index a region with the contents of its domain.
+         *
+         * @param region the region
+         * @param domain the domain, or {@code null} to remove the region
+         */
+        synchronized void update(ProtectedRegion region, @Nullable DefaultDomain domain) {
+            Keys previous = indexed.remove(region);
+            if (previous != null) {
+                unlink(byUniqueId, previous.uniqueIds, region);
+                unlink(byName, previous.names, region);
+                unlink(byGroup, previous.groups, region);
+            }
+
+            if (domain != null && domain.size() > 0) {
+                Keys keys = new Keys(domain);
+                link(byUniqueId, keys.uniqueIds, region);
+                link(byName, keys.names, region);
+                link(byGroup, keys.groups, region);
+                indexed.put(region, keys);
+            }
+        }
+
+        Set<ProtectedRegion> get(LocalPlayer player) {
+            checkNotNull(player);
+
+            Set<ProtectedRegion> result = new HashSet<>(byUniqueId.getOrDefault(player.getUniqueId(), Collections.emptySet()));
+            if (!byName.isEmpty()) {
+                result.addAll(byName.getOrDefault(normalize(player.getName()), Collections.emptySet()));
+            }
+            if (!byGroup.isEmpty()) {
+                Set<String> cached = player.getCachedGroups();
+                for (Map.Entry<String, Set<ProtectedRegion>> entry : byGroup.entrySet()) {
+                    String group = entry.getKey();
+                    if (cached != null ? cached.contains(group) : player.hasGroup(group)) {
+                        result.addAll(entry.getValue());
+                    }
+                }
+            }
+            return ImmutableSet.copyOf(result);
+        }
+
+        private static <K> void link(Map<K, Set<ProtectedRegion>> map, Set<K> keys, ProtectedRegion region) {
+            for (K key : keys) {
+                map.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(region);
+            }
+        }
+
+        private static <K> void unlink(Map<K, Set<ProtectedRegion>> map, Set<K> keys, ProtectedRegion region) {
+            for (K key : keys) {
+                map.computeIfPresent(key, (k, regions) -> {
+                    regions.remove(region);
+                    return regions.isEmpty() ? null : regions;
+                });
+            }
+        }
+    }
+
+    /**
+     * The keys that a region was indexed under.
+     */
+    private static final class Keys {
+        private final Set<UUID> uniqueIds;
+        private final Set<String> names;
+        private final Set<String> groups;
+
+        private Keys(DefaultDomain domain) {
+            this.uniqueIds = ImmutableSet.copyOf(domain.getUniqueIds());
+            this.names = ImmutableSet.copyOf(domain.getPlayers());
+            this.groups = ImmutableSet.copyOf(domain.getGroups());
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.protection.managers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.worldguard.protection.flags.Flag;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Selectors of regions for
+ * {@link RegionManager#applyBulk(Predicate, RegionChangeSet)}.
+ *
+ * <p>Selectors can be combined with {@link Predicate#and(Predicate)}.</p>
+ */
+public final class RegionSelectors {
+
+    private RegionSelectors() {
+    }
+
+    /**
+     * Select the regions that have the given region as a parent, directly
+     * or through other parents.
+     *
+     * @param parent the parent
+     * @return a selector
+     */
+    public static Predicate<ProtectedRegion> childrenOf(ProtectedRegion parent) {
+        checkNotNull(parent);
+        return region -> {
+            for (ProtectedRegion current = region.getParent(); current != null; current = current.getParent()) {
+                if (current == parent) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * Select the regions owned by the given player.
+     *
+     * @param name the name of the player
+     * @param uniqueId the UUID of the player, if known
+     * @return a selector
+     */
+    public static Predicate<ProtectedRegion> ownedBy(String name, @Nullable UUID uniqueId) {
+        checkNotNull(name);
+        return region -> region.getOwners().contains(name)
+                || (uniqueId != null && region.getOwners().contains(uniqueId));
+    }
+
+    /**
+     * Select the regions that set a flag to the given value.
+     *
+     * @param flag the flag
+     * @param value the value, or {@code null} to select regions that do not set the flag
+     * @param <V> the type of the value
+     * @return a selector
+     */
+    public static <V> Predicate<ProtectedRegion> withFlag(Flag<V> flag, @Nullable V value) {
+        checkNotNull(flag);
+        return region -> Objects.equals(region.getFlag(flag), value);
+    }
+
+    /**
+     * Select the regions that intersect the given area.
+     *
+     * @param area the area
+     * @return a selector
+     */
+    public static Predicate<ProtectedRegion> intersecting(ProtectedRegion area) {
+        checkNotNull(area);
+        return region -> region.isPhysicalArea()
+                && !area.getIntersectingRegions(Collections.singletonList(region)).isEmpty();
+    }
+
+    /**
+     * Select all regions except the global region.
+     *
+     * @return a selector
+     */
+    public static Predicate<ProtectedRegion> notGlobal() {
+        return region -> !region.getId().equals(ProtectedRegion.GLOBAL_REGION);
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.protection.managers;
+
+import com.google.common.collect.ImmutableSet;
+import com.sk89q.worldguard.protection.RegionResultSet;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Maps sets of regions to canonical {@link RegionResultSet}s, so that the
+ * many locations that share the same combination of regions also share a
+ * single result set (and the values it has memoized).
+ *
+ * <p>All canonical sets are dropped when the version of the region manager
+ * changes, since the order of regions or the global region may have
+ * changed. The number of canonical sets is bounded.</p>
+ *
+ * <p>This class is thread safe.</p>
+ */
+final class RegionSetInterner {
+
+    private static final int MAX_SIZE = 4096;
+
+    private final LongSupplier versionSource;
+    private final ConcurrentMap<Set<ProtectedRegion>, RegionResultSet> sets = new ConcurrentHashMap<>();
+    private volatile long version = -1;
+
+    /**
+     * Create a new instance.
+     *
+     * @param versionSource the version of the regions of the manager
+     */
+    RegionSetInterner(LongSupplier versionSource) {
+        checkNotNull(versionSource);
+        this.versionSource = versionSource;
+    }
+
+    /**
+     * Get the canonical result set for the given regions.
+     *
+     * @param regions the regions, which are not retained
+     * @param globalRegion the global region
+     * @return a result set sorted with {@link com.sk89q.worldguard.protection.util.NormativeOrders}
+     */
+    RegionResultSet intern(Set<ProtectedRegion> regions, @Nullable ProtectedRegion globalRegion) {
+        long current = versionSource.getAsLong();
+        if (version != current) {
+            synchronized (this) {
+                if (version != current) {
+                    sets.clear();
+                    version = current;
+                }
+            }
+        }
+
+        RegionResultSet set = sets.get(regions);
+        if (set != null) {
+            return set;
+        }
+
+        Set<ProtectedRegion> key = ImmutableSet.copyOf(regions);
+        set = RegionResultSet.memoized(key, globalRegion, versionSource);
+
+        if (sets.size() >= MAX_SIZE) {
+            sets.clear();
+        }
+
+        RegionResultSet existing = sets.putIfAbsent(key, set);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (versionSource.getAsLong() != current) {
+            sets.remove(key, set); // May have been built from data that has just changed
+        }
+
+        return set;
+    }
+
+}
@@ -0,0 +1,233 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.protection.managers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableMap;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.ApplicableRegionSet;
+import com.sk89q.worldguard.protection.RegionResultSet;
+import com.sk89q.worldguard.protection.regions.GlobalProtectedRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedPolygonalRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegionMBRConverter;
+import com.sk89q.worldguard.protection.regions.RegionQuery.QueryOption;
+import com.sk89q.worldguard.protection.util.RegionCollectionConsumer;
+import com.sk89q.worldguard.util.Normal;
+import org.khelekore.prtree.MBR;
+import org.khelekore.prtree.MBRConverter;
+import org.khelekore.prtree.PRTree;
+import org.khelekore.prtree.SimpleMBR;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable copy of the regions of a {@link RegionManager} at some
+ * point in time.
+ *
+ * <p>The regions of a snapshot are private copies of the regions of the
+ * manager, so they are never changed by later modifications to region data,
+ * and queries can be made from any thread without locking. The regions
+ * returned by a snapshot must not be modified, and because they are copies,
+ * they must not be used to change region data either.</p>
+ *
+ * <p>Snapshots are obtained with {@link RegionManager#getSnapshot()}.</p>
+ */
+public final class RegionSnapshot {
+
+    private static final int BRANCH_FACTOR = 30;
+    private static final MBRConverter<ProtectedRegion> CONVERTER = new ProtectedRegionMBRConverter();
+
+    private final String name;
+    private final Map<String, ProtectedRegion> regions;
+    @Nullable
+    private final ProtectedRegion global;
+    private final PRTree<ProtectedRegion> tree;
+
+    /**
+     * Create a new snapshot by copying the given regions.
+     *
+     * @param name the name of the region manager
+     * @param source the regions to copy
+     */
+    RegionSnapshot(String name, Collection<ProtectedRegion> source) {
+        checkNotNull(name);
+        checkNotNull(source);
+
+        this.name = name;
+
+        // Parents may have been removed from the manager in the meantime
+        Set<ProtectedRegion> hierarchy = new LinkedHashSet<>(source);
+        for (ProtectedRegion region : source) {
+            ProtectedRegion parent = region.getParent();
+            while (parent != null && hierarchy.add(parent)) {
+                parent = parent.getParent();
+            }
+        }
+
+        Map<ProtectedRegion, ProtectedRegion> copies = new HashMap<>();
+        for (ProtectedRegion region : hierarchy) {
+            copies.put(region, copyOf(region));
+        }
+
+        List<ProtectedRegion> physical = new ArrayList<>();
+        Map<String, ProtectedRegion> byId = new HashMap<>();
+
+        for (ProtectedRegion region : hierarchy) {
+            ProtectedRegion copy = copies.get(region);
+            ProtectedRegion parent = region.getParent();
+
+            if (parent != null) {
+                try {
+                    copy.setParent(copies.get(parent));
+                } catch (ProtectedRegion.CircularInheritanceException ignored) {
+                    // Can't happen with a copy of a valid hierarchy
+                }
+            }
+
+            if (byId.putIfAbsent(Normal.normalize(copy.getId()), copy) == null && copy.isPhysicalArea()) {
+                physical.add(copy);
+            }
+        }
+
+        this.regions = ImmutableMap.copyOf(byId);
+        this.global = regions.get(Normal.normalize(ProtectedRegion.GLOBAL_REGION));
+        this.tree = new PRTree<>(CONVERTER, BRANCH_FACTOR);
+        this.tree.load(physical);
+    }
+
+    /**
+     * Get the name of the region manager that this snapshot was taken of.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the region named by the given name (equality determined using
+     * {@link Normal}).
+     *
+     * @param id the name of the region
+     * @return a region or {@code null}
+     */
+    @Nullable
+    public ProtectedRegion getRegion(String id) {
+        checkNotNull(id);
+        return regions.get(Normal.normalize(id));
+    }
+
+    /**
+     * Get an immutable map of the regions of this snapshot, keyed by their
+     * normalized names.
+     *
+     * @return a map of regions
+     */
+    public Map<String, ProtectedRegion> getRegions() {
+        return regions;
+    }
+
+    /**
+     * Get the number of regions.
+     *
+     * @return the number of regions
+     */
+    public int size() {
+        return regions.size();
+    }
+
+    /**
+     * Query for effective flags and members for the given position.
+     *
+     * <p>{@link QueryOption#COMPUTE_PARENTS} is used.</p>
+     *
+     * @param position the position
+     * @return the query object
+     */
+    public ApplicableRegionSet getApplicableRegions(BlockVector3 position) {
+        return getApplicableRegions(position, QueryOption.COMPUTE_PARENTS);
+    }
+
+    /**
+     * Return a region set for the given position.
+     *
+     * @param position the position
+     * @param option the option
+     * @return a region set
+     */
+    public ApplicableRegionSet getApplicableRegions(BlockVector3 position, QueryOption option) {
+        checkNotNull(position);
+        checkNotNull(option);
+
+        Set<ProtectedRegion> regions = new HashSet<>();
+        RegionCollectionConsumer consumer = option.createIndexConsumer(regions);
+        MBR pointMBR = new SimpleMBR(position.getX(), position.getX(), position.getY(), position.getY(), position.getZ(), position.getZ());
+
+        for (ProtectedRegion region : tree.find(pointMBR)) {
+            if (region.contains(position)) {
+                consumer.apply(region);
+            }
+        }
+
+        return new RegionResultSet(option.constructResult(regions), global, true);
+    }
+
+    /**
+     * Create a detached copy of a region, without its parent.
+     *
+     * @param region the region
+     * @return a copy
+     */
+    private static ProtectedRegion copyOf(ProtectedRegion region) {
+        ProtectedRegion copy;
+
+        switch (region.getType()) {
+            case CUBOID:
+                copy = new ProtectedCuboidRegion(region.getId(), region.isTransient(),
+                        region.getMinimumPoint(), region.getMaximumPoint());
+                break;
+            case POLYGON:
+                copy = new ProtectedPolygonalRegion(region.getId(), region.isTransient(), region.getPoints(),
+                        region.getMinimumPoint().getBlockY(), region.getMaximumPoint().getBlockY());
+                break;
+            default:
+                copy = new GlobalProtectedRegion(region.getId(), region.isTransient());
+                break;
+        }
+
+        copy.setPriority(region.getPriority());
+        copy.setFlags(region.getFlags());
+        copy.setOwners(region.getOwners());
+        copy.setMembers(region.getMembers());
+        return copy;
+    }
+
+}
@@ -256,6 +256,23 @@ public void applyContaining(BlockVector3 position, Predicate<ProtectedRegion> co
         }
     }
 
+    /**
+     * Get the border map of a chunk if the regions of the chunk have been
+     * enumerated. The map is built on the first call for the chunk.
+     *
+     * @param chunkX the chunk X coordinate
+     * @param chunkZ the chunk Z coordinate
+     * @return a border map, or {@code null} if the chunk is not loaded (yet)
+     */
+    @Nullable
+    public RegionBorderMap getBorderMap(int chunkX, int chunkZ) {
+        ChunkState state;
+        synchronized (lock) {
+            state = states.get(chunkX, chunkZ);
+        }
+        return state != null ? state.getBorderMap() : null;
+    }
+
     @Override
     public void applyIntersecting(ProtectedRegion region, Predicate<ProtectedRegion> consumer) {
         index.applyIntersecting(region, consumer);
@@ -338,6 +355,8 @@ private class ChunkState {
         private final BlockVector2 position;
         private boolean loaded = false;
         private List<ProtectedRegion> regions = Collections.emptyList();
+        @Nullable
+        private volatile RegionBorderMap borderMap;
 
         private ChunkState(BlockVector2 position) {
             this.position = position;
@@ -351,11 +370,33 @@ public List<ProtectedRegion> getRegions() {
             return regions;
         }
 
-        public void setRegions(List<ProtectedRegion> regions) {
+        public synchronized void setRegions(List<ProtectedRegion> regions) {
             this.regions = regions;
+            this.borderMap = null;
             this.loaded = true;
         }
 
+        /**
+         * Get the border map of the chunk, building it on first use, as
+         * most chunks are never asked for one.
+         *
+         * @return a border map, or {@code null} if the chunk is not loaded
+         */
+        @Nullable
+        public RegionBorderMap getBorderMap() {
+            RegionBorderMap map = borderMap;
+            if (map == null) {
+                synchronized (this) {
+                    map = borderMap;
+                    if (map == null && loaded) {
+                        map = new RegionBorderMap(position, regions);
+                        borderMap = map;
+                    }
+                }
+            }
+            return map;
+        }
+
         public boolean isLoaded() {
             return loaded;
         }
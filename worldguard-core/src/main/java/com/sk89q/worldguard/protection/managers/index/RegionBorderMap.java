@@ -0,0 +1,362 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.protection.managers.index;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableList;
+import com.sk89q.worldedit.math.BlockVector2;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.flags.Flag;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.util.collect.LongHashTable;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Describes, for a single chunk, which of the regions intersecting the chunk
+ * contain each block.
+ *
+ * <p>Every region intersecting the chunk is assigned a bit, and each block
+ * column of the chunk stores the bits of the regions whose X-Z footprint
+ * covers the column. Together with the vertical bounds of each region, this
+ * gives a mask of the regions containing any block of the chunk without
+ * querying the index. Two blocks with equal masks share the same set of
+ * applicable regions, so only movement that crosses a region border
+ * (where the mask changes) needs a full evaluation.</p>
+ *
+ * <p>Masks are only available if no more than {@link #MAX_REGIONS} regions
+ * intersect the chunk (see {@link #isCompact()}).</p>
+ *
+ * <p>Masks of the regions that set a flag, such as {@code entry} or
+ * {@code exit}, are built lazily with {@link #getFlagMask(Flag, long)}, so
+ * that most positions can be ruled out for a flag with a single bit test
+ * (see {@link #intersects(int, int, int, long)}).</p>
+ *
+ * <p>Instances are immutable, apart from memos of region lists per mask and
+ * of flag masks, and are rebuilt by {@link ChunkHashTable} whenever region
+ * geometry changes.</p>
+ */
+public final class RegionBorderMap {
+
+    /**
+     * The maximum number of regions that can be represented in a mask.
+     */
+    public static final int MAX_REGIONS = Long.SIZE;
+
+    private static final int CHUNK_SIZE = 16;
+
+    private final BlockVector2 position;
+    private final int minX;
+    private final int minZ;
+    private final List<ProtectedRegion> regions;
+    private final boolean compact;
+    private final int[] minY;
+    private final int[] maxY;
+    private final long[] columns;
+    private final LongHashTable<List<ProtectedRegion>> memo = new LongHashTable<>();
+    @Nullable
+    private volatile FlagMasks flagMasks;
+
+    /**
+     * Create a new instance.
+     *
+     * @param position the chunk position
+     * @param intersecting the regions intersecting the chunk, in a stable order
+     */
+    public RegionBorderMap(BlockVector2 position, List<ProtectedRegion> intersecting) {
+        checkNotNull(position);
+        checkNotNull(intersecting);
+
+        this.position = position;
+        this.minX = position.getBlockX() * CHUNK_SIZE;
+        this.minZ = position.getBlockZ() * CHUNK_SIZE;
+
+        List<ProtectedRegion> physical = new ArrayList<>();
+        for (ProtectedRegion region : intersecting) {
+            if (region.isPhysicalArea()) {
+                physical.add(region);
+            }
+        }
+
+        this.regions = ImmutableList.copyOf(physical);
+        this.compact = regions.size() <= MAX_REGIONS;
+
+        if (compact) {
+            int count = regions.size();
+            minY = new int[count];
+            maxY = new int[count];
+            columns = new long[CHUNK_SIZE * CHUNK_SIZE];
+
+            for (int i = 0; i < count; i++) {
+                ProtectedRegion region = regions.get(i);
+                int y = region.getMinimumPoint().getBlockY();
+                minY[i] = y;
+                maxY[i] = region.getMaximumPoint().getBlockY();
+
+                long bit = 1L << i;
+                for (int dx = 0; dx < CHUNK_SIZE; dx++) {
+                    for (int dz = 0; dz < CHUNK_SIZE; dz++) {
+                        if (region.contains(minX + dx, y, minZ + dz)) {
+                            columns[dx * CHUNK_SIZE + dz] |= bit;
+                        }
+                    }
+                }
+            }
+        } else {
+            minY = null;
+            maxY = null;
+            columns = null;
+        }
+    }
+
+    /**
+     * Get the position of the chunk.
+     *
+     * @return the chunk position
+     */
+    public BlockVector2 getPosition() {
+        return position;
+    }
+
+    /**
+     * Get the physical regions that intersect with the chunk.
+     *
+     * @return a list of regions
+     */
+    public List<ProtectedRegion> getRegions() {
+        return regions;
+    }
+
+    /**
+     * Return whether no physical region intersects the chunk.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return regions.isEmpty();
+    }
+
+    /**
+     * Return whether masks are available for this chunk.
+     *
+     * @return true if masks can be computed
+     */
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Test whether the given block lies in this chunk.
+     *
+     * @param x the X coordinate
+     * @param z the Z coordinate
+     * @return true if the block is within the chunk
+     */
+    public boolean contains(int x, int z) {
+        return (x >> 4) == position.getBlockX() && (z >> 4) == position.getBlockZ();
+    }
+
+    /**
+     * Get the mask of the regions that contain the given block.
+     *
+     * <p>The block must lie within this chunk and the map must be
+     * {@link #isCompact() compact}.</p>
+     *
+     * @param x the X coordinate
+     * @param y the Y coordinate
+     * @param z the Z coordinate
+     * @return a mask where bit {@code i} is set if region {@code i} of {@link #getRegions()} contains the block
+     */
+    public long getRegionMask(int x, int y, int z) {
+        checkState(compact, "Maska není pro tento chunk dostupná");
+        checkArgument(contains(x, z), "Pozice neleží v tomto chunku");
+
+        long mask = columns[(x - minX) * CHUNK_SIZE + (z - minZ)];
+        long result = 0;
+
+        while (mask != 0) {
+            int i = Long.numberOfTrailingZeros(mask);
+            if (y >= minY[i] && y <= maxY[i]) {
+                result |= 1L << i;
+            }
+            mask &= mask - 1;
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the mask of the regions that contain the given block.
+     *
+     * @param position the position
+     * @return a mask
+     * @see #getRegionMask(int, int, int)
+     */
+    public long getRegionMask(BlockVector3 position) {
+        return getRegionMask(position.getBlockX(), position.getBlockY(), position.getBlockZ());
+    }
+
+    /**
+     * Test whether moving from one block to another may change the set of
+     * applicable regions.
+     *
+     * <p>This method is conservative: {@code true} is returned if either
+     * block lies outside this chunk or if masks are unavailable.</p>
+     *
+     * @param from the first position
+     * @param to the second position
+     * @return true if a full evaluation is required
+     */
+    public boolean crossesBorder(BlockVector3 from, BlockVector3 to) {
+        if (!compact || !contains(from.getBlockX(), from.getBlockZ()) || !contains(to.getBlockX(), to.getBlockZ())) {
+            return true;
+        }
+
+        return getRegionMask(from) != getRegionMask(to);
+    }
+
+    /**
+     * Test whether the given block is contained by any of the regions of
+     * a mask.
+     *
+     * <p>The block must lie within this chunk and the map must be
+     * {@link #isCompact() compact}. Only the regions of the mask that cover
+     * the block's column are tested against the block's height, so this is
+     * usually a single bit test.</p>
+     *
+     * @param x the X coordinate
+     * @param y the Y coordinate
+     * @param z the Z coordinate
+     * @param mask the mask of regions
+     * @return true if a region of the mask contains the block
+     */
+    public boolean intersects(int x, int y, int z, long mask) {
+        checkState(compact, "Maska není pro tento chunk dostupná");
+        checkArgument(contains(x, z), "Pozice neleží v tomto chunku");
+
+        long candidates = columns[(x - minX) * CHUNK_SIZE + (z - minZ)] & mask;
+
+        while (candidates != 0) {
+            int i = Long.numberOfTrailingZeros(candidates);
+            if (y >= minY[i] && y <= maxY[i]) {
+                return true;
+            }
+            candidates &= candidates - 1;
+        }
+
+        return false;
+    }
+
+    /**
+     * Get the mask of the regions that set the given flag, either on
+     * themselves or on one of their parents.
+     *
+     * <p>Masks are memoized until a different {@code version} is passed.
+     * The version must be read before calling this method and must change
+     * whenever the flags or parents of regions change, so that a mask
+     * computed concurrently with a change is not kept.</p>
+     *
+     * @param flag the flag
+     * @param version the version of the flag data
+     * @return a mask
+     */
+    public long getFlagMask(Flag<?> flag, long version) {
+        checkState(compact, "Maska není pro tento chunk dostupná");
+        checkNotNull(flag);
+
+        FlagMasks masks = flagMasks;
+        if (masks == null || masks.version != version) {
+            masks = new FlagMasks(version);
+            flagMasks = masks;
+        }
+
+        Long mask = masks.values.get(flag);
+        if (mask == null) {
+            long result = 0;
+            for (int i = 0; i < regions.size(); i++) {
+                for (ProtectedRegion region = regions.get(i); region != null; region = region.getParent()) {
+                    if (region.getFlag(flag) != null) {
+                        result |= 1L << i;
+                        break;
+                    }
+                }
+            }
+            mask = result;
+            masks.values.put(flag, mask);
+        }
+
+        return mask;
+    }
+
+    /**
+     * Get the regions for a mask, sorted the same way as {@link #getRegions()}.
+     *
+     * <p>The result is memoized, so repeated calls with masks that are
+     * commonly seen in the chunk do not allocate. This method may be called
+     * from any thread.</p>
+     *
+     * @param mask the mask
+     * @return an immutable list of regions
+     */
+    public List<ProtectedRegion> getRegions(long mask) {
+        checkState(compact, "Maska není pro tento chunk dostupná");
+
+        if (mask == 0) {
+            return ImmutableList.of();
+        }
+
+        List<ProtectedRegion> result;
+        synchronized (memo) {
+            result = memo.get(mask);
+        }
+
+        if (result == null) {
+            ImmutableList.Builder<ProtectedRegion> builder = ImmutableList.builder();
+            long remaining = mask;
+            while (remaining != 0) {
+                builder.add(regions.get(Long.numberOfTrailingZeros(remaining)));
+                remaining &= remaining - 1;
+            }
+            result = builder.build();
+            synchronized (memo) {
+                memo.put(mask, result);
+            }
+        }
+
+        return result;
+    }
+
+    private static final class FlagMasks {
+        private final long version;
+        private final Map<Flag<?>, Long> values = new ConcurrentHashMap<>(4);
+
+        private FlagMasks(long version) {
+            this.version = version;
+        }
+    }
+
+}
@@ -35,6 +35,7 @@
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
@@ -67,6 +68,8 @@ public abstract class ProtectedRegion implements ChangeTracked, Comparable<Prote
     private DefaultDomain members = new DefaultDomain();
     private ConcurrentMap<Flag<?>, Object> flags = new ConcurrentHashMap<>();
     private boolean dirty = true;
+    @Nullable
+    private volatile RegionChangeListener changeListener;
 
     /**
      * Construct a new instance of this region.
@@ -114,8 +117,15 @@ protected void setMinMaxPoints(List<BlockVector3> points) {
         }
 
         setDirty(true);
+        BlockVector3 oldMin = min;
+        BlockVector3 oldMax = max;
         min = BlockVector3.at(minX, minY, minZ);
         max = BlockVector3.at(maxX, maxY, maxZ);
+
+        RegionChangeListener listener = changeListener;
+        if (listener != null && oldMin != null) {
+            listener.onGeometryChanged(this, oldMin, oldMax);
+        }
     }
 
     /**
@@ -172,7 +182,13 @@ public int getPriority() {
      */
     public void setPriority(int priority) {
         setDirty(true);
+        int oldPriority = this.priority;
         this.priority = priority;
+
+        RegionChangeListener listener = changeListener;
+        if (listener != null && oldPriority != priority) {
+            listener.onPriorityChanged(this, oldPriority, priority);
+        }
     }
 
     /**
@@ -196,7 +212,7 @@ public void setParent(@Nullable ProtectedRegion parent) throws CircularInheritan
         setDirty(true);
 
         if (parent == null) {
-            this.parent = null;
+            clearParent();
             return;
         }
 
@@ -212,7 +228,9 @@ public void setParent(@Nullable ProtectedRegion parent) throws CircularInheritan
             p = p.getParent();
         }
 
+        ProtectedRegion oldParent = this.parent;
         this.parent = parent;
+        fireParentChanged(oldParent, parent);
     }
 
     /**
@@ -220,7 +238,16 @@ public void setParent(@Nullable ProtectedRegion parent) throws CircularInheritan
      */
     public void clearParent() {
         setDirty(true);
+        ProtectedRegion oldParent = this.parent;
         this.parent = null;
+        fireParentChanged(oldParent, null);
+    }
+
+    private void fireParentChanged(@Nullable ProtectedRegion oldParent, @Nullable ProtectedRegion newParent) {
+        RegionChangeListener listener = changeListener;
+        if (listener != null && oldParent != newParent) {
+            listener.onParentChanged(this, oldParent, newParent);
+        }
     }
 
     /**
@@ -240,7 +267,14 @@ public DefaultDomain getOwners() {
     public void setOwners(DefaultDomain owners) {
         checkNotNull(owners);
         setDirty(true);
-        this.owners = new DefaultDomain(owners);
+        RegionChangeListener listener = changeListener;
+        DefaultDomain copy = new DefaultDomain(owners);
+        if (listener != null) {
+            copy.setChangeListener(this::fireOwnersChanged);
+        }
+        this.owners.setChangeListener(null);
+        this.owners = copy;
+        fireOwnersChanged();
     }
 
     /**
@@ -261,7 +295,28 @@ public DefaultDomain getMembers() {
     public void setMembers(DefaultDomain members) {
         checkNotNull(members);
         setDirty(true);
-        this.members = new DefaultDomain(members);
+        RegionChangeListener listener = changeListener;
+        DefaultDomain copy = new DefaultDomain(members);
+        if (listener != null) {
+            copy.setChangeListener(this::fireMembersChanged);
+        }
+        this.members.setChangeListener(null);
+        this.members = copy;
+        fireMembersChanged();
+    }
+
+    private void fireOwnersChanged() {
+        RegionChangeListener listener = changeListener;
+        if (listener != null) {
+            listener.onOwnersChanged(this);
+        }
+    }
+
+    private void fireMembersChanged() {
+        RegionChangeListener listener = changeListener;
+        if (listener != null) {
+            listener.onMembersChanged(this);
+        }
     }
 
     /**
@@ -436,10 +491,16 @@ public <T extends Flag<V>, V> void setFlag(T flag, @Nullable V val) {
         checkNotNull(flag);
         setDirty(true);
 
+        Object oldValue;
         if (val == null) {
-            flags.remove(flag);
+            oldValue = flags.remove(flag);
         } else {
-            flags.put(flag, val);
+            oldValue = flags.put(flag, val);
+        }
+
+        RegionChangeListener listener = changeListener;
+        if (listener != null && !Objects.equals(oldValue, val)) {
+            listener.onFlagChanged(this, flag, oldValue, val);
         }
     }
 
@@ -463,7 +524,23 @@ public void setFlags(Map<Flag<?>, Object> flags) {
         checkNotNull(flags);
 
         setDirty(true);
+        Map<Flag<?>, Object> oldFlags = this.flags;
         this.flags = new ConcurrentHashMap<>(flags);
+
+        RegionChangeListener listener = changeListener;
+        if (listener != null) {
+            for (Map.Entry<Flag<?>, Object> entry : oldFlags.entrySet()) {
+                if (!this.flags.containsKey(entry.getKey())) {
+                    listener.onFlagChanged(this, entry.getKey(), entry.getValue(), null);
+                }
+            }
+            for (Map.Entry<Flag<?>, Object> entry : this.flags.entrySet()) {
+                Object oldValue = oldFlags.get(entry.getKey());
+                if (!entry.getValue().equals(oldValue)) {
+                    listener.onFlagChanged(this, entry.getKey(), oldValue, entry.getValue());
+                }
+            }
+        }
     }
 
     /**
@@ -663,6 +740,32 @@ protected boolean intersectsEdges(ProtectedRegion region) {
      */
     abstract Area toArea();
 
+    /**
+     * Get the listener that is notified of changes to this region.
+     *
+     * @return the listener, or {@code null}
+     */
+    @Nullable
+    public RegionChangeListener getChangeListener() {
+        return changeListener;
+    }
+
+    /**
+     * Set the listener that is notified of changes to this region.
+     *
+     * <p>The listener is set by the {@link com.sk89q.worldguard.protection.managers.RegionManager}
+     * that the region is added to. Use
+     * {@link com.sk89q.worldguard.protection.managers.RegionManager#addChangeListener(RegionChangeListener)}
+     * to be notified of changes rather than replacing it.</p>
+     *
+     * @param changeListener the listener, or {@code null}
+     */
+    public void setChangeListener(@Nullable RegionChangeListener changeListener) {
+        this.changeListener = changeListener;
+        owners.setChangeListener(changeListener != null ? this::fireOwnersChanged : null);
+        members.setChangeListener(changeListener != null ? this::fireMembersChanged : null);
+    }
+
     /**
      * @return <code>true</code> if this region should only be kept in memory and not be saved
      */
@@ -21,10 +21,12 @@
 
 import com.sk89q.worldedit.util.Location;
 import com.sk89q.worldedit.world.World;
+import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.protection.ApplicableRegionSet;
 import com.sk89q.worldguard.protection.RegionResultSet;
 import com.sk89q.worldguard.protection.managers.RegionManager;
 import com.sk89q.worldguard.protection.regions.RegionQuery.QueryOption;
+import com.sk89q.worldguard.util.metrics.MetricsRegistry;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -40,6 +42,9 @@
  */
 public class QueryCache {
 
+    private static final String HITS_METRIC = "worldguard_query_cache_hits_total";
+    private static final String MISSES_METRIC = "worldguard_query_cache_misses_total";
+
     private final ConcurrentMap<CacheKey, Map<QueryOption, ApplicableRegionSet>> cache = new ConcurrentHashMap<>(16, 0.75f, 2);
 
     /**
@@ -56,8 +61,14 @@ public ApplicableRegionSet queryContains(RegionManager manager, Location locatio
         checkNotNull(location);
         checkNotNull(option);
 
+        MetricsRegistry metrics = WorldGuard.getInstance().getMetrics();
         CacheKey key = new CacheKey(location);
-        return cache.compute(key, (k, v) -> option.createCache(manager, location, v)).get(option);
+        return cache.compute(key, (k, v) -> {
+            if (metrics.isEnabled()) {
+                metrics.counter(v != null && v.containsKey(option) ? HITS_METRIC : MISSES_METRIC).increment();
+            }
+            return option.createCache(manager, location, v);
+        }).get(option);
     }
 
     /**
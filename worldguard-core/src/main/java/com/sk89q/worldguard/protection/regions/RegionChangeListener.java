@@ -0,0 +1,116 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.protection.regions;
+
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.flags.Flag;
+
+import javax.annotation.Nullable;
+
+/**
+ * Receives changes made to the regions of a
+ * {@link com.sk89q.worldguard.protection.managers.RegionManager}.
+ *
+ * <p>Listeners are called synchronously on the thread making the change,
+ * after the change has been applied, so they should return quickly. No
+ * event objects are created; the region and old and new values are passed
+ * directly.</p>
+ *
+ * <p>Changes to the owners or members of a region are reported both when
+ * the domain is replaced and when it is modified in place.</p>
+ */
+public interface RegionChangeListener {
+
+    /**
+     * Called when a region has been added to the manager, including
+     * parents that were added along with a region.
+     *
+     * @param region the region
+     */
+    default void onRegionAdded(ProtectedRegion region) {
+    }
+
+    /**
+     * Called when a region has been removed from the manager, including
+     * when it was replaced by another region with the same ID.
+     *
+     * @param region the region
+     */
+    default void onRegionRemoved(ProtectedRegion region) {
+    }
+
+    /**
+     * Called when the points of a region have changed.
+     *
+     * @param region the region
+     * @param oldMinimumPoint the previous minimum point
+     * @param oldMaximumPoint the previous maximum point
+     */
+    default void onGeometryChanged(ProtectedRegion region, BlockVector3 oldMinimumPoint, BlockVector3 oldMaximumPoint) {
+    }
+
+    /**
+     * Called when the priority of a region has changed.
+     *
+     * @param region the region
+     * @param oldPriority the previous priority
+     * @param newPriority the new priority
+     */
+    default void onPriorityChanged(ProtectedRegion region, int oldPriority, int newPriority) {
+    }
+
+    /**
+     * Called when the parent of a region has changed.
+     *
+     * @param region the region
+     * @param oldParent the previous parent
+     * @param newParent the new parent
+     */
+    default void onParentChanged(ProtectedRegion region, @Nullable ProtectedRegion oldParent, @Nullable ProtectedRegion newParent) {
+    }
+
+    /**
+     * Called when a flag of a region has been set, changed or removed.
+     *
+     * @param region the region
+     * @param flag the flag
+     * @param oldValue the previous value, or {@code null} if the flag was not set
+     * @param newValue the new value, or {@code null} if the flag has been removed
+     */
+    default void onFlagChanged(ProtectedRegion region, Flag<?> flag, @Nullable Object oldValue, @Nullable Object newValue) {
+    }
+
+    /**
+     * Called when the owners of a region have changed.
+     *
+     * @param region the region
+     */
+    default void onOwnersChanged(ProtectedRegion region) {
+    }
+
+    /**
+     * Called when the members of a region have changed.
+     *
+     * @param region the region
+     */
+    default void onMembersChanged(ProtectedRegion region) {
+    }
+
+}
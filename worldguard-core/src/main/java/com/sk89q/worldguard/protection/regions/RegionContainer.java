@@ -143,6 +143,33 @@ public RegionQuery createQuery() {
         return new RegionQuery(cache);
     }
 
+    /**
+     * Create a new region query that answers from immutable snapshots of
+     * region data and is safe to use from any thread.
+     *
+     * <p>Prefer {@link #createQuery()} on the main thread, as snapshot
+     * queries are not cached and may lag slightly behind changes.</p>
+     *
+     * @return a new query
+     */
+    public RegionQuery createSnapshotQuery() {
+        return new SnapshotRegionQuery(this, cache);
+    }
+
+    /**
+     * Replace the snapshots of loaded region managers whose region data
+     * has changed, skipping managers that no snapshot query has used.
+     *
+     * <p>This should be called periodically from the main thread.</p>
+     *
+     * @see RegionManager#updateSnapshot()
+     */
+    public void updateSnapshots() {
+        for (RegionManager manager : container.getLoaded()) {
+            manager.updateSnapshot();
+        }
+    }
+
     /**
      * Execute a migration and block any loading of region data during
      * the migration.
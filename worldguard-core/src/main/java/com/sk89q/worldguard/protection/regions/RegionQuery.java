@@ -43,6 +43,7 @@
 import com.sk89q.worldguard.protection.managers.index.RegionIndex;
 import com.sk89q.worldguard.protection.util.NormativeOrders;
 import com.sk89q.worldguard.protection.util.RegionCollectionConsumer;
+import com.sk89q.worldguard.util.metrics.MetricsRegistry;
 
 import java.util.Collection;
 import java.util.EnumMap;
@@ -65,6 +66,8 @@
  */
 public class RegionQuery {
 
+    private static final String QUERY_METRIC = "worldguard_region_query_seconds";
+
     private final ConfigurationManager config;
     private final QueryCache cache;
 
@@ -115,6 +118,24 @@ public ApplicableRegionSet getApplicableRegions(Location location, QueryOption o
         checkNotNull(location);
         checkNotNull(option);
 
+        MetricsRegistry metrics = WorldGuard.getInstance().getMetrics();
+        ApplicableRegionSet set;
+        if (!metrics.isEnabled()) {
+            set = queryApplicableRegions(location, option);
+        } else {
+            long start = System.nanoTime();
+            try {
+                set = queryApplicableRegions(location, option);
+            } finally {
+                metrics.histogram(QUERY_METRIC).recordSince(start);
+            }
+        }
+
+        WorldGuard.getInstance().getQueryTracer().recordQuery(location, set);
+        return set;
+    }
+
+    private ApplicableRegionSet queryApplicableRegions(Location location, QueryOption option) {
         World world = (World) location.getExtent();
         WorldConfiguration worldConfig = config.get(world);
 
@@ -537,7 +558,7 @@ Map<QueryOption, ApplicableRegionSet> createCache(RegionManager manager, Locatio
                     return newCache;
                 } else {
                     // If c != null, we can assume that Option.NONE is present.
-                    cache.computeIfAbsent(QueryOption.SORT, k -> new RegionResultSet(cache.get(QueryOption.NONE).getRegions(), manager.getRegion("__global__")));
+                    cache.computeIfAbsent(QueryOption.SORT, k -> manager.getSharedRegionSet(cache.get(QueryOption.NONE).getRegions()));
                     return cache;
                 }
             }
@@ -556,7 +577,7 @@ Map<QueryOption, ApplicableRegionSet> createCache(RegionManager manager, Locatio
                     Set<ProtectedRegion> noParRegions = noParResult.getRegions();
                     Set<ProtectedRegion> regions = new HashSet<>();
                     noParRegions.forEach(new RegionCollectionConsumer(regions, true)::apply);
-                    ApplicableRegionSet result = new RegionResultSet(regions, manager.getRegion("__global__"));
+                    ApplicableRegionSet result = manager.getSharedRegionSet(regions);
 
                     if (regions.size() == noParRegions.size()) {
                         newCache.put(QueryOption.NONE, result);
@@ -587,7 +608,7 @@ Map<QueryOption, ApplicableRegionSet> createCache(RegionManager manager, Locatio
                         return result;
                     }
 
-                    result = new RegionResultSet(regions, manager.getRegion("__global__"));
+                    result = manager.getSharedRegionSet(regions);
 
                     if (regions.size() == noParRegions.size()) {
                         cache.put(QueryOption.SORT, result);
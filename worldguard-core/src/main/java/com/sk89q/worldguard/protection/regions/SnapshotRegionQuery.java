@@ -0,0 +1,85 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.protection.regions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.worldedit.util.Location;
+import com.sk89q.worldedit.world.World;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.config.ConfigurationManager;
+import com.sk89q.worldguard.protection.ApplicableRegionSet;
+import com.sk89q.worldguard.protection.FailedLoadRegionSet;
+import com.sk89q.worldguard.protection.PermissiveRegionSet;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.managers.RegionSnapshot;
+
+/**
+ * A {@link RegionQuery} that answers from immutable
+ * {@link RegionSnapshot}s instead of the live region data.
+ *
+ * <p>Unlike a regular query, this query is safe to use from any thread,
+ * such as from asynchronous events or from other plugins' worker threads.
+ * Every call is answered from the latest snapshot of the world, without
+ * locking and without touching regions that may be modified concurrently.
+ * Snapshots are refreshed from the main thread shortly after region data
+ * changes, so answers may lag slightly behind.</p>
+ *
+ * <p>Regions returned by this query are copies and must not be modified.</p>
+ */
+public class SnapshotRegionQuery extends RegionQuery {
+
+    private final ConfigurationManager config;
+    private final RegionContainer container;
+
+    /**
+     * Create a new instance.
+     *
+     * @param container the region container
+     * @param cache the query cache of the container (unused by this query)
+     */
+    SnapshotRegionQuery(RegionContainer container, QueryCache cache) {
+        super(cache);
+        checkNotNull(container);
+
+        this.config = WorldGuard.getInstance().getPlatform().getGlobalStateManager();
+        this.container = container;
+    }
+
+    @Override
+    public ApplicableRegionSet getApplicableRegions(Location location, QueryOption option) {
+        checkNotNull(location);
+        checkNotNull(option);
+
+        World world = (World) location.getExtent();
+
+        if (!config.get(world).useRegions) {
+            return PermissiveRegionSet.getInstance();
+        }
+
+        RegionManager manager = container.get(world);
+        if (manager != null) {
+            return manager.getSnapshot().getApplicableRegions(location.toVector().toBlockPoint(), option);
+        } else {
+            return FailedLoadRegionSet.getInstance();
+        }
+    }
+
+}
@@ -19,9 +19,6 @@
 
 package com.sk89q.worldguard.session;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.sk89q.worldedit.world.World;
 import com.sk89q.worldguard.LocalPlayer;
 import com.sk89q.worldguard.WorldGuard;
@@ -42,15 +39,16 @@
 import com.sk89q.worldguard.session.handler.WeatherLockFlag;
 
 import javax.annotation.Nullable;
-import java.lang.ref.WeakReference;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.BiPredicate;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -64,15 +62,7 @@ public abstract class AbstractSessionManager implements SessionManager {
         return player.hasPermission("worldguard.region.bypass." + world.getName());
     };
 
-    private final LoadingCache<WorldPlayerTuple, Boolean> bypassCache = CacheBuilder.newBuilder()
-            .maximumSize(1000)
-            .expireAfterWrite(2, TimeUnit.SECONDS)
-            .build(CacheLoader.from(tuple -> BYPASS_PERMISSION_TEST.test(tuple.getWorld(), tuple.getPlayer())));
-
-    private final LoadingCache<CacheKey, Session> sessions = CacheBuilder.newBuilder()
-            .expireAfterAccess(SESSION_LIFETIME, TimeUnit.MINUTES)
-            .build(CacheLoader.from(key ->
-                    createSession(key.playerRef.get())));
+    private final ConcurrentMap<UUID, Session> sessions = new ConcurrentHashMap<>();
 
     private boolean hasCustom = false;
     // <original handler, wrapped handler>
@@ -158,13 +148,20 @@ public boolean hasBypass(LocalPlayer player, World world) {
             return BYPASS_PERMISSION_TEST.test(world, player);
         }
 
-        return bypassCache.getUnchecked(new WorldPlayerTuple(world, player));
+        Boolean cached = sess.getCachedBypass(world);
+        if (cached != null) {
+            return cached;
+        }
+
+        boolean bypass = BYPASS_PERMISSION_TEST.test(world, player);
+        sess.setCachedBypass(world, bypass);
+        return bypass;
     }
 
     @Override
     public void resetState(LocalPlayer player) {
         checkNotNull(player, "player");
-        @Nullable Session session = sessions.getIfPresent(new CacheKey(player));
+        @Nullable Session session = sessions.get(player.getUniqueId());
         if (session != null) {
             session.resetState(player);
         }
@@ -173,45 +170,64 @@ public void resetState(LocalPlayer player) {
     @Override
     @Nullable
     public Session getIfPresent(LocalPlayer player) {
-        return sessions.getIfPresent(new CacheKey(player));
+        return sessions.get(player.getUniqueId());
     }
 
     @Override
     public Session get(LocalPlayer player) {
-        return sessions.getUnchecked(new CacheKey(player));
+        UUID uniqueId = player.getUniqueId();
+        Session session = sessions.get(uniqueId);
+        if (session == null) {
+            session = createSession(player);
+            Session existing = sessions.putIfAbsent(uniqueId, session);
+            if (existing != null) {
+                session = existing;
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Remove the session of a player, for example when the player
+     * leaves the server.
+     *
+     * @param uniqueId The unique ID of the player
+     * @return The removed session, if there was one
+     */
+    @Nullable
+    public Session remove(UUID uniqueId) {
+        checkNotNull(uniqueId, "uniqueId");
+        return sessions.remove(uniqueId);
+    }
+
+    /**
+     * Remove the sessions of all players matching the given predicate.
+     *
+     * <p>Platforms should use this to drop sessions that were created for
+     * players that never joined (such as fake players), as such sessions
+     * are not removed when a player leaves.</p>
+     *
+     * @param predicate A predicate that tests the unique ID of a player
+     */
+    protected void removeIf(Predicate<UUID> predicate) {
+        checkNotNull(predicate, "predicate");
+        sessions.keySet().removeIf(predicate);
+    }
+
+    /**
+     * Remove all sessions.
+     */
+    protected void clear() {
+        sessions.clear();
     }
 
     @Override
     public Session createSession(LocalPlayer player) {
         Session session = new Session(this);
         for (Handler.Factory<? extends Handler> factory : handlers) {
-            session.register(factory.create(session));
+            session.register(factory.create(session), factory.getFlags());
         }
         session.initialize(player);
         return session;
     }
-
-    protected static final class CacheKey {
-        final WeakReference<LocalPlayer> playerRef;
-        final UUID uuid;
-
-        CacheKey(LocalPlayer player) {
-            playerRef = new WeakReference<>(player);
-            uuid = player.getUniqueId();
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            CacheKey cacheKey = (CacheKey) o;
-            return uuid.equals(cacheKey.uuid);
-
-        }
-
-        @Override
-        public int hashCode() {
-            return uuid.hashCode();
-        }
-    }
 }
@@ -0,0 +1,204 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.session;
+
+import com.sk89q.worldedit.math.BlockVector2;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.regions.ProtectedPolygonalRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+
+import java.util.Collection;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * A box of blocks around a point in which every block is contained by
+ * exactly the same regions as the point.
+ *
+ * <p>The box is bounded by the edges of the regions near the point, so a
+ * player moving inside it cannot have entered or left a region.</p>
+ */
+final class SafeBox {
+
+    private int minX;
+    private int minY;
+    private int minZ;
+    private int maxX;
+    private int maxY;
+    private int maxZ;
+
+    private SafeBox(BlockVector3 point, int radius) {
+        minX = point.getBlockX() - radius;
+        minY = point.getBlockY() - radius;
+        minZ = point.getBlockZ() - radius;
+        maxX = point.getBlockX() + radius;
+        maxY = point.getBlockY() + radius;
+        maxZ = point.getBlockZ() + radius;
+    }
+
+    /**
+     * Test whether the box contains the given block.
+     *
+     * @param x the X coordinate
+     * @param y the Y coordinate
+     * @param z the Z coordinate
+     * @return true if the block is in the box
+     */
+    boolean contains(int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    /**
+     * Build the largest box that this class can find around the given
+     * point, no further than the given radius, in which every block is
+     * contained by the same of the given regions as the point.
+     *
+     * <p>The given regions must include every region that intersects the
+     * cube of the given radius around the point.</p>
+     *
+     * @param point the point
+     * @param regions the regions near the point
+     * @param radius the maximum distance of the sides of the box from the point
+     * @return the box, or {@code null} if the point is too close to the edge of a region
+     */
+    @Nullable
+    static SafeBox around(BlockVector3 point, Collection<ProtectedRegion> regions, int radius) {
+        SafeBox box = new SafeBox(point, radius);
+        int x = point.getBlockX();
+        int y = point.getBlockY();
+        int z = point.getBlockZ();
+
+        for (ProtectedRegion region : regions) {
+            BlockVector3 min = region.getMinimumPoint();
+            BlockVector3 max = region.getMaximumPoint();
+
+            switch (region.getType()) {
+                case GLOBAL:
+                    break;
+                case CUBOID:
+                    if (region.contains(x, y, z)) {
+                        box.clip(min, max);
+                    } else {
+                        box.exclude(x, y, z, min.getBlockX(), min.getBlockY(), min.getBlockZ(),
+                                max.getBlockX(), max.getBlockY(), max.getBlockZ());
+                    }
+                    break;
+                case POLYGON:
+                    if (!(region instanceof ProtectedPolygonalRegion)) {
+                        return null;
+                    }
+                    if (x < min.getBlockX() || x > max.getBlockX() || y < min.getBlockY() || y > max.getBlockY()
+                            || z < min.getBlockZ() || z > max.getBlockZ()) {
+                        box.exclude(x, y, z, min.getBlockX(), min.getBlockY(), min.getBlockZ(),
+                                max.getBlockX(), max.getBlockY(), max.getBlockZ());
+                        break;
+                    }
+                    // Within the height of the polygon, the blocks may only
+                    // change from inside to outside across one of its edges
+                    box.minY = Math.max(box.minY, min.getBlockY());
+                    box.maxY = Math.min(box.maxY, max.getBlockY());
+                    List<BlockVector2> points = ((ProtectedPolygonalRegion) region).getPoints();
+                    for (int i = 0; i < points.size(); i++) {
+                        BlockVector2 a = points.get(i);
+                        BlockVector2 b = points.get((i + 1) % points.size());
+                        int edgeMinX = Math.min(a.getBlockX(), b.getBlockX());
+                        int edgeMinZ = Math.min(a.getBlockZ(), b.getBlockZ());
+                        int edgeMaxX = Math.max(a.getBlockX(), b.getBlockX());
+                        int edgeMaxZ = Math.max(a.getBlockZ(), b.getBlockZ());
+                        if (x >= edgeMinX && x <= edgeMaxX && z >= edgeMinZ && z <= edgeMaxZ) {
+                            return null;
+                        }
+                        box.exclude(x, y, z, edgeMinX, box.minY, edgeMinZ, edgeMaxX, box.maxY, edgeMaxZ);
+                    }
+                    break;
+                default:
+                    return null;
+            }
+        }
+
+        return box;
+    }
+
+    /**
+     * Shrink the box to the given bounds, which contain the point.
+     */
+    private void clip(BlockVector3 min, BlockVector3 max) {
+        minX = Math.max(minX, min.getBlockX());
+        minY = Math.max(minY, min.getBlockY());
+        minZ = Math.max(minZ, min.getBlockZ());
+        maxX = Math.min(maxX, max.getBlockX());
+        maxY = Math.min(maxY, max.getBlockY());
+        maxZ = Math.min(maxZ, max.getBlockZ());
+    }
+
+    /**
+     * Shrink the box so that it no longer intersects the given bounds,
+     * which do not contain the point, keeping as much of the box as
+     * possible.
+     */
+    private void exclude(int x, int y, int z, int oMinX, int oMinY, int oMinZ, int oMaxX, int oMaxY, int oMaxZ) {
+        if (oMaxX < minX || oMinX > maxX || oMaxY < minY || oMinY > maxY || oMaxZ < minZ || oMinZ > maxZ) {
+            return;
+        }
+
+        int axis = -1;
+        int bound = 0;
+        long best = -1;
+
+        if (x < oMinX) {
+            long volume = volume(oMinX - 1 - minX, maxY - minY, maxZ - minZ);
+            if (volume > best) { axis = 0; bound = oMinX - 1; best = volume; }
+        } else if (x > oMaxX) {
+            long volume = volume(maxX - oMaxX - 1, maxY - minY, maxZ - minZ);
+            if (volume > best) { axis = 0; bound = oMaxX + 1; best = volume; }
+        }
+        if (y < oMinY) {
+            long volume = volume(maxX - minX, oMinY - 1 - minY, maxZ - minZ);
+            if (volume > best) { axis = 1; bound = oMinY - 1; best = volume; }
+        } else if (y > oMaxY) {
+            long volume = volume(maxX - minX, maxY - oMaxY - 1, maxZ - minZ);
+            if (volume > best) { axis = 1; bound = oMaxY + 1; best = volume; }
+        }
+        if (z < oMinZ) {
+            long volume = volume(maxX - minX, maxY - minY, oMinZ - 1 - minZ);
+            if (volume > best) { axis = 2; bound = oMinZ - 1; best = volume; }
+        } else if (z > oMaxZ) {
+            long volume = volume(maxX - minX, maxY - minY, maxZ - oMaxZ - 1);
+            if (volume > best) { axis = 2; bound = oMaxZ + 1; }
+        }
+
+        switch (axis) {
+            case 0:
+                if (x < oMinX) maxX = bound; else minX = bound;
+                break;
+            case 1:
+                if (y < oMinY) maxY = bound; else minY = bound;
+                break;
+            case 2:
+                if (z < oMinZ) maxZ = bound; else minZ = bound;
+                break;
+        }
+    }
+
+    private static long volume(int dx, int dy, int dz) {
+        return (dx + 1L) * (dy + 1L) * (dz + 1L);
+    }
+
+}
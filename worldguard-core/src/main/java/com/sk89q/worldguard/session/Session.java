@@ -21,21 +21,38 @@
 
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldedit.util.Location;
 import com.sk89q.worldedit.util.formatting.text.TextComponent;
 import com.sk89q.worldedit.util.formatting.text.format.TextColor;
+import com.sk89q.worldedit.world.World;
 import com.sk89q.worldguard.LocalPlayer;
 import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.config.ConfigurationManager;
 import com.sk89q.worldguard.protection.ApplicableRegionSet;
+import com.sk89q.worldguard.protection.flags.Flag;
 import com.sk89q.worldguard.protection.flags.StateFlag.State;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.regions.RegionContainer;
 import com.sk89q.worldguard.protection.regions.RegionQuery;
+import com.sk89q.worldguard.protection.regions.RegionQuery.QueryOption;
 import com.sk89q.worldguard.session.handler.Handler;
 import com.sk89q.worldguard.util.Locations;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nullable;
 
@@ -46,12 +63,23 @@
  */
 public class Session {
 
+    private static final long BYPASS_CACHE_TIME = TimeUnit.SECONDS.toNanos(2);
+    private static final int SAFE_BOX_RADIUS = 32;
+
     private final SessionManager manager;
     private boolean disableBypass;
     private final HashMap<Class<?>, Handler> handlers = Maps.newLinkedHashMap();
+    private volatile List<Handler> handlerList = Collections.emptyList();
+    private final Map<Handler, Set<Flag<?>>> handlerFlags = new IdentityHashMap<>();
     private Location lastValid;
     private Set<ProtectedRegion> lastRegionSet;
+    @Nullable
+    private SafeBox lastBox;
+    private long lastGeometryVersion;
+    private long lastVersion;
+    private long lastMembershipKey;
     private final AtomicBoolean needRefresh = new AtomicBoolean(false);
+    private final ConcurrentMap<String, CachedBypass> bypassCache = new ConcurrentHashMap<>(4);
 
     /**
      * Create a new session.
@@ -69,7 +97,27 @@ public Session(SessionManager manager) {
      * @param handler A new handler
      */
     public void register(Handler handler) {
-        handlers.put(handler.getWrappedHandler().getClass(), handler);
+        register(handler, Collections.emptySet());
+    }
+
+    /**
+     * Register a new handler that acts on the given flags.
+     *
+     * @param handler A new handler
+     * @param flags The flags the handler acts on
+     * @see Handler.Factory#getFlags()
+     */
+    public void register(Handler handler, Set<Flag<?>> flags) {
+        checkNotNull(flags, "flags");
+        Handler previous = handlers.put(handler.getWrappedHandler().getClass(), handler);
+        if (previous != null) {
+            handlerFlags.remove(previous);
+        }
+        if (!flags.isEmpty()) {
+            handlerFlags.put(handler, flags);
+        }
+        // Copied for getTickHandlers(), which may be called from other threads
+        handlerList = Collections.unmodifiableList(new ArrayList<>(handlers.values()));
     }
 
     /**
@@ -106,6 +154,8 @@ public void initialize(LocalPlayer player) {
 
         lastValid = location;
         lastRegionSet = set.getRegions();
+        lastBox = null;
+        bypassCache.clear();
         ConfigurationManager cfg = WorldGuard.getInstance().getPlatform().getGlobalStateManager();
         disableBypass = cfg.disableDefaultBypass;
         if (cfg.announceBypassStatus && player.hasPermission("worldguard.region.toggle-bypass")) {
@@ -130,11 +180,47 @@ public void tick(LocalPlayer player) {
         Location location = player.getLocation();
         ApplicableRegionSet set = query.getApplicableRegions(location);
 
-        for (Handler handler : handlers.values()) {
+        tick(player, set, getTickHandlers(set));
+    }
+
+    /**
+     * Tick the given handlers of the session.
+     *
+     * <p>This is the part of ticking that has to run on the server's main
+     * thread. The set of regions and the handlers may have been determined
+     * on another thread with {@link #getTickHandlers(ApplicableRegionSet)}.</p>
+     *
+     * @param player The player
+     * @param set The regions for the player's current location
+     * @param handlers The handlers to tick
+     */
+    public void tick(LocalPlayer player, ApplicableRegionSet set, Collection<Handler> handlers) {
+        for (Handler handler : handlers) {
             handler.tick(player, set);
         }
     }
 
+    /**
+     * Get the handlers that need to be ticked for a player at a location
+     * with the given regions.
+     *
+     * <p>This method may be called from any thread.</p>
+     *
+     * @param set The regions for the player's current location
+     * @return A list of handlers
+     * @see Handler#isTickRequired(ApplicableRegionSet)
+     */
+    public List<Handler> getTickHandlers(ApplicableRegionSet set) {
+        List<Handler> handlers = handlerList;
+        List<Handler> result = new ArrayList<>(handlers.size());
+        for (Handler handler : handlers) {
+            if (handler.isTickRequired(set)) {
+                result.add(handler);
+            }
+        }
+        return result;
+    }
+
     /**
      * Re-initialize the session.
      *
@@ -145,6 +231,33 @@ public void resetState(LocalPlayer player) {
         needRefresh.set(true);
     }
 
+    /**
+     * Get the cached result of the region bypass permission check for
+     * the given world.
+     *
+     * @param world The world
+     * @return The cached result, or {@code null} if there is none or it has expired
+     */
+    @Nullable
+    Boolean getCachedBypass(World world) {
+        CachedBypass cached = bypassCache.get(world.getName());
+        if (cached == null || System.nanoTime() - cached.time > BYPASS_CACHE_TIME) {
+            return null;
+        }
+        return cached.bypass;
+    }
+
+    /**
+     * Cache the result of the region bypass permission check for the
+     * given world for a few seconds.
+     *
+     * @param world The world
+     * @param bypass Whether the player may bypass regions
+     */
+    void setCachedBypass(World world, boolean bypass) {
+        bypassCache.put(world.getName(), new CachedBypass(bypass, System.nanoTime()));
+    }
+
     /**
      * Test whether the session has invincibility enabled.
      *
@@ -198,37 +311,218 @@ public Location testMoveTo(LocalPlayer player, Location to, MoveType moveType) {
      */
     @Nullable
     public Location testMoveTo(LocalPlayer player, Location to, MoveType moveType, boolean forced) {
-        RegionQuery query = WorldGuard.getInstance().getPlatform().getRegionContainer().createQuery();
-
         if (!forced && needRefresh.getAndSet(false)) {
             forced = true;
         }
 
         if (forced || Locations.isDifferentBlock(lastValid, to)) {
-            ApplicableRegionSet toSet = query.getApplicableRegions(to);
+            Collection<Handler> active = getActiveHandlers(lastValid, to);
+            if (!forced && isWithinLastRegions(player, to, active)) {
+                lastValid = to;
+                return null;
+            }
+
+            RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
+            RegionManager toManager = container.get((World) to.getExtent());
+            long geometryVersion = toManager != null ? toManager.getGeometryVersion() : 0;
+            long version = toManager != null ? toManager.getVersion() : 0;
+            ApplicableRegionSet toSet = container.createQuery().getApplicableRegions(to);
 
-            for (Handler handler : handlers.values()) {
+            for (Handler handler : active) {
                 if (!handler.testMoveTo(player, lastValid, to, toSet, moveType) && moveType.isCancellable()) {
                     return lastValid;
                 }
             }
 
-            Set<ProtectedRegion> entered = Sets.difference(toSet.getRegions(), lastRegionSet);
-            Set<ProtectedRegion> exited = Sets.difference(lastRegionSet, toSet.getRegions());
+            Set<ProtectedRegion> entered = difference(toSet.getRegions(), lastRegionSet);
+            Set<ProtectedRegion> exited = difference(lastRegionSet, toSet.getRegions());
 
-            for (Handler handler : handlers.values()) {
+            for (Handler handler : active) {
                 if (!handler.onCrossBoundary(player, lastValid, to, toSet, entered, exited, moveType) && moveType.isCancellable()) {
                     return lastValid;
                 }
             }
 
+            updateLastBox(to, toManager, geometryVersion);
             lastValid = to;
             lastRegionSet = toSet.getRegions();
+            lastVersion = version;
+            lastMembershipKey = getMembershipKey(player, (World) to.getExtent());
         }
 
         return null;
     }
 
+    /**
+     * Get the regions of the first set that are not in the second set.
+     *
+     * <p>Unlike {@link Sets#difference(Set, Set)}, the result is computed
+     * once, so that handlers can iterate it repeatedly at no extra cost.</p>
+     *
+     * @param set The first set
+     * @param other The second set
+     * @return An unmodifiable set
+     */
+    private static Set<ProtectedRegion> difference(Set<ProtectedRegion> set, Set<ProtectedRegion> other) {
+        Set<ProtectedRegion> result = null;
+        for (ProtectedRegion region : set) {
+            if (!other.contains(region)) {
+                if (result == null) {
+                    result = new HashSet<>();
+                }
+                result.add(region);
+            }
+        }
+        return result != null ? Collections.unmodifiableSet(result) : Collections.emptySet();
+    }
+
+    /**
+     * Get the handlers that need to be called for a move, leaving out
+     * handlers whose flags are not set on any region of the worlds
+     * of either location.
+     *
+     * @param from The previous location
+     * @param to The new location
+     * @return A collection of handlers
+     */
+    private Collection<Handler> getActiveHandlers(Location from, Location to) {
+        if (handlerFlags.isEmpty()) {
+            return handlers.values();
+        }
+
+        RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
+        RegionManager toManager = container.get((World) to.getExtent());
+        RegionManager fromManager = from.getExtent().equals(to.getExtent())
+                ? toManager : container.get((World) from.getExtent());
+
+        List<Handler> result = new ArrayList<>(handlers.size());
+        for (Handler handler : handlers.values()) {
+            Set<Flag<?>> flags = handlerFlags.get(handler);
+            if (flags == null || isAnyFlagPresent(toManager, flags) || isAnyFlagPresent(fromManager, flags)) {
+                result.add(handler);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isAnyMembershipDependent(Collection<Handler> handlers) {
+        for (Handler handler : handlers) {
+            if (handler.isMembershipDependent()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAnyFlagPresent(@Nullable RegionManager manager, Set<Flag<?>> flags) {
+        if (manager == null) {
+            return true; // Can't tell
+        }
+        for (Flag<?> flag : flags) {
+            if (manager.isFlagPresent(flag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Test whether the given location is known to have the same set of
+     * applicable regions as the last valid location, in which case the
+     * region query and the handlers can be skipped.
+     *
+     * <p>This is the case if the location lies in the box around the last
+     * valid location that no region edge crosses, and no region of the world
+     * has been added, removed or reshaped since. Handlers that depend on the
+     * membership of the player are only skipped if, in addition, the regions
+     * of the world are otherwise unchanged and the player's membership of the
+     * regions and region bypass are the same as at the last valid location.</p>
+     *
+     * @param player the player
+     * @param to the new location
+     * @param active the handlers that would be called for the move
+     * @return true if the handlers can be skipped
+     */
+    private boolean isWithinLastRegions(LocalPlayer player, Location to, Collection<Handler> active) {
+        SafeBox box = lastBox;
+        if (box == null || !to.getExtent().equals(lastValid.getExtent())
+                || !box.contains(to.getBlockX(), to.getBlockY(), to.getBlockZ())) {
+            return false;
+        }
+
+        World world = (World) to.getExtent();
+        RegionManager manager = WorldGuard.getInstance().getPlatform().getRegionContainer().get(world);
+        if (manager == null || manager.getGeometryVersion() != lastGeometryVersion) {
+            return false;
+        }
+
+        if (!isAnyMembershipDependent(active)) {
+            return true;
+        }
+        return manager.getVersion() == lastVersion && lastMembershipKey != -1
+                && getMembershipKey(player, world) == lastMembershipKey;
+    }
+
+    /**
+     * Remember the box around the new valid location in which every block
+     * is contained by the same regions, keeping the current box if the
+     * location is still in it.
+     *
+     * @param location the new valid location
+     * @param manager the region manager of the location's world
+     * @param geometryVersion the geometry version of the manager before the location was evaluated
+     */
+    private void updateLastBox(Location location, @Nullable RegionManager manager, long geometryVersion) {
+        if (manager == null) {
+            lastBox = null;
+            return;
+        }
+
+        int x = location.getBlockX();
+        int y = location.getBlockY();
+        int z = location.getBlockZ();
+        SafeBox box = lastBox;
+        if (box != null && geometryVersion == lastGeometryVersion
+                && location.getExtent().equals(lastValid.getExtent()) && box.contains(x, y, z)) {
+            return;
+        }
+
+        BlockVector3 point = BlockVector3.at(x, y, z);
+        BlockVector3 radius = BlockVector3.at(SAFE_BOX_RADIUS, SAFE_BOX_RADIUS, SAFE_BOX_RADIUS);
+        ProtectedRegion area = new ProtectedCuboidRegion("__safe_box__", true, point.subtract(radius), point.add(radius));
+        Set<ProtectedRegion> nearby = manager.getApplicableRegions(area, QueryOption.NONE).getRegions();
+        lastBox = SafeBox.around(point, nearby, SAFE_BOX_RADIUS);
+        lastGeometryVersion = geometryVersion;
+    }
+
+    /**
+     * Get a key of the player's region bypass and their ownership and
+     * membership of each region of the last valid location.
+     *
+     * @param player the player
+     * @param world the world of the last valid location
+     * @return the key, or {@code -1} if there are too many regions to make a key of
+     */
+    private long getMembershipKey(LocalPlayer player, World world) {
+        Set<ProtectedRegion> regions = lastRegionSet;
+        if (regions.size() > 31) {
+            return -1;
+        }
+
+        long key = manager.hasBypass(player, world) ? 1 : 0;
+        int bit = 1;
+        for (ProtectedRegion region : regions) {
+            if (region.isOwner(player)) {
+                key |= 1L << bit;
+            }
+            if (region.isMember(player)) {
+                key |= 1L << (bit + 1);
+            }
+            bit += 2;
+        }
+        return key;
+    }
+
     /**
      * @return true if the owner of this session should not bypass protection, even if they have bypass permissions
      */
@@ -243,4 +537,14 @@ public boolean hasBypassDisabled() {
     public void setBypassDisabled(boolean disabled) {
         disableBypass = disabled;
     }
+
+    private static final class CachedBypass {
+        private final boolean bypass;
+        private final long time;
+
+        private CachedBypass(boolean bypass, long time) {
+            this.bypass = bypass;
+            this.time = time;
+        }
+    }
 }
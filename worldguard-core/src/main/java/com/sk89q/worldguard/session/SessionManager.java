@@ -19,14 +19,19 @@
 
 package com.sk89q.worldguard.session;
 
+import com.sk89q.worldedit.util.Location;
 import com.sk89q.worldedit.world.World;
 import com.sk89q.worldguard.LocalPlayer;
 import com.sk89q.worldguard.session.handler.Handler;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.annotation.Nullable;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 public interface SessionManager {
 
     /**
@@ -118,4 +123,35 @@ public interface SessionManager {
      * @return The {@code player}'s session
      */
     Session get(LocalPlayer player);
+
+    /**
+     * Test the movement of many players at once, such as when a large
+     * number of players is teleported at the same time.
+     *
+     * <p>The result for each player is the same as that of
+     * {@link Session#testMoveTo(LocalPlayer, Location, MoveType, boolean)}.
+     * Destinations shared by several players are answered from the region
+     * query cache after the first lookup. Players are tested in iteration
+     * order of the map.</p>
+     *
+     * <p>This method can only be called from the main thread.</p>
+     *
+     * @param destinations A map of players to the locations they move to
+     * @param moveType The type of move
+     * @param forced Whether to force a check
+     * @return A map of the players whose location is being overridden to the location they should be at
+     */
+    default Map<LocalPlayer, Location> testMoveTo(Map<? extends LocalPlayer, Location> destinations, MoveType moveType, boolean forced) {
+        checkNotNull(destinations, "destinations");
+        checkNotNull(moveType, "moveType");
+
+        Map<LocalPlayer, Location> overrides = new LinkedHashMap<>();
+        for (Map.Entry<? extends LocalPlayer, Location> entry : destinations.entrySet()) {
+            Location override = get(entry.getKey()).testMoveTo(entry.getKey(), entry.getValue(), moveType, forced);
+            if (override != null) {
+                overrides.put(entry.getKey(), override);
+            }
+        }
+        return overrides;
+    }
 }
@@ -19,12 +19,16 @@
 
 package com.sk89q.worldguard.session.handler;
 
+import com.google.common.collect.ImmutableSet;
 import com.sk89q.worldedit.util.Location;
 import com.sk89q.worldedit.world.World;
 import com.sk89q.worldguard.LocalPlayer;
+import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.commands.CommandUtils;
 import com.sk89q.worldguard.protection.ApplicableRegionSet;
+import com.sk89q.worldguard.protection.flags.Flag;
 import com.sk89q.worldguard.protection.flags.Flags;
+import com.sk89q.worldguard.protection.managers.RegionManager;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import com.sk89q.worldguard.session.MoveType;
 import com.sk89q.worldguard.session.Session;
@@ -39,6 +43,11 @@ public static class Factory extends Handler.Factory<EntryFlag> {
         public EntryFlag create(Session session) {
             return new EntryFlag(session);
         }
+
+        @Override
+        public Set<Flag<?>> getFlags() {
+            return ImmutableSet.of(Flags.ENTRY);
+        }
     }
 
     private static final long MESSAGE_THRESHOLD = 1000 * 2;
@@ -50,6 +59,11 @@ public EntryFlag(Session session) {
 
     @Override
     public boolean onCrossBoundary(LocalPlayer player, Location from, Location to, ApplicableRegionSet toSet, Set<ProtectedRegion> entered, Set<ProtectedRegion> exited, MoveType moveType) {
+        RegionManager manager = WorldGuard.getInstance().getPlatform().getRegionContainer().get((World) to.getExtent());
+        if (manager != null && !manager.isFlagPresent(Flags.ENTRY, to.getBlockX(), to.getBlockY(), to.getBlockZ())) {
+            return true; // No region at the destination sets the flag, so entry is allowed
+        }
+
         boolean allowed = toSet.testState(player, Flags.ENTRY);
 
         if (!getSession().getManager().hasBypass(player, (World) to.getExtent()) && !allowed && moveType.isCancellable()) {
@@ -19,6 +19,7 @@
 
 package com.sk89q.worldguard.session.handler;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.sk89q.worldedit.util.Location;
 import com.sk89q.worldguard.LocalPlayer;
@@ -42,6 +43,11 @@ public static class Factory extends Handler.Factory<FarewellFlag> {
         public FarewellFlag create(Session session) {
             return new FarewellFlag(session);
         }
+
+        @Override
+        public Set<Flag<?>> getFlags() {
+            return ImmutableSet.of(Flags.FAREWELL_MESSAGE, Flags.FAREWELL_TITLE);
+        }
     }
 
     private Set<String> lastMessageStack = Collections.emptySet();
@@ -41,6 +41,16 @@ public FeedFlag(Session session) {
         super(session);
     }
 
+    @Override
+    public boolean isMembershipDependent() {
+        return false; // Does not act on movement
+    }
+
+    @Override
+    public boolean isTickRequired(ApplicableRegionSet set) {
+        return set.isFlagPresent(Flags.FEED_AMOUNT) && set.isFlagPresent(Flags.FEED_DELAY);
+    }
+
     @Override
     public void tick(LocalPlayer player, ApplicableRegionSet set) {
         long now = System.currentTimeMillis();
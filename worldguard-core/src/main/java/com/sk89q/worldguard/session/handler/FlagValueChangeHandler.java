@@ -20,9 +20,12 @@
 package com.sk89q.worldguard.session.handler;
 
 import com.sk89q.worldedit.util.Location;
+import com.sk89q.worldedit.world.World;
 import com.sk89q.worldguard.LocalPlayer;
+import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.protection.ApplicableRegionSet;
 import com.sk89q.worldguard.protection.flags.Flag;
+import com.sk89q.worldguard.protection.managers.RegionManager;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import com.sk89q.worldguard.session.MoveType;
 import com.sk89q.worldguard.session.Session;
@@ -45,6 +48,11 @@ public final void initialize(LocalPlayer player, Location current, ApplicableReg
         onInitialValue(player, set, lastValue);
     }
 
+    @Override
+    public boolean isMembershipDependent() {
+        return false; // Moves within the same regions are ignored below
+    }
+
     @Override
     public boolean onCrossBoundary(LocalPlayer player, Location from, Location to, ApplicableRegionSet toSet, Set<ProtectedRegion> entered, Set<ProtectedRegion> exited, MoveType moveType) {
         if (entered.isEmpty() && exited.isEmpty()
@@ -52,6 +60,10 @@ public boolean onCrossBoundary(LocalPlayer player, Location from, Location to, A
             return true; // no changes to flags if regions didn't change
         }
 
+        if (lastValue == null && !isFlagPresent(to, toSet)) {
+            return true; // the flag can't have a value, so there is nothing to query
+        }
+
         T currentValue = toSet.queryValue(player, flag);
         boolean allowed = true;
 
@@ -68,6 +80,21 @@ public boolean onCrossBoundary(LocalPlayer player, Location from, Location to, A
         return allowed;
     }
 
+    /**
+     * Test whether the flag may be set at the given location.
+     *
+     * @param location the location
+     * @param set the regions for the location
+     * @return false if the flag is definitely not set
+     */
+    private boolean isFlagPresent(Location location, ApplicableRegionSet set) {
+        RegionManager manager = WorldGuard.getInstance().getPlatform().getRegionContainer().get((World) location.getExtent());
+        if (manager != null && !manager.isFlagPresent(flag, location.getBlockX(), location.getBlockY(), location.getBlockZ())) {
+            return false;
+        }
+        return set.isFlagPresent(flag);
+    }
+
     protected abstract void onInitialValue(LocalPlayer player, ApplicableRegionSet set, T value);
 
     protected abstract boolean onSetValue(LocalPlayer player, Location from, Location to, ApplicableRegionSet toSet, T currentValue, T lastValue, MoveType moveType);
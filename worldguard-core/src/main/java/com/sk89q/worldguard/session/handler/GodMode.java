@@ -41,6 +41,11 @@ public GodMode(Session session) {
         super(session);
     }
 
+    @Override
+    public boolean isMembershipDependent() {
+        return false; // Does not act on movement
+    }
+
     public boolean hasGodMode(LocalPlayer player) {
         // TODO
 //        if (getPlugin().getGlobalStateManager().hasCommandBookGodMode()) {
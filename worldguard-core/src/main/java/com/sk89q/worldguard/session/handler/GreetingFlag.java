@@ -19,6 +19,7 @@
 
 package com.sk89q.worldguard.session.handler;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.sk89q.worldedit.util.Location;
 import com.sk89q.worldguard.LocalPlayer;
@@ -43,6 +44,11 @@ public static class Factory extends Handler.Factory<GreetingFlag> {
         public GreetingFlag create(Session session) {
             return new GreetingFlag(session);
         }
+
+        @Override
+        public Set<Flag<?>> getFlags() {
+            return ImmutableSet.of(Flags.GREET_MESSAGE, Flags.GREET_TITLE);
+        }
     }
 
     private Set<String> lastMessageStack = Collections.emptySet();
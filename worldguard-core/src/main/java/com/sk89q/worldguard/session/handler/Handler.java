@@ -22,6 +22,7 @@
 import com.sk89q.worldedit.util.Location;
 import com.sk89q.worldguard.LocalPlayer;
 import com.sk89q.worldguard.protection.ApplicableRegionSet;
+import com.sk89q.worldguard.protection.flags.Flag;
 import com.sk89q.worldguard.protection.flags.StateFlag.State;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import com.sk89q.worldguard.session.MoveType;
@@ -29,6 +30,7 @@
 import com.sk89q.worldguard.session.SessionManager;
 
 import javax.annotation.Nullable;
+import java.util.Collections;
 import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -40,6 +42,22 @@ public abstract class Handler {
 
     public abstract static class Factory<T extends Handler> {
         public abstract T create(Session session);
+
+        /**
+         * Get the flags that the created handlers act on.
+         *
+         * <p>If a non-empty set is returned and none of the flags are set
+         * on any region of a player's world, the handler is not called
+         * on movement. Only handlers that do nothing (and keep no state
+         * that needs resetting) when none of their flags are set should
+         * declare flags. By default, an empty set is returned and the
+         * handler is always called.</p>
+         *
+         * @return a set of flags
+         */
+        public Set<Flag<?>> getFlags() {
+            return Collections.emptySet();
+        }
     }
 
     private final Session session;
@@ -114,6 +132,26 @@ public boolean onCrossBoundary(LocalPlayer player, Location from, Location to, A
         return true;
     }
 
+    /**
+     * Return whether {@link #testMoveTo(LocalPlayer, Location, Location, ApplicableRegionSet, MoveType)}
+     * or {@link #onCrossBoundary(LocalPlayer, Location, Location, ApplicableRegionSet, Set, Set, MoveType)}
+     * may have a different outcome for a move that stays within the same
+     * set of regions, because the outcome depends on the data of the
+     * regions, or on the player's membership of the regions or region
+     * bypass, which can change without any region being entered or left.
+     *
+     * <p>Moves that are known not to cross a region border skip handlers
+     * that return {@code true} only while the region data of the world,
+     * the player's ownership and membership of the regions and the
+     * player's region bypass are the same as at the last evaluated move.
+     * By default, {@code true} is returned.</p>
+     *
+     * @return Whether moves within the same regions must be evaluated
+     */
+    public boolean isMembershipDependent() {
+        return true;
+    }
+
     /**
      * Called periodically (at least once every second) by
      * {@link SessionManager} in the server's main thread.
@@ -124,6 +162,23 @@ public boolean onCrossBoundary(LocalPlayer player, Location from, Location to, A
     public void tick(LocalPlayer player, ApplicableRegionSet set) {
     }
 
+    /**
+     * Return whether {@link #tick(LocalPlayer, ApplicableRegionSet)} needs
+     * to be called for a player at a location with the given regions.
+     *
+     * <p>Handlers that only act on certain flags should return
+     * {@code false} if none of those flags are set
+     * (see {@link ApplicableRegionSet#isFlagPresent(Flag)}). This method
+     * may be called from a thread other than the server's main thread,
+     * so it must only look at the given set.</p>
+     *
+     * @param set The regions for the player's current location
+     * @return Whether the handler should be ticked
+     */
+    public boolean isTickRequired(ApplicableRegionSet set) {
+        return true;
+    }
+
     /**
      * Return whether the player should be invincible.
      *
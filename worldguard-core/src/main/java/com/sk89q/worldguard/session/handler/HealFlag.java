@@ -41,6 +41,16 @@ public HealFlag(Session session) {
         super(session);
     }
 
+    @Override
+    public boolean isMembershipDependent() {
+        return false; // Does not act on movement
+    }
+
+    @Override
+    public boolean isTickRequired(ApplicableRegionSet set) {
+        return set.isFlagPresent(Flags.HEAL_AMOUNT) && set.isFlagPresent(Flags.HEAL_DELAY);
+    }
+
     @Override
     public void tick(LocalPlayer player, ApplicableRegionSet set) {
         if (player.getHealth() <= 0) {
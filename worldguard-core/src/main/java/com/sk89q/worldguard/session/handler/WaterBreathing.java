@@ -38,6 +38,11 @@ public WaterBreathing(Session session) {
         super(session);
     }
 
+    @Override
+    public boolean isMembershipDependent() {
+        return false; // Does not act on movement
+    }
+
     public boolean hasWaterBreathing() {
         return waterBreathing;
     }
@@ -24,7 +24,9 @@
 import javax.annotation.Nullable;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -42,13 +44,18 @@
  * is not used.</p>
  *
  * <p>The test is case in-sensitive.</p>
+ *
+ * <p>The rules are compiled into token tries when the filter is created,
+ * so a test walks both tries once over the tokens of the command. Filters
+ * should therefore be reused for the same rules (see
+ * {@link com.sk89q.worldguard.protection.ApplicableRegionSet#getCommandFilter}).</p>
  */
 public class CommandFilter implements Predicate<String> {
 
     @Nullable
-    private final Collection<String> permitted;
+    private final Node permitted;
     @Nullable
-    private final Collection<String> denied;
+    private final Node denied;
 
     /**
      * Create a new instance.
@@ -57,14 +64,13 @@ public class CommandFilter implements Predicate<String> {
      * @param denied a list of rules for denied commands
      */
     public CommandFilter(@Nullable Collection<String> permitted, @Nullable Collection<String> denied) {
-        this.permitted = permitted;
-        this.denied = denied;
+        this.permitted = compile(permitted);
+        this.denied = compile(denied);
     }
 
-    @SuppressWarnings("StatementWithEmptyBody")
     @Override
     public boolean apply(String command) {
-        command = command.toLowerCase().replaceAll("^/([^ :]*:)?", "/");
+        command = normalize(command);
 
          /*
          * denied      used        allow?
@@ -79,70 +85,160 @@ public boolean apply(String command) {
          * x y          x           no
          * x y          x y         yes
          */
-        String result = "";
-        String[] usedParts = command.split("\\s+");
-        if (denied != null) {
-            denied:
-            for (String deniedCommand : denied) {
-                String[] deniedParts = deniedCommand.split("\\s+");
-                for (int i = 0; i < deniedParts.length && i < usedParts.length; i++) {
-                    if (deniedParts[i].equalsIgnoreCase(usedParts[i])) {
-                        // first part matches - check if it's the whole thing
-                        if (i + 1 == deniedParts.length) {
-                            // consumed all denied parts, block entire command
-                            result = deniedCommand;
-                            break denied;
-                        } else {
-                            // more denied parts to check, also check used length
-                            if (i + 1 == usedParts.length) {
-                                // all that was used, but there is more in denied
-                                // allow this, check next command in flag
-                                continue denied;
-                            } else {
-                                // more in both denied and used, continue checking
-                            }
-                        }
-                    } else {
-                        // found non-matching part, stop checking this command
-                        continue denied;
-                    }
-                }
+        Node permittedNode = permitted;
+        Node deniedNode = permitted == null ? denied : null; // Denied rules are not used if there are permitted rules
+        boolean matched = false;
+
+        for (String part : split(command)) {
+            if (permittedNode != null) {
+                permittedNode = permittedNode.get(part);
+                matched = permittedNode != null && permittedNode.terminal;
+            } else if (deniedNode != null) {
+                deniedNode = deniedNode.get(part);
+                matched = deniedNode != null && deniedNode.terminal;
+            }
+
+            if (matched || (permittedNode == null && deniedNode == null)) {
+                break;
             }
         }
 
         if (permitted != null) {
-            permitted:
-            for (String permittedCommand : permitted) {
-                String[] permittedParts = permittedCommand.split("\\s+");
-                for (int i = 0; i < permittedParts.length && i < usedParts.length; i++) {
-                    if (permittedParts[i].equalsIgnoreCase(usedParts[i])) {
-                        // this part matches - check if it's the whole thing
-                        if (i + 1 == permittedParts.length) {
-                            // consumed all permitted parts before reaching used length
-                            // this command is definitely permitted
-                            result = "";
-                            break permitted;
-                        } else {
-                            // more permitted parts to check
-                            if (i + 1 == usedParts.length) {
-                                // all that was used, but there is more in permitted
-                                // block for now, check next part of flag
-                                result = command;
-                                continue permitted;
-                            } else {
-                                // more in both permitted and used, continue checking for match
-                            }
-                        }
-                    } else {
-                        // doesn't match at all, block it, check next flag string
-                        result = command;
-                        continue permitted;
-                    }
+            return matched || command.isEmpty();
+        } else {
+            return !matched;
+        }
+    }
+
+    /**
+     * Compile a list of rules into a trie of lowercase tokens.
+     *
+     * @param rules the rules
+     * @return the root node, or {@code null} if there are no rules
+     */
+    @Nullable
+    private static Node compile(@Nullable Collection<String> rules) {
+        if (rules == null) {
+            return null;
+        }
+
+        Node root = new Node();
+        boolean empty = true;
+
+        for (String rule : rules) {
+            String[] parts = split(rule.toLowerCase());
+            if (parts.length == 0) {
+                continue;
+            }
+
+            Node node = root;
+            for (String part : parts) {
+                node = node.getOrCreate(part);
+            }
+            node.terminal = true;
+            empty = false;
+        }
+
+        return empty ? null : root;
+    }
+
+    /**
+     * Lowercase the command and remove the namespace of the command label,
+     * if any (such as {@code /worldguard:region} to {@code /region}).
+     *
+     * @param command the command
+     * @return the normalized command
+     */
+    private static String normalize(String command) {
+        command = command.toLowerCase();
+
+        if (command.startsWith("/")) {
+            for (int i = 1; i < command.length(); i++) {
+                char c = command.charAt(i);
+                if (c == ':') {
+                    return "/" + command.substring(i + 1);
+                } else if (c == ' ') {
+                    break;
+                }
+            }
+        }
+
+        return command;
+    }
+
+    /**
+     * Split a string the same way as {@code split("\\s+")}, without
+     * using a regular expression.
+     *
+     * @param input the input
+     * @return an array of parts
+     */
+    private static String[] split(String input) {
+        int length = input.length();
+        if (length == 0) {
+            return new String[] { "" };
+        }
+
+        int count = 0;
+        for (int i = 0; i < length; ) {
+            while (i < length && isWhitespace(input.charAt(i))) {
+                i++;
+            }
+            if (i < length) {
+                count++;
+                while (i < length && !isWhitespace(input.charAt(i))) {
+                    i++;
+                }
+            }
+        }
+
+        if (count == 0) {
+            return new String[0];
+        }
+
+        boolean leading = isWhitespace(input.charAt(0));
+        String[] parts = new String[leading ? count + 1 : count];
+        int index = 0;
+        if (leading) {
+            parts[index++] = "";
+        }
+
+        for (int i = 0; i < length; ) {
+            while (i < length && isWhitespace(input.charAt(i))) {
+                i++;
+            }
+            if (i < length) {
+                int start = i;
+                while (i < length && !isWhitespace(input.charAt(i))) {
+                    i++;
                 }
+                parts[index++] = input.substring(start, i);
             }
         }
 
-        return result.isEmpty();
+        return parts;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static final class Node {
+        @Nullable
+        private Map<String, Node> children;
+        private boolean terminal;
+
+        @Nullable
+        private Node get(String part) {
+            return children != null ? children.get(part) : null;
+        }
+
+        private Node getOrCreate(String part) {
+            if (children == null) {
+                children = new HashMap<>(4);
+            }
+            return children.computeIfAbsent(part, k -> new Node());
+        }
     }
 
     /**
@@ -0,0 +1,70 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.util.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that only increases until it is reset.
+ *
+ * <p>This class is thread safe and does not lock.</p>
+ */
+public final class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+    }
+
+    /**
+     * Increment the count by one.
+     */
+    public void increment() {
+        value.increment();
+    }
+
+    /**
+     * Increment the count.
+     *
+     * @param amount the amount
+     */
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    /**
+     * Get the count.
+     *
+     * @return the count
+     */
+    public long get() {
+        return value.sum();
+    }
+
+    /**
+     * Set the count back to zero.
+     *
+     * <p>Increments made at the same time may or may not be kept.</p>
+     */
+    public void reset() {
+        value.reset();
+    }
+
+}
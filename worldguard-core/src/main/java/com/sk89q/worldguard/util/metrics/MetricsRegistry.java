@@ -0,0 +1,274 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.util.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Holds named counters and latency histograms.
+ *
+ * <p>Metrics are grouped into families by name, and a family may have one
+ * label whose values tell its metrics apart (such as the name of a flag).
+ * Looking up a metric is two map reads and does not allocate once the
+ * metric exists.</p>
+ *
+ * <p>Instrumented code should only record metrics if
+ * {@link #isEnabled()} returns true, so that disabled metrics cost a
+ * single volatile read.</p>
+ *
+ * <p>This class is thread safe.</p>
+ */
+public final class MetricsRegistry {
+
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99 };
+
+    private final ConcurrentMap<String, Family<?>> families = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+
+    /**
+     * Return whether metrics should be recorded.
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set whether metrics should be recorded.
+     *
+     * @param enabled true to enable
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get a counter without a label.
+     *
+     * @param name the name of the family
+     * @return the counter
+     */
+    public Counter counter(String name) {
+        return counter(name, null, "");
+    }
+
+    /**
+     * Get a counter.
+     *
+     * @param name the name of the family
+     * @param labelName the name of the label, or {@code null} if the family has no label
+     * @param labelValue the value of the label
+     * @return the counter
+     */
+    public Counter counter(String name, @Nullable String labelName, String labelValue) {
+        return getFamily(name, labelName, Type.COUNTER, Counter::new).get(labelValue);
+    }
+
+    /**
+     * Get a histogram without a label.
+     *
+     * @param name the name of the family
+     * @return the histogram
+     */
+    public LatencyHistogram histogram(String name) {
+        return histogram(name, null, "");
+    }
+
+    /**
+     * Get a histogram.
+     *
+     * @param name the name of the family
+     * @param labelName the name of the label, or {@code null} if the family has no label
+     * @param labelValue the value of the label
+     * @return the histogram
+     */
+    public LatencyHistogram histogram(String name, @Nullable String labelName, String labelValue) {
+        return getFamily(name, labelName, Type.HISTOGRAM, LatencyHistogram::new).get(labelValue);
+    }
+
+    /**
+     * Set all metrics back to zero.
+     *
+     * <p>The metrics themselves are kept, because instrumented code may
+     * hold on to the instances it was given.</p>
+     */
+    public void reset() {
+        for (Family<?> family : families.values()) {
+            for (Object metric : family.metrics.values()) {
+                if (metric instanceof Counter) {
+                    ((Counter) metric).reset();
+                } else {
+                    ((LatencyHistogram) metric).reset();
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <M> Family<M> getFamily(String name, @Nullable String labelName, Type type, Supplier<M> factory) {
+        Family<?> family = families.get(name);
+        if (family == null) {
+            checkNotNull(name);
+            family = families.computeIfAbsent(name, k -> new Family<>(name, labelName, type, factory));
+        }
+        checkArgument(family.type == type, "Metrika %s je jiného typu", name);
+        return (Family<M>) family;
+    }
+
+    /**
+     * Get a snapshot of the counters, keyed by {@code name} or
+     * {@code name{label="value"}} and sorted by key.
+     *
+     * @return a map of counters
+     */
+    public Map<String, Counter> getCounters() {
+        return snapshot(Type.COUNTER);
+    }
+
+    /**
+     * Get a snapshot of the histograms, keyed by {@code name} or
+     * {@code name{label="value"}} and sorted by key.
+     *
+     * @return a map of histograms
+     */
+    public Map<String, LatencyHistogram> getHistograms() {
+        return snapshot(Type.HISTOGRAM);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <M> Map<String, M> snapshot(Type type) {
+        Map<String, M> result = new TreeMap<>();
+        for (Family<?> family : families.values()) {
+            if (family.type == type) {
+                for (Map.Entry<String, ?> entry : family.metrics.entrySet()) {
+                    result.put(family.name + family.formatLabels(entry.getKey(), null), (M) entry.getValue());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Write all metrics in the Prometheus text exposition format.
+     *
+     * <p>Histograms are written as summaries in seconds, with the 50th,
+     * 90th and 99th percentiles.</p>
+     *
+     * @param out the output
+     * @throws IOException on I/O error
+     */
+    public void writePrometheus(Appendable out) throws IOException {
+        List<Family<?>> sorted = new ArrayList<>(families.values());
+        sorted.sort((a, b) -> a.name.compareTo(b.name));
+
+        for (Family<?> family : sorted) {
+            out.append("# TYPE ").append(family.name).append(' ')
+                    .append(family.type == Type.COUNTER ? "counter" : "summary").append('\n');
+
+            List<String> labels = new ArrayList<>(family.metrics.keySet());
+            Collections.sort(labels);
+
+            for (String label : labels) {
+                Object metric = family.metrics.get(label);
+                if (metric instanceof Counter) {
+                    out.append(family.name).append(family.formatLabels(label, null))
+                            .append(' ').append(String.valueOf(((Counter) metric).get())).append('\n');
+                } else {
+                    LatencyHistogram histogram = (LatencyHistogram) metric;
+                    for (double quantile : QUANTILES) {
+                        out.append(family.name).append(family.formatLabels(label, String.valueOf(quantile)))
+                                .append(' ').append(toSeconds(histogram.getPercentile(quantile * 100))).append('\n');
+                    }
+                    out.append(family.name).append("_sum").append(family.formatLabels(label, null))
+                            .append(' ').append(toSeconds(histogram.getSum())).append('\n');
+                    out.append(family.name).append("_count").append(family.formatLabels(label, null))
+                            .append(' ').append(String.valueOf(histogram.getCount())).append('\n');
+                }
+            }
+        }
+    }
+
+    private static String toSeconds(long nanos) {
+        return String.valueOf(nanos / NANOS_PER_SECOND);
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private enum Type {
+        COUNTER,
+        HISTOGRAM
+    }
+
+    private static final class Family<M> {
+        private final String name;
+        @Nullable
+        private final String labelName;
+        private final Type type;
+        private final Supplier<M> factory;
+        private final ConcurrentMap<String, M> metrics = new ConcurrentHashMap<>();
+
+        private Family(String name, @Nullable String labelName, Type type, Supplier<M> factory) {
+            this.name = name;
+            this.labelName = labelName;
+            this.type = type;
+            this.factory = factory;
+        }
+
+        private M get(String labelValue) {
+            M metric = metrics.get(labelValue);
+            if (metric == null) {
+                checkNotNull(labelValue);
+                metric = metrics.computeIfAbsent(labelValue, k -> factory.get());
+            }
+            return metric;
+        }
+
+        private String formatLabels(String labelValue, @Nullable String quantile) {
+            StringBuilder builder = new StringBuilder();
+            if (labelName != null) {
+                builder.append(labelName).append("=\"").append(escapeLabel(labelValue)).append('"');
+            }
+            if (quantile != null) {
+                if (builder.length() > 0) {
+                    builder.append(',');
+                }
+                builder.append("quantile=\"").append(quantile).append('"');
+            }
+            return builder.length() > 0 ? "{" + builder + "}" : "";
+        }
+    }
+
+}
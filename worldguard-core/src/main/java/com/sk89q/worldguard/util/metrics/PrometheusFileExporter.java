@@ -0,0 +1,132 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.util.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Periodically writes the metrics of a registry to a file in the
+ * Prometheus text format, for example for the textfile collector of the
+ * node exporter.
+ *
+ * <p>The file is written to a temporary file first and then moved into
+ * place, so that readers never see a partial file.</p>
+ */
+public final class PrometheusFileExporter {
+
+    private static final Logger log = Logger.getLogger(PrometheusFileExporter.class.getCanonicalName());
+
+    private final MetricsRegistry registry;
+    private final Path file;
+    private final long interval;
+    @Nullable
+    private ScheduledExecutorService executor;
+
+    /**
+     * Create a new instance.
+     *
+     * @param registry the registry
+     * @param file the file to write
+     * @param interval the interval in seconds
+     */
+    public PrometheusFileExporter(MetricsRegistry registry, Path file, long interval) {
+        checkNotNull(registry);
+        checkNotNull(file);
+        checkArgument(interval >= 1, "interval >= 1");
+        this.registry = registry;
+        this.file = file;
+        this.interval = interval;
+    }
+
+    /**
+     * Get the file that is written.
+     *
+     * @return the file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Start writing the file periodically.
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("WorldGuard export metrik")
+                .setDaemon(true)
+                .build());
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                export();
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Nepodařilo se zapsat metriky do " + file, e);
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop writing the file.
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Write the file now.
+     *
+     * @throws IOException on I/O error
+     */
+    public synchronized void export() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            registry.writePrometheus(writer);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.util.profiler;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Samples the stack of a single thread at a low frequency for as long as
+ * it runs, keeping the samples of a rolling window.
+ *
+ * <p>Unlike {@link SamplerBuilder.Sampler}, only the sampled thread is
+ * dumped (with {@link ThreadMXBean#getThreadInfo(long, int)}), and samples
+ * are stored as arrays of interned frame IDs, so that the sampler can be
+ * left on. The window is split into slots, and the oldest slot is dropped
+ * whenever a new one starts.</p>
+ *
+ * <p>The samples can be exported with {@link #writeCollapsed(Appendable)}
+ * in the collapsed stack format used by flame graph tools.</p>
+ */
+public final class ContinuousSampler {
+
+    private static final Logger log = Logger.getLogger(ContinuousSampler.class.getCanonicalName());
+
+    /**
+     * The default maximum depth of sampled stacks.
+     */
+    public static final int DEFAULT_MAX_DEPTH = 128;
+
+    private final long threadId;
+    private final int interval;
+    private final int maxDepth;
+    private final long slotLength;
+    private final FrameTable frames = new FrameTable();
+    private final StackSampleTable[] slots;
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private int currentSlot;
+    private long slotStart;
+    @Nullable
+    private ScheduledExecutorService executor;
+
+    /**
+     * Create a new instance.
+     *
+     * @param threadId the ID of the thread to sample
+     * @param interval the sampling interval in milliseconds
+     * @param window the length of the rolling window in minutes
+     * @param maxDepth the maximum number of frames sampled from the top of the stack
+     */
+    public ContinuousSampler(long threadId, int interval, int window, int maxDepth) {
+        this(threadId, interval, TimeUnit.MINUTES.toMillis(window), window, maxDepth);
+    }
+
+    ContinuousSampler(long threadId, int interval, long windowLength, int slotCount, int maxDepth) {
+        checkArgument(interval >= 1, "interval >= 1");
+        checkArgument(slotCount >= 1, "slotCount >= 1");
+        checkArgument(windowLength >= slotCount, "windowLength >= slotCount");
+        checkArgument(maxDepth >= 1, "maxDepth >= 1");
+        this.threadId = threadId;
+        this.interval = interval;
+        this.maxDepth = maxDepth;
+        this.slotLength = windowLength / slotCount;
+        this.slots = new StackSampleTable[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new StackSampleTable();
+        }
+    }
+
+    /**
+     * Get the ID of the sampled thread.
+     *
+     * @return the thread ID
+     */
+    public long getThreadId() {
+        return threadId;
+    }
+
+    /**
+     * Get the sampling interval.
+     *
+     * @return the interval in milliseconds
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Start sampling.
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+
+        slotStart = System.currentTimeMillis();
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("WorldGuard průběžný profiler")
+                .setDaemon(true)
+                .build());
+        executor.scheduleAtFixedRate(this::sample, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop sampling. Collected samples are kept.
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Return whether the sampler is running.
+     *
+     * @return true if running
+     */
+    public synchronized boolean isRunning() {
+        return executor != null;
+    }
+
+    private void sample() {
+        try {
+            ThreadInfo info = threadBean.getThreadInfo(threadId, maxDepth);
+            if (info == null) {
+                log.log(Level.WARNING, "Profilované vlákno již neběží, průběžné profilování bylo zastaveno.");
+                stop();
+                return;
+            }
+            record(info.getStackTrace(), System.currentTimeMillis());
+        } catch (Throwable t) {
+            log.log(Level.WARNING, "Průběžné profilování selhalo a bylo zastaveno", t);
+            stop();
+        }
+    }
+
+    /**
+     * Record a sampled stack.
+     *
+     * @param stack the stack, with the leaf first
+     * @param now the time of the sample in milliseconds
+     */
+    synchronized void record(StackTraceElement[] stack, long now) {
+        advance(now);
+
+        if (stack.length == 0) {
+            return;
+        }
+
+        int[] ids = new int[stack.length];
+        for (int i = 0; i < stack.length; i++) {
+            ids[i] = frames.intern(stack[stack.length - 1 - i]);
+        }
+        slots[currentSlot].add(ids, 1);
+    }
+
+    private void advance(long now) {
+        if (now - slotStart >= slotLength * slots.length) {
+            for (StackSampleTable slot : slots) {
+                slot.clear();
+            }
+            slotStart = now;
+            return;
+        }
+
+        while (now - slotStart >= slotLength) {
+            currentSlot = (currentSlot + 1) % slots.length;
+            slots[currentSlot].clear();
+            slotStart += slotLength;
+        }
+    }
+
+    /**
+     * Get the number of samples in the window.
+     *
+     * @return the number of samples
+     */
+    public synchronized long getSampleCount() {
+        long count = 0;
+        for (StackSampleTable slot : slots) {
+            count += slot.getTotal();
+        }
+        return count;
+    }
+
+    /**
+     * Write the samples of the window in the collapsed stack format, with
+     * one {@code root;...;leaf count} line per distinct stack.
+     *
+     * @param out the output
+     * @throws IOException on I/O error
+     */
+    public void writeCollapsed(Appendable out) throws IOException {
+        writeCollapsed(out, System.currentTimeMillis());
+    }
+
+    synchronized void writeCollapsed(Appendable out, long now) throws IOException {
+        advance(now);
+
+        StackSampleTable merged = new StackSampleTable();
+        for (StackSampleTable slot : slots) {
+            merged.addAll(slot);
+        }
+        merged.writeCollapsed(frames, out);
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.util.profiler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns stack frames into small integer IDs, so that sampled stacks can
+ * be stored as arrays of IDs.
+ *
+ * <p>Frames are identified by class and method name only, as line numbers
+ * would split the samples of a method between many frames.</p>
+ *
+ * <p>This class is not thread safe.</p>
+ */
+final class FrameTable {
+
+    private final Map<String, Map<String, Integer>> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * Get the ID of a frame, assigning a new one if the frame has not been
+     * seen yet.
+     *
+     * @param element the stack trace element
+     * @return the ID
+     */
+    int intern(StackTraceElement element) {
+        Map<String, Integer> methods = ids.computeIfAbsent(element.getClassName(), k -> new HashMap<>());
+        Integer id = methods.get(element.getMethodName());
+        if (id == null) {
+            id = names.size();
+            names.add(element.getClassName() + "." + element.getMethodName());
+            methods.put(element.getMethodName(), id);
+        }
+        return id;
+    }
+
+    /**
+     * Get the name of a frame.
+     *
+     * @param id the ID
+     * @return the name, in the form {@code class.method}
+     */
+    String getName(int id) {
+        return names.get(id);
+    }
+
+    /**
+     * Get the number of interned frames.
+     *
+     * @return the number of frames
+     */
+    int size() {
+        return names.size();
+    }
+
+}
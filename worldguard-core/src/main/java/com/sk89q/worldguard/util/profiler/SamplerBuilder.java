@@ -25,6 +25,7 @@
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
+import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
@@ -124,7 +125,14 @@ public synchronized void run() {
                     return;
                 }
 
-                ThreadInfo[] threadDumps = threadBean.dumpAllThreads(false, false);
+                ThreadInfo[] threadDumps;
+                if (threadFilter instanceof ThreadIdFilter) {
+                    // Only dump the filtered thread, which avoids stopping every thread
+                    ThreadInfo threadInfo = threadBean.getThreadInfo(((ThreadIdFilter) threadFilter).getId(), Integer.MAX_VALUE);
+                    threadDumps = threadInfo != null ? new ThreadInfo[] { threadInfo } : new ThreadInfo[0];
+                } else {
+                    threadDumps = threadBean.dumpAllThreads(false, false);
+                }
                 for (ThreadInfo threadInfo : threadDumps) {
                     String threadName = threadInfo.getThreadName();
                     StackTraceElement[] stack = threadInfo.getStackTrace();
@@ -140,8 +148,22 @@ public synchronized void run() {
             }
         }
 
+        /**
+         * Write the samples in the collapsed stack format used by flame
+         * graph tools, with the thread name as the root frame and the
+         * sampled time in milliseconds as the count.
+         *
+         * @param out the output
+         * @throws IOException on I/O error
+         */
+        public synchronized void writeCollapsed(Appendable out) throws IOException {
+            for (Map.Entry<String, StackNode> entry : getData().entrySet()) {
+                entry.getValue().writeCollapsed(out, entry.getKey());
+            }
+        }
+
         @Override
-        public String toString() {
+        public synchronized String toString() {
             StringBuilder builder = new StringBuilder();
             for (Map.Entry<String, StackNode> entry : getData().entrySet()) {
                 builder.append(entry.getKey());
@@ -22,6 +22,7 @@
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -111,6 +112,29 @@ void writeString(StringBuilder builder, int indent) {
         }
     }
     
+    /**
+     * Write the time spent in this node and its children in the collapsed
+     * stack format, with one {@code path;...;frame time} line per node
+     * that has time of its own.
+     *
+     * @param out the output
+     * @param path the path of this node
+     * @throws IOException on I/O error
+     */
+    void writeCollapsed(Appendable out, String path) throws IOException {
+        long selfTime = totalTime;
+        for (StackNode child : children.values()) {
+            selfTime -= child.getTotalTime();
+        }
+        if (selfTime > 0) {
+            out.append(path).append(' ').append(String.valueOf(selfTime)).append('\n');
+        }
+
+        for (StackNode child : getChildren()) {
+            child.writeCollapsed(out, path + ";" + child.getName());
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
@@ -0,0 +1,133 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.util.profiler;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts samples per distinct stack, where each stack is an array of
+ * frame IDs from a {@link FrameTable}, ordered from the root to the leaf.
+ *
+ * <p>This class is not thread safe.</p>
+ */
+final class StackSampleTable {
+
+    private final Map<Stack, long[]> counts = new LinkedHashMap<>();
+    private long total;
+
+    /**
+     * Add samples of a stack.
+     *
+     * @param frames the frame IDs, which must not be modified afterwards
+     * @param samples the number of samples
+     */
+    void add(int[] frames, long samples) {
+        add(new Stack(frames), samples);
+    }
+
+    private void add(Stack stack, long samples) {
+        long[] count = counts.get(stack);
+        if (count == null) {
+            counts.put(stack, new long[] { samples });
+        } else {
+            count[0] += samples;
+        }
+        total += samples;
+    }
+
+    /**
+     * Add all samples of another table.
+     *
+     * @param other the other table
+     */
+    void addAll(StackSampleTable other) {
+        for (Map.Entry<Stack, long[]> entry : other.counts.entrySet()) {
+            add(entry.getKey(), entry.getValue()[0]);
+        }
+    }
+
+    /**
+     * Get the number of samples.
+     *
+     * @return the number of samples
+     */
+    long getTotal() {
+        return total;
+    }
+
+    /**
+     * Get the number of distinct stacks.
+     *
+     * @return the number of stacks
+     */
+    int size() {
+        return counts.size();
+    }
+
+    void clear() {
+        counts.clear();
+        total = 0;
+    }
+
+    /**
+     * Write the samples in the collapsed stack format read by flame graph
+     * tools, with one {@code root;...;leaf count} line per stack.
+     *
+     * @param frames the frame table that the IDs refer to
+     * @param out the output
+     * @throws IOException on I/O error
+     */
+    void writeCollapsed(FrameTable frames, Appendable out) throws IOException {
+        for (Map.Entry<Stack, long[]> entry : counts.entrySet()) {
+            int[] ids = entry.getKey().frames;
+            for (int i = 0; i < ids.length; i++) {
+                if (i > 0) {
+                    out.append(';');
+                }
+                out.append(frames.getName(ids[i]));
+            }
+            out.append(' ').append(String.valueOf(entry.getValue()[0])).append('\n');
+        }
+    }
+
+    private static final class Stack {
+        private final int[] frames;
+        private final int hashCode;
+
+        private Stack(int[] frames) {
+            this.frames = frames;
+            this.hashCode = Arrays.hashCode(frames);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof Stack && Arrays.equals(frames, ((Stack) o).frames));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+}
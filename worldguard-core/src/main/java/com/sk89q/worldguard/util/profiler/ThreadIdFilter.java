@@ -30,6 +30,10 @@ public ThreadIdFilter(long id) {
         this.id = id;
     }
 
+    public long getId() {
+        return id;
+    }
+
     @Override
     public boolean test(ThreadInfo threadInfo) {
         return threadInfo.getThreadId() == id;
@@ -26,23 +26,35 @@
 import com.sk89q.worldedit.world.World;
 import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.blacklist.Blacklist;
+import com.sk89q.worldguard.config.ConfigurationManager;
 import com.sk89q.worldguard.config.WorldConfiguration;
 import com.sk89q.worldguard.protection.managers.RegionManager;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ConfigReport extends DataReport {
 
     public ConfigReport() {
-        super("WorldGuard Configuration");
+        this(getConfigs(WorldEdit.getInstance().getPlatformManager().queryCapability(Capability.GAME_HOOKS).getWorlds()));
+    }
 
-        List<? extends World> worlds = WorldEdit.getInstance().getPlatformManager().queryCapability(Capability.GAME_HOOKS).getWorlds();
+    /**
+     * Create a report of the given world configurations, which may be
+     * built off the main thread.
+     *
+     * @param configs the configurations, as returned by {@link #getConfigs(List)}
+     */
+    public ConfigReport(Map<World, WorldConfiguration> configs) {
+        super("WorldGuard Configuration");
 
         append("Configuration", new HierarchyObjectReport("Configuration", WorldGuard.getInstance().getPlatform().getGlobalStateManager()));
 
-        for (World world : worlds) {
-            WorldConfiguration config = WorldGuard.getInstance().getPlatform().getGlobalStateManager().get(world);
+        for (Map.Entry<World, WorldConfiguration> entry : configs.entrySet()) {
+            World world = entry.getKey();
+            WorldConfiguration config = entry.getValue();
 
             DataReport report = new DataReport("World: " + world.getName());
             report.append("Configuration", new HierarchyObjectReport("Configuration", config));
@@ -78,4 +90,21 @@ public ConfigReport() {
         }
     }
 
+    /**
+     * Get the configuration of each of the given worlds, which must be
+     * done on the main thread because configurations are loaded on
+     * demand.
+     *
+     * @param worlds the worlds
+     * @return the configurations, in the order of the worlds
+     */
+    public static Map<World, WorldConfiguration> getConfigs(List<? extends World> worlds) {
+        ConfigurationManager manager = WorldGuard.getInstance().getPlatform().getGlobalStateManager();
+        Map<World, WorldConfiguration> configs = new LinkedHashMap<>();
+        for (World world : worlds) {
+            configs.put(world, manager.get(world));
+        }
+        return configs;
+    }
+
 }
@@ -0,0 +1,107 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.util.report;
+
+import com.sk89q.worldedit.util.report.DataReport;
+import com.sk89q.worldguard.util.trace.QueryTrace;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public class QueryTraceReport extends DataReport {
+
+    private static final int TOP_COUNT = 15;
+
+    public QueryTraceReport(List<QueryTrace> traces, int sampleRate) {
+        super("Region Query Traces");
+
+        long totalNanos = 0;
+        long queryCount = 0;
+        for (QueryTrace trace : traces) {
+            totalNanos += trace.getNanos();
+            queryCount += trace.getQueryCount();
+        }
+
+        append("Sample Rate", "1/" + sampleRate);
+        append("Sampled Events", traces.size());
+        append("Region Queries", queryCount);
+        append("Total Time", "%.3f ms", totalNanos / 1e6);
+
+        appendTop("Event Types", traces, QueryTrace::getEventType);
+        appendTop("Chunks", traces, trace -> trace.getWorld() != null
+                ? trace.getWorld() + " @ " + trace.getChunkX() + ", " + trace.getChunkZ()
+                : null);
+        appendTopAll("Regions", traces, QueryTrace::getRegions);
+        appendTopAll("Flags", traces, QueryTrace::getFlags);
+    }
+
+    private void appendTop(String title, List<QueryTrace> traces, Function<QueryTrace, String> key) {
+        Map<String, Stat> stats = new HashMap<>();
+        for (QueryTrace trace : traces) {
+            String name = key.apply(trace);
+            if (name != null) {
+                stats.computeIfAbsent(name, k -> new Stat()).add(trace);
+            }
+        }
+        appendStats(title, stats);
+    }
+
+    private void appendTopAll(String title, List<QueryTrace> traces, Function<QueryTrace, Iterable<String>> keys) {
+        Map<String, Stat> stats = new HashMap<>();
+        for (QueryTrace trace : traces) {
+            for (String name : keys.apply(trace)) {
+                stats.computeIfAbsent(name, k -> new Stat()).add(trace);
+            }
+        }
+        appendStats(title, stats);
+    }
+
+    private void appendStats(String title, Map<String, Stat> stats) {
+        List<Map.Entry<String, Stat>> sorted = new ArrayList<>(stats.entrySet());
+        sorted.sort((a, b) -> Long.compare(b.getValue().nanos, a.getValue().nanos));
+
+        DataReport section = new DataReport(title);
+        if (sorted.isEmpty()) {
+            section.append("Entries", "<None>");
+        }
+        for (Map.Entry<String, Stat> entry : sorted.subList(0, Math.min(TOP_COUNT, sorted.size()))) {
+            Stat stat = entry.getValue();
+            section.append(entry.getKey(), "%d events, %.3f ms total, %.1f µs avg, %d regions max",
+                    stat.count, stat.nanos / 1e6, stat.nanos / 1e3 / stat.count, stat.regionCount);
+        }
+        append(section.getTitle(), section);
+    }
+
+    private static final class Stat {
+        private int count;
+        private long nanos;
+        private int regionCount;
+
+        private void add(QueryTrace trace) {
+            count++;
+            nanos += trace.getNanos();
+            regionCount = Math.max(regionCount, trace.getRegionCount());
+        }
+    }
+
+}
@@ -0,0 +1,190 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.util.report;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+import com.sk89q.worldedit.util.report.Report;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Writes a report made of several sections to a file.
+ *
+ * <p>Sections are added either as finished reports or as suppliers that
+ * build the report from data captured beforehand. Data that may only be
+ * read on the main thread must be captured when the section is added;
+ * the suppliers and the formatting of every section then run in parallel
+ * off the main thread. Each section is written to the file as soon as it
+ * and the sections added before it are done, so that the whole report is
+ * never held in memory as a single string.</p>
+ */
+public final class ReportWriter {
+
+    private final String title;
+    private final List<Supplier<? extends Report>> sections = new ArrayList<>();
+
+    /**
+     * Create a new instance.
+     *
+     * @param title the title of the report
+     */
+    public ReportWriter(String title) {
+        checkNotNull(title);
+        this.title = title;
+    }
+
+    /**
+     * Add a finished section, which is formatted off the main thread.
+     *
+     * @param report the section
+     */
+    public void add(Report report) {
+        checkNotNull(report);
+        sections.add(() -> report);
+    }
+
+    /**
+     * Add a section that is built off the main thread.
+     *
+     * @param section a supplier of the section
+     */
+    public void addDeferred(Supplier<? extends Report> section) {
+        checkNotNull(section);
+        sections.add(section);
+    }
+
+    /**
+     * Build, format and write the sections.
+     *
+     * <p>Sections are built and formatted in parallel on the common pool.
+     * Each formatted section is written on the given executor once the
+     * sections before it have been written, so that the executor is never
+     * blocked waiting for a section and a formatted section is dropped as
+     * soon as it is in the file. A section that fails is replaced with the
+     * error in the report.</p>
+     *
+     * @param executor the executor to write the file with
+     * @param file the file
+     * @return a future of the file
+     * @throws RejectedExecutionException if the executor has been shut down
+     */
+    public ListenableFuture<File> write(ListeningExecutorService executor, File file) {
+        checkNotNull(executor);
+        checkNotNull(file);
+
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("The executor has been shut down");
+        }
+
+        List<CompletableFuture<String>> formatted = new ArrayList<>(sections.size());
+        for (Supplier<? extends Report> section : sections) {
+            formatted.add(CompletableFuture.supplyAsync(() -> section.get().toString()));
+        }
+
+        Output out = new Output(file);
+        CompletableFuture<Void> written = CompletableFuture.runAsync(() -> out.write(
+                "================================\n" +
+                " BEGIN REPORT: " + title + "\n" +
+                "================================\n\n"), executor);
+        for (CompletableFuture<String> future : formatted) {
+            CompletableFuture<String> section = future.handle((text, e) -> {
+                if (e != null) {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    return "<Section failed: " + cause + ">";
+                }
+                return text;
+            });
+            written = written.thenCombineAsync(section, (ignored, text) -> {
+                out.write(text);
+                out.write("\n");
+                return null;
+            }, executor);
+        }
+
+        SettableFuture<File> result = SettableFuture.create();
+        written.whenComplete((ignored, e) -> {
+            Throwable error = e;
+            try {
+                out.close();
+            } catch (IOException closeError) {
+                if (error == null) {
+                    error = closeError;
+                }
+            }
+            if (error == null) {
+                result.set(file);
+            } else {
+                if (error instanceof CompletionException && error.getCause() != null) {
+                    error = error.getCause();
+                }
+                if (error instanceof UncheckedIOException) {
+                    error = error.getCause();
+                }
+                result.setException(error);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * The file being written, opened when the first text is written.
+     */
+    private static final class Output {
+        private final File file;
+        private Writer writer;
+
+        private Output(File file) {
+            this.file = file;
+        }
+
+        private synchronized void write(String text) {
+            try {
+                if (writer == null) {
+                    writer = Files.newWriter(file, StandardCharsets.UTF_8);
+                }
+                writer.write(text);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private synchronized void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.util.trace;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A sampled event, together with the region queries done while the event
+ * was being handled.
+ *
+ * <p>A trace is only filled in by the thread handling the event, and it is
+ * not modified once {@link QueryTracer#end(QueryTrace, String)} publishes
+ * it.</p>
+ */
+public final class QueryTrace {
+
+    private final long start;
+    private String eventType = "";
+    @Nullable
+    private String world;
+    private int chunkX;
+    private int chunkZ;
+    private int queryCount;
+    private int regionCount;
+    private final Set<String> regions = new LinkedHashSet<>();
+    private final Set<String> flags = new LinkedHashSet<>();
+    private long nanos;
+
+    QueryTrace(long start) {
+        this.start = start;
+    }
+
+    void addQuery(String world, int chunkX, int chunkZ, Iterable<String> regionIds, int regionCount) {
+        if (this.world == null) {
+            this.world = world;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+        for (String id : regionIds) {
+            regions.add(id);
+        }
+        this.regionCount = Math.max(this.regionCount, regionCount);
+        queryCount++;
+    }
+
+    void addFlag(String flag) {
+        flags.add(flag);
+    }
+
+    void finish(String eventType, long end) {
+        this.eventType = eventType;
+        this.nanos = end - start;
+    }
+
+    /**
+     * Get the type of the event.
+     *
+     * @return the event type
+     */
+    public String getEventType() {
+        return eventType;
+    }
+
+    /**
+     * Get the name of the world of the first region query.
+     *
+     * @return the world name, or {@code null} if no region was queried
+     */
+    @Nullable
+    public String getWorld() {
+        return world;
+    }
+
+    /**
+     * Get the X coordinate of the chunk of the first region query.
+     *
+     * @return the chunk X coordinate
+     */
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    /**
+     * Get the Z coordinate of the chunk of the first region query.
+     *
+     * @return the chunk Z coordinate
+     */
+    public int getChunkZ() {
+        return chunkZ;
+    }
+
+    /**
+     * Get the number of region queries done for the event.
+     *
+     * @return the number of queries
+     */
+    public int getQueryCount() {
+        return queryCount;
+    }
+
+    /**
+     * Get the largest number of regions returned by a single query.
+     *
+     * @return the number of regions
+     */
+    public int getRegionCount() {
+        return regionCount;
+    }
+
+    /**
+     * Get the IDs of the regions returned by the queries.
+     *
+     * @return a set of region IDs
+     */
+    public Set<String> getRegions() {
+        return Collections.unmodifiableSet(regions);
+    }
+
+    /**
+     * Get the names of the flags that were evaluated.
+     *
+     * @return a set of flag names
+     */
+    public Set<String> getFlags() {
+        return Collections.unmodifiableSet(flags);
+    }
+
+    /**
+     * Get the time taken to handle the event.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+}
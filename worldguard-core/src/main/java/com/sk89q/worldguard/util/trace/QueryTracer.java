@@ -0,0 +1,203 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.util.trace;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.worldedit.util.Location;
+import com.sk89q.worldedit.world.World;
+import com.sk89q.worldguard.protection.ApplicableRegionSet;
+import com.sk89q.worldguard.protection.flags.Flag;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples one in every N events and records the region queries and flag
+ * evaluations done while handling them.
+ *
+ * <p>A sampled event is started with {@link #begin()} and finished with
+ * {@link #end(QueryTrace, String)} on the same thread. In between, region
+ * queries and flag evaluations made by that thread are added to the trace.
+ * Finished traces are kept in a ring buffer, so that only the most recent
+ * ones are available.</p>
+ *
+ * <p>When tracing is disabled, or the current thread is not handling a
+ * sampled event, recording costs a volatile read and a thread local
+ * lookup at most.</p>
+ *
+ * <p>This class is thread safe.</p>
+ */
+public final class QueryTracer {
+
+    /**
+     * The default number of traces kept.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final ThreadLocal<QueryTrace> active = new ThreadLocal<>();
+    private volatile int sampleRate;
+    private QueryTrace[] buffer = new QueryTrace[DEFAULT_CAPACITY];
+    private long written;
+
+    /**
+     * Set how often events are sampled and how many traces are kept.
+     *
+     * <p>Traces recorded so far are discarded.</p>
+     *
+     * @param sampleRate one in how many events is sampled, or 0 to disable tracing
+     * @param capacity the number of traces kept
+     */
+    public synchronized void configure(int sampleRate, int capacity) {
+        checkArgument(sampleRate >= 0, "sampleRate must be >= 0");
+        checkArgument(capacity > 0, "capacity must be > 0");
+        this.buffer = new QueryTrace[capacity];
+        this.written = 0;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Return whether tracing is enabled.
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return sampleRate > 0;
+    }
+
+    /**
+     * Get one in how many events is sampled.
+     *
+     * @return the sample rate, or 0 if disabled
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Start handling an event, which may be chosen for sampling.
+     *
+     * <p>Events started while another sampled event is being handled by
+     * the same thread are not sampled, and their queries are added to the
+     * outer trace.</p>
+     *
+     * @return a trace if the event is sampled, otherwise {@code null}
+     */
+    @Nullable
+    public QueryTrace begin() {
+        int rate = sampleRate;
+        if (rate == 0 || active.get() != null) {
+            return null;
+        }
+        if (rate > 1 && ThreadLocalRandom.current().nextInt(rate) != 0) {
+            return null;
+        }
+
+        QueryTrace trace = new QueryTrace(System.nanoTime());
+        active.set(trace);
+        return trace;
+    }
+
+    /**
+     * Finish handling an event.
+     *
+     * @param trace the trace returned by {@link #begin()}, which may be {@code null}
+     * @param eventType the type of the event
+     */
+    public void end(@Nullable QueryTrace trace, String eventType) {
+        if (trace == null) {
+            return;
+        }
+
+        trace.finish(eventType, System.nanoTime());
+        active.remove();
+        add(trace);
+    }
+
+    /**
+     * Record a region query made by the current thread.
+     *
+     * @param location the queried location
+     * @param set the result of the query
+     */
+    public void recordQuery(Location location, ApplicableRegionSet set) {
+        QueryTrace trace = getActive();
+        if (trace == null) {
+            return;
+        }
+
+        List<String> ids = new ArrayList<>();
+        for (ProtectedRegion region : set) {
+            ids.add(region.getId());
+        }
+        trace.addQuery(((World) location.getExtent()).getName(),
+                location.getBlockX() >> 4, location.getBlockZ() >> 4, ids, ids.size());
+    }
+
+    /**
+     * Record a flag evaluation made by the current thread.
+     *
+     * @param flag the flag
+     */
+    public void recordFlag(Flag<?> flag) {
+        QueryTrace trace = getActive();
+        if (trace != null) {
+            trace.addFlag(flag.getName());
+        }
+    }
+
+    @Nullable
+    private QueryTrace getActive() {
+        return sampleRate == 0 ? null : active.get();
+    }
+
+    private synchronized void add(QueryTrace trace) {
+        checkNotNull(trace);
+        buffer[(int) (written % buffer.length)] = trace;
+        written++;
+    }
+
+    /**
+     * Get the traces that are kept, oldest first.
+     *
+     * @return a list of traces
+     */
+    public synchronized List<QueryTrace> getTraces() {
+        int count = (int) Math.min(written, buffer.length);
+        List<QueryTrace> traces = new ArrayList<>(count);
+        for (long i = written - count; i < written; i++) {
+            traces.add(buffer[(int) (i % buffer.length)]);
+        }
+        return traces;
+    }
+
+    /**
+     * Discard all traces.
+     */
+    public synchronized void clear() {
+        buffer = new QueryTrace[buffer.length];
+        written = 0;
+    }
+
+}
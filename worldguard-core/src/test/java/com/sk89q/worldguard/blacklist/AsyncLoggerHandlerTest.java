@@ -0,0 +1,165 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.blacklist;
+
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.LocalPlayer;
+import com.sk89q.worldguard.blacklist.event.BlacklistEvent;
+import com.sk89q.worldguard.blacklist.event.EventType;
+import com.sk89q.worldguard.blacklist.logger.AsyncLoggerHandler;
+import com.sk89q.worldguard.blacklist.logger.AsyncLoggerHandler.OverflowPolicy;
+import com.sk89q.worldguard.blacklist.logger.LoggedEvent;
+import com.sk89q.worldguard.blacklist.logger.LoggerHandler;
+import com.sk89q.worldguard.blacklist.target.Target;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncLoggerHandlerTest {
+
+    private static final Logger log = Logger.getLogger(AsyncLoggerHandlerTest.class.getCanonicalName());
+
+    @Test
+    public void testEventsWrittenInOrder() {
+        RecordingHandler delegate = new RecordingHandler(null);
+        AsyncLoggerHandler handler = new AsyncLoggerHandler(delegate, 100, OverflowPolicy.DROP, "test", log);
+
+        for (int i = 0; i < 50; i++) {
+            handler.logEvent(new TestEvent(), "event " + i);
+        }
+        handler.close();
+
+        assertEquals(50, delegate.comments.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals("event " + i, delegate.comments.get(i));
+        }
+        assertEquals(50, handler.getQueuedCount());
+        assertEquals(50, handler.getWrittenCount());
+        assertEquals(0, handler.getDroppedCount());
+        assertTrue(delegate.closed);
+    }
+
+    @Test
+    public void testDropWhenFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingHandler delegate = new RecordingHandler(release);
+        AsyncLoggerHandler handler = new AsyncLoggerHandler(delegate, 2, OverflowPolicy.DROP, "test", log);
+
+        handler.logEvent(new TestEvent(), "first");
+        assertTrue(delegate.started.await(5, TimeUnit.SECONDS)); // The writer is now stuck on the first event
+
+        handler.logEvent(new TestEvent(), "second");
+        handler.logEvent(new TestEvent(), "third");
+        handler.logEvent(new TestEvent(), "fourth");
+        assertEquals(1, handler.getDroppedCount());
+
+        release.countDown();
+        handler.close();
+        assertEquals(3, handler.getWrittenCount());
+        assertEquals(3, delegate.comments.size());
+    }
+
+    private static final class RecordingHandler implements LoggerHandler {
+        private final List<String> comments = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release;
+        private volatile boolean closed;
+
+        private RecordingHandler(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void logEvent(BlacklistEvent event, String comment) {
+            logEvents(Collections.singletonList(new LoggedEvent(event, comment, 0)));
+        }
+
+        @Override
+        public void logEvents(List<LoggedEvent> events) {
+            started.countDown();
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            for (LoggedEvent event : events) {
+                comments.add(event.getComment());
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static final class TestEvent implements BlacklistEvent {
+        @Override
+        public LocalPlayer getPlayer() {
+            return null;
+        }
+
+        @Override
+        public String getCauseName() {
+            return "test";
+        }
+
+        @Override
+        public BlockVector3 getPosition() {
+            return BlockVector3.ZERO;
+        }
+
+        @Override
+        public BlockVector3 getLoggedPosition() {
+            return BlockVector3.ZERO;
+        }
+
+        @Override
+        public Target getTarget() {
+            return null;
+        }
+
+        @Override
+        public String getDescription() {
+            return "test";
+        }
+
+        @Override
+        public String getLoggerMessage() {
+            return "test";
+        }
+
+        @Override
+        public EventType getEventType() {
+            return EventType.BREAK;
+        }
+    }
+
+}
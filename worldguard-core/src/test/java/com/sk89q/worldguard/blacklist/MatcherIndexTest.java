@@ -0,0 +1,137 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.blacklist;
+
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.blacklist.action.Action;
+import com.sk89q.worldguard.blacklist.action.ActionResult;
+import com.sk89q.worldguard.blacklist.event.BlockBreakBlacklistEvent;
+import com.sk89q.worldguard.blacklist.event.BlockPlaceBlacklistEvent;
+import com.sk89q.worldguard.blacklist.event.EventType;
+import com.sk89q.worldguard.blacklist.target.Target;
+import com.sk89q.worldguard.blacklist.target.TargetMatcher;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MatcherIndexTest {
+
+    private static final Target STONE = new TestTarget("stone");
+    private static final Target DIRT = new TestTarget("dirt");
+
+    @Test
+    public void testBucketsByEventType() {
+        Blacklist blacklist = new Blacklist(false);
+        BlacklistEntry entry = new BlacklistEntry(blacklist);
+        entry.getActions(EventType.BREAK.getEventClass()).add(deny());
+
+        MatcherIndex index = new MatcherIndex.Builder().add(new TestMatcher("stone"), entry).build(false);
+
+        assertEquals(1, index.size());
+        assertEquals(1, index.getRules(STONE, EventType.BREAK).length);
+        assertEquals(0, index.getRules(STONE, EventType.PLACE).length);
+        assertEquals(0, index.getRules(DIRT, EventType.BREAK).length);
+        assertSame(index.getRules(DIRT, EventType.BREAK), index.getRules(STONE, EventType.PLACE));
+    }
+
+    @Test
+    public void testWhitelistKeepsEntriesWithoutActions() {
+        Blacklist blacklist = new Blacklist(true);
+        BlacklistEntry entry = new BlacklistEntry(blacklist);
+
+        MatcherIndex index = new MatcherIndex.Builder().add(new TestMatcher("stone"), entry).build(true);
+
+        assertEquals(1, index.getRules(STONE, EventType.PLACE).length);
+        assertTrue(index.getRules(STONE, EventType.PLACE)[0].getActions().isEmpty());
+    }
+
+    @Test
+    public void testRepeatTracker() {
+        RepeatTracker tracker = new RepeatTracker();
+        assertFalse(tracker.isRepeated(1, EventType.BREAK, 0));
+        assertTrue(tracker.isRepeated(1, EventType.BREAK, 1000));
+        assertFalse(tracker.isRepeated(1, EventType.PLACE, 1000));
+        assertFalse(tracker.isRepeated(2, EventType.PLACE, 1000));
+        assertFalse(tracker.isRepeated(1, EventType.PLACE, 5000));
+    }
+
+    @Test
+    public void testRepeatTrackerPurgesExpired() {
+        RepeatTracker tracker = new RepeatTracker();
+        for (int i = 0; i < 64; i++) {
+            tracker.isRepeated(i, EventType.BREAK, 0);
+        }
+        assertEquals(64, tracker.size());
+
+        tracker.isRepeated(1000, EventType.BREAK, RepeatTracker.EXPIRY);
+        assertEquals(1, tracker.size());
+    }
+
+    @Test
+    public void testRepeatKeyByPosition() {
+        long key = RepeatTracker.getKey(new BlockBreakBlacklistEvent(null, BlockVector3.at(1, 2, 3), STONE));
+        assertEquals(key, RepeatTracker.getKey(new BlockPlaceBlacklistEvent(null, BlockVector3.at(1, 2, 3), STONE)));
+        assertFalse(key == RepeatTracker.getKey(new BlockBreakBlacklistEvent(null, BlockVector3.at(1, 3, 2), STONE)));
+    }
+
+    private static Action deny() {
+        return (event, silent, repeating, forceRepeat) -> ActionResult.DENY;
+    }
+
+    private static class TestTarget implements Target {
+        private final String typeId;
+
+        private TestTarget(String typeId) {
+            this.typeId = typeId;
+        }
+
+        @Override
+        public String getTypeId() {
+            return typeId;
+        }
+
+        @Override
+        public String getFriendlyName() {
+            return typeId;
+        }
+    }
+
+    private static class TestMatcher implements TargetMatcher {
+        private final String typeId;
+
+        private TestMatcher(String typeId) {
+            this.typeId = typeId;
+        }
+
+        @Override
+        public String getMatchedTypeId() {
+            return typeId;
+        }
+
+        @Override
+        public boolean test(Target target) {
+            return target.getTypeId().equals(typeId);
+        }
+    }
+
+}
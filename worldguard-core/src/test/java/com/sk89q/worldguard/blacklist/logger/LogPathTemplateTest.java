@@ -0,0 +1,74 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.blacklist.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LogPathTemplateTest {
+
+    private static long time(int year, int month, int day, int hour, int minute) {
+        return new GregorianCalendar(year, month, day, hour, minute, 30).getTimeInMillis();
+    }
+
+    @Test
+    public void testPlaceholders() {
+        LogPathTemplate template = new LogPathTemplate("logs/%w/%u-%Y-%m-%d-%H%i%s-%x-100%%.log", "My World");
+        long time = time(2024, Calendar.MARCH, 7, 14, 5);
+        // Months are numbered from 0, as they always have been
+        assertEquals("logs/my_world/alice_-2024-02-07-140530-?-100%.log", template.build("Alice!", time));
+    }
+
+    @Test
+    public void testPlayerRequired() {
+        LogPathTemplate template = new LogPathTemplate("logs/%u.log", "world");
+        assertNull(template.build(null, time(2024, Calendar.MARCH, 7, 14, 5)));
+        assertEquals("logs/bob.log", template.build("Bob", time(2024, Calendar.MARCH, 7, 14, 5)));
+        assertEquals("logs/%.log", new LogPathTemplate("logs/%%.log", "world").build(null, 0));
+    }
+
+    @Test
+    public void testRollover() {
+        LogPathTemplate template = new LogPathTemplate("logs/%Y-%m-%d.log", "world");
+        long morning = time(2024, Calendar.DECEMBER, 31, 8, 0);
+        assertEquals("logs/2024-11-31.log", template.build(null, morning));
+        assertFalse(template.rollsOver(time(2024, Calendar.DECEMBER, 31, 23, 59)));
+
+        long nextYear = time(2025, Calendar.JANUARY, 1, 0, 0);
+        assertTrue(template.rollsOver(nextYear));
+        assertEquals("logs/2025-00-01.log", template.build(null, nextYear));
+        assertFalse(template.rollsOver(nextYear));
+    }
+
+    @Test
+    public void testNoTimeFields() {
+        LogPathTemplate template = new LogPathTemplate("logs/%w.log", "world");
+        assertEquals("logs/world.log", template.build(null, 0));
+        assertFalse(template.rollsOver(Long.MAX_VALUE));
+    }
+
+}
@@ -19,9 +19,12 @@
 
 package com.sk89q.worldguard.domains;
 
+import com.google.common.collect.ImmutableSet;
 import com.sk89q.worldguard.TestPlayer;
 import org.junit.jupiter.api.Test;
 
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -113,4 +116,33 @@ public void testContains() throws Exception {
         assertTrue(domain.contains(player2));
         assertTrue(domain.contains(player3));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testContainsCachedGroups() throws Exception {
+        TestPlayer player = new TestPlayer("test1") {
+            @Override
+            public boolean hasGroup(String group) {
+                throw new AssertionError("Skupiny měly být načteny z mezipaměti");
+            }
+
+            @Override
+            public Set<String> getCachedGroups() {
+                return ImmutableSet.of("group1", "group2");
+            }
+        };
+
+        DefaultDomain domain;
+
+        domain = new DefaultDomain();
+        domain.addGroup("Group2");
+        assertTrue(domain.contains(player));
+
+        domain = new DefaultDomain();
+        domain.addGroup("group3");
+        assertFalse(domain.contains(player));
+
+        domain = new DefaultDomain();
+        domain.addPlayer("test2");
+        assertFalse(domain.contains(player));
+    }
+}
@@ -33,6 +33,7 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ApplicableRegionSetTest {
@@ -640,6 +641,30 @@ public void testGlobalRegionCommandBlacklistWithRegionWhitelist() {
         assertFalse(test.apply("/deny"));
     }
 
+    @Test
+    public void testCommandFilterReused() {
+        MockApplicableRegionSet mock = new MockApplicableRegionSet();
+        LocalPlayer nonMember = mock.createPlayer();
+
+        ProtectedRegion region = mock.add(0);
+        Set<String> blocked = new HashSet<>();
+        blocked.add("/deny");
+        region.setFlag(Flags.BLOCKED_CMDS, blocked);
+
+        ApplicableRegionSet set = mock.getApplicableSet();
+        CommandFilter test = set.getCommandFilter(nonMember);
+        assertSame(test, set.getCommandFilter(nonMember));
+        assertFalse(test.apply("/deny"));
+        assertTrue(test.apply("/other"));
+
+        Set<String> allowed = new HashSet<>();
+        allowed.add("/permit");
+        region.setFlag(Flags.ALLOWED_CMDS, allowed);
+        test = set.getCommandFilter(nonMember);
+        assertTrue(test.apply("/permit"));
+        assertFalse(test.apply("/other"));
+    }
+
     @Test
     public void testRegionSetReturnsNullForUnsetState() {
         MockApplicableRegionSet mock = new MockApplicableRegionSet();
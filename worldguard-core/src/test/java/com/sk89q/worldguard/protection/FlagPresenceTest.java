@@ -0,0 +1,97 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.protection;
+
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.protection.flags.Flags;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.managers.index.HashMapIndex;
+import com.sk89q.worldguard.protection.managers.storage.MemoryRegionDatabase;
+import com.sk89q.worldguard.protection.regions.GlobalProtectedRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FlagPresenceTest {
+
+    @Test
+    public void testPresenceFollowsChanges() {
+        RegionManager manager = new RegionManager(new MemoryRegionDatabase(), new HashMapIndex.Factory(),
+                WorldGuard.getInstance().getFlagRegistry());
+        ProtectedRegion global = new GlobalProtectedRegion(ProtectedRegion.GLOBAL_REGION);
+        ProtectedRegion region = new ProtectedCuboidRegion("test", BlockVector3.at(0, 0, 0), BlockVector3.at(10, 10, 10));
+        manager.addRegion(global);
+        manager.addRegion(region);
+
+        assertFalse(manager.isFlagPresent(Flags.GREET_MESSAGE));
+
+        region.setFlag(Flags.GREET_MESSAGE, "Ahoj");
+        assertTrue(manager.isFlagPresent(Flags.GREET_MESSAGE));
+        assertFalse(manager.isFlagPresent(Flags.FAREWELL_MESSAGE));
+
+        global.setFlag(Flags.FAREWELL_MESSAGE, "Nashledanou");
+        assertTrue(manager.isFlagPresent(Flags.FAREWELL_MESSAGE));
+
+        manager.removeRegion("test");
+        assertFalse(manager.isFlagPresent(Flags.GREET_MESSAGE));
+    }
+
+    @Test
+    public void testPresenceCountsRegions() {
+        RegionManager manager = new RegionManager(new MemoryRegionDatabase(), new HashMapIndex.Factory(),
+                WorldGuard.getInstance().getFlagRegistry());
+        ProtectedRegion first = new ProtectedCuboidRegion("first", BlockVector3.at(0, 0, 0), BlockVector3.at(10, 10, 10));
+        ProtectedRegion second = new ProtectedCuboidRegion("second", BlockVector3.at(20, 0, 0), BlockVector3.at(30, 10, 10));
+        first.setFlag(Flags.GREET_MESSAGE, "Ahoj");
+        manager.addRegion(first);
+        manager.addRegion(second);
+
+        second.setFlag(Flags.GREET_MESSAGE, "Nazdar");
+        second.setFlag(Flags.GREET_MESSAGE, "Čau");
+        first.setFlag(Flags.GREET_MESSAGE, null);
+        assertTrue(manager.isFlagPresent(Flags.GREET_MESSAGE));
+
+        second.setFlags(Collections.emptyMap());
+        assertFalse(manager.isFlagPresent(Flags.GREET_MESSAGE));
+    }
+
+    @Test
+    public void testRegionSetPresence() {
+        ProtectedRegion parent = new ProtectedCuboidRegion("parent", BlockVector3.at(0, 0, 0), BlockVector3.at(10, 10, 10));
+        ProtectedRegion child = new ProtectedCuboidRegion("child", BlockVector3.at(0, 0, 0), BlockVector3.at(5, 5, 5));
+        parent.setFlag(Flags.HEAL_AMOUNT, 1);
+
+        RegionResultSet set = new RegionResultSet(Collections.singletonList(child), null);
+        assertFalse(set.isFlagPresent(Flags.HEAL_AMOUNT));
+
+        try {
+            child.setParent(parent);
+        } catch (ProtectedRegion.CircularInheritanceException ignored) {
+        }
+        assertTrue(set.isFlagPresent(Flags.HEAL_AMOUNT));
+    }
+
+}
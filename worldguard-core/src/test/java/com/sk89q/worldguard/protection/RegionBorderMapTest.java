@@ -0,0 +1,99 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.protection;
+
+import com.sk89q.worldedit.math.BlockVector2;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.flags.Flags;
+import com.sk89q.worldguard.protection.flags.StateFlag;
+import com.sk89q.worldguard.protection.managers.index.RegionBorderMap;
+import com.sk89q.worldguard.protection.regions.GlobalProtectedRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RegionBorderMapTest {
+
+    private ProtectedRegion outer;
+    private ProtectedRegion inner;
+    private RegionBorderMap map;
+
+    @BeforeEach
+    public void setUp() {
+        outer = new ProtectedCuboidRegion("outer", BlockVector3.at(-10, 0, -10), BlockVector3.at(10, 100, 10));
+        inner = new ProtectedCuboidRegion("inner", BlockVector3.at(2, 50, 2), BlockVector3.at(5, 60, 5));
+        map = new RegionBorderMap(BlockVector2.at(0, 0),
+                Arrays.asList(new GlobalProtectedRegion("__global__"), outer, inner));
+    }
+
+    @Test
+    public void testGlobalRegionIgnored() {
+        assertEquals(2, map.getRegions().size());
+        assertTrue(map.isCompact());
+    }
+
+    @Test
+    public void testMasks() {
+        assertEquals(0, map.getRegionMask(12, 10, 12));
+        assertEquals(Arrays.asList(outer), map.getRegions(map.getRegionMask(1, 10, 1)));
+        assertEquals(Arrays.asList(outer, inner), map.getRegions(map.getRegionMask(3, 55, 3)));
+        assertEquals(Arrays.asList(outer), map.getRegions(map.getRegionMask(3, 61, 3)));
+    }
+
+    @Test
+    public void testCrossesBorder() {
+        assertFalse(map.crossesBorder(BlockVector3.at(0, 10, 0), BlockVector3.at(1, 10, 0)));
+        assertFalse(map.crossesBorder(BlockVector3.at(3, 55, 3), BlockVector3.at(3, 54, 3)));
+        assertTrue(map.crossesBorder(BlockVector3.at(10, 10, 0), BlockVector3.at(11, 10, 0)));
+        assertTrue(map.crossesBorder(BlockVector3.at(3, 50, 3), BlockVector3.at(3, 49, 3)));
+        assertTrue(map.crossesBorder(BlockVector3.at(15, 10, 0), BlockVector3.at(16, 10, 0)));
+    }
+
+    @Test
+    public void testFlagMask() {
+        assertEquals(0, map.getFlagMask(Flags.ENTRY, 0));
+
+        inner.setFlag(Flags.ENTRY, StateFlag.State.DENY);
+        assertEquals(0, map.getFlagMask(Flags.ENTRY, 0)); // Memoized
+        assertEquals(2, map.getFlagMask(Flags.ENTRY, 1));
+
+        assertFalse(map.intersects(1, 10, 1, map.getFlagMask(Flags.ENTRY, 1)));
+        assertFalse(map.intersects(3, 61, 3, map.getFlagMask(Flags.ENTRY, 1)));
+        assertTrue(map.intersects(3, 55, 3, map.getFlagMask(Flags.ENTRY, 1)));
+    }
+
+    @Test
+    public void testFlagMaskInherited() throws Exception {
+        ProtectedRegion parent = new ProtectedCuboidRegion("parent", BlockVector3.at(100, 0, 100), BlockVector3.at(110, 10, 110));
+        parent.setFlag(Flags.EXIT, StateFlag.State.DENY);
+        outer.setParent(parent);
+
+        assertEquals(1, map.getFlagMask(Flags.EXIT, 0));
+        assertTrue(map.intersects(1, 10, 1, map.getFlagMask(Flags.EXIT, 0)));
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.protection;
+
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.domains.DefaultDomain;
+import com.sk89q.worldguard.protection.flags.Flag;
+import com.sk89q.worldguard.protection.flags.FlagContext;
+import com.sk89q.worldguard.protection.flags.Flags;
+import com.sk89q.worldguard.protection.flags.StateFlag;
+import com.sk89q.worldguard.protection.managers.RegionChangeSet;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.managers.RegionSelectors;
+import com.sk89q.worldguard.protection.managers.index.HashMapIndex;
+import com.sk89q.worldguard.protection.managers.storage.MemoryRegionDatabase;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RegionBulkTest {
+
+    private RegionManager manager;
+    private ProtectedRegion parent;
+    private ProtectedRegion plot1;
+    private ProtectedRegion plot2;
+    private ProtectedRegion other;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        manager = new RegionManager(new MemoryRegionDatabase(), new HashMapIndex.Factory(),
+                WorldGuard.getInstance().getFlagRegistry());
+        parent = new ProtectedCuboidRegion("parent", BlockVector3.at(0, 0, 0), BlockVector3.at(100, 100, 100));
+        plot1 = new ProtectedCuboidRegion("plot1", BlockVector3.at(0, 0, 0), BlockVector3.at(10, 10, 10));
+        plot2 = new ProtectedCuboidRegion("plot2", BlockVector3.at(20, 0, 0), BlockVector3.at(30, 10, 10));
+        other = new ProtectedCuboidRegion("other", BlockVector3.at(200, 0, 0), BlockVector3.at(210, 10, 10));
+        plot1.setParent(parent);
+        plot2.setParent(parent);
+        manager.addRegion(parent);
+        manager.addRegion(plot1);
+        manager.addRegion(plot2);
+        manager.addRegion(other);
+        for (ProtectedRegion region : manager.getRegions().values()) {
+            region.setDirty(false);
+        }
+    }
+
+    @Test
+    public void testFlagByParent() {
+        plot2.setFlag(Flags.PVP, StateFlag.State.DENY);
+        plot2.setDirty(false);
+
+        List<ProtectedRegion> changed = manager.applyBulk(RegionSelectors.childrenOf(parent),
+                new RegionChangeSet().setFlag(Flags.PVP, StateFlag.State.DENY));
+
+        assertEquals(Collections.singletonList(plot1), changed);
+        assertEquals(StateFlag.State.DENY, plot1.getFlag(Flags.PVP));
+        assertTrue(plot1.isDirty());
+        assertFalse(plot2.isDirty()); // Already had the value
+        assertNull(parent.getFlag(Flags.PVP));
+        assertNull(other.getFlag(Flags.PVP));
+    }
+
+    @Test
+    public void testMembersByFlag() {
+        other.setFlag(Flags.PVP, StateFlag.State.ALLOW);
+
+        DefaultDomain members = new DefaultDomain();
+        members.addPlayer("alice");
+        List<ProtectedRegion> changed = manager.applyBulk(RegionSelectors.withFlag(Flags.PVP, StateFlag.State.ALLOW),
+                new RegionChangeSet().addMembers(members));
+
+        assertEquals(Collections.singletonList(other), changed);
+        assertTrue(other.getMembers().contains("alice"));
+        assertFalse(plot1.getMembers().contains("alice"));
+
+        changed = manager.applyBulk(RegionSelectors.withFlag(Flags.PVP, StateFlag.State.ALLOW),
+                new RegionChangeSet().addMembers(members));
+        assertTrue(changed.isEmpty());
+    }
+
+    @Test
+    public void testByArea() {
+        ProtectedRegion area = new ProtectedCuboidRegion("area", BlockVector3.at(5, 0, 5), BlockVector3.at(25, 5, 5));
+        List<ProtectedRegion> changed = manager.applyBulk(
+                RegionSelectors.intersecting(area).and(RegionSelectors.childrenOf(parent)),
+                new RegionChangeSet().setFlag(Flags.GREET_MESSAGE, "Ahoj"));
+
+        assertEquals(2, changed.size());
+        assertEquals("Ahoj", plot2.getFlag(Flags.GREET_MESSAGE));
+    }
+
+    @Test
+    public void testChangesReportedOnce() {
+        long version = manager.getVersion();
+        assertFalse(manager.isFlagPresent(Flags.PVP));
+
+        List<ProtectedRegion> changed = manager.applyBulk(RegionSelectors.childrenOf(parent),
+                new RegionChangeSet().setFlag(Flags.PVP, StateFlag.State.DENY));
+
+        assertEquals(2, changed.size());
+        assertEquals(version + 1, manager.getVersion());
+        assertTrue(manager.isFlagPresent(Flags.PVP));
+        assertEquals(StateFlag.State.DENY, manager.getSnapshot().getRegion("plot1").getFlag(Flags.PVP));
+
+        // Regions report their own changes again afterwards
+        plot1.setFlag(Flags.PVP, null);
+        plot2.setFlag(Flags.PVP, null);
+        assertFalse(manager.isFlagPresent(Flags.PVP));
+    }
+
+    @Test
+    public void testFailureRestoresRegions() {
+        FailingFlag failing = new FailingFlag();
+        plot2.setFlag(failing, new Object() {
+            @Override
+            public boolean equals(Object obj) {
+                throw new IllegalStateException("broken");
+            }
+
+            @Override
+            public int hashCode() {
+                return 0;
+            }
+        });
+        plot2.setDirty(false);
+        long version = manager.getVersion();
+
+        DefaultDomain members = new DefaultDomain();
+        members.addPlayer("alice");
+        RegionChangeSet changes = new RegionChangeSet()
+                .setFlag(Flags.PVP, StateFlag.State.DENY)
+                .setFlag(failing, "value")
+                .addMembers(members);
+        assertThrows(IllegalStateException.class, () -> manager.applyBulk(RegionSelectors.childrenOf(parent), changes));
+
+        assertEquals(version, manager.getVersion());
+        assertFalse(manager.isFlagPresent(Flags.PVP));
+        for (ProtectedRegion region : Arrays.asList(plot1, plot2)) {
+            assertNull(region.getFlag(Flags.PVP));
+            assertFalse(region.getMembers().contains("alice"));
+            assertFalse(region.isDirty());
+        }
+
+        plot1.setFlag(Flags.PVP, StateFlag.State.DENY);
+        assertTrue(manager.isFlagPresent(Flags.PVP));
+    }
+
+    private static class FailingFlag extends Flag<Object> {
+        private FailingFlag() {
+            super("failing-test-flag");
+        }
+
+        @Override
+        public Object parseInput(FlagContext context) {
+            return context.getUserInput();
+        }
+
+        @Override
+        public Object unmarshal(Object o) {
+            return o;
+        }
+
+        @Override
+        public Object marshal(Object o) {
+            return o;
+        }
+    }
+
+}
@@ -0,0 +1,200 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.protection;
+
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.domains.DefaultDomain;
+import com.sk89q.worldguard.protection.flags.Flag;
+import com.sk89q.worldguard.protection.flags.Flags;
+import com.sk89q.worldguard.protection.flags.StateFlag;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.managers.index.HashMapIndex;
+import com.sk89q.worldguard.protection.managers.storage.MemoryRegionDatabase;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.regions.RegionChangeListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RegionChangeFeedTest {
+
+    private RegionManager manager;
+    private ProtectedRegion region;
+    private List<String> events;
+
+    @BeforeEach
+    public void setUp() {
+        manager = new RegionManager(new MemoryRegionDatabase(), new HashMapIndex.Factory(),
+                WorldGuard.getInstance().getFlagRegistry());
+        region = new ProtectedCuboidRegion("test", BlockVector3.at(0, 0, 0), BlockVector3.at(10, 10, 10));
+        events = new ArrayList<>();
+        manager.addChangeListener(new RecordingListener());
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        manager.addRegion(region);
+        manager.removeRegion("test");
+        assertEquals(Arrays.asList("added test", "removed test"), events);
+    }
+
+    @Test
+    public void testParentsReported() throws Exception {
+        ProtectedRegion parent = new ProtectedCuboidRegion("parent", BlockVector3.at(0, 0, 0), BlockVector3.at(20, 20, 20));
+        region.setParent(parent);
+        region.setPriority(5);
+        assertTrue(events.isEmpty());
+
+        manager.addRegion(region);
+        assertEquals(Arrays.asList("added test", "added parent"), events);
+
+        events.clear();
+        region.clearParent();
+        assertEquals(Collections.singletonList("parent test parent -> null"), events);
+    }
+
+    @Test
+    public void testRedefineReported() {
+        manager.addRegion(region);
+        events.clear();
+
+        manager.addRegion(new ProtectedCuboidRegion("test", BlockVector3.at(0, 0, 0), BlockVector3.at(20, 20, 20)));
+        assertEquals(Arrays.asList("removed test", "added test"), events);
+
+        events.clear();
+        region.setFlag(Flags.PVP, StateFlag.State.DENY);
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testFlagValues() {
+        manager.addRegion(region);
+        events.clear();
+
+        region.setFlag(Flags.PVP, StateFlag.State.DENY);
+        region.setFlag(Flags.PVP, StateFlag.State.DENY);
+        region.setFlag(Flags.PVP, StateFlag.State.ALLOW);
+        region.setFlag(Flags.PVP, null);
+        assertEquals(Arrays.asList(
+                "flag test pvp null -> DENY",
+                "flag test pvp DENY -> ALLOW",
+                "flag test pvp ALLOW -> null"), events);
+    }
+
+    @Test
+    public void testFlagPresenceFollowsFeed() {
+        manager.addRegion(region);
+        assertFalse(manager.isFlagPresent(Flags.PVP));
+
+        region.setFlag(Flags.PVP, StateFlag.State.DENY);
+        assertTrue(manager.isFlagPresent(Flags.PVP));
+
+        manager.removeRegion("test");
+        assertFalse(manager.isFlagPresent(Flags.PVP));
+    }
+
+    @Test
+    public void testPriorityAndDomains() {
+        manager.addRegion(region);
+        events.clear();
+
+        region.setPriority(3);
+        region.getOwners().addPlayer(UUID.randomUUID());
+        region.getMembers().addGroup("builders");
+        assertEquals(Arrays.asList("priority test 0 -> 3", "owners test", "members test"), events);
+    }
+
+    @Test
+    public void testReplacedDomainStillReported() {
+        manager.addRegion(region);
+        region.setOwners(new DefaultDomain());
+        events.clear();
+
+        region.getOwners().addPlayer("someone");
+        assertEquals(Collections.singletonList("owners test"), events);
+    }
+
+    @Test
+    public void testNoEventsAfterRemoval() {
+        manager.addRegion(region);
+        manager.removeRegion("test");
+        events.clear();
+
+        region.setFlag(Flags.PVP, StateFlag.State.DENY);
+        region.getMembers().addPlayer("someone");
+        assertTrue(events.isEmpty());
+    }
+
+    private final class RecordingListener implements RegionChangeListener {
+        @Override
+        public void onRegionAdded(ProtectedRegion region) {
+            events.add("added " + region.getId());
+        }
+
+        @Override
+        public void onRegionRemoved(ProtectedRegion region) {
+            events.add("removed " + region.getId());
+        }
+
+        @Override
+        public void onGeometryChanged(ProtectedRegion region, BlockVector3 oldMinimumPoint, BlockVector3 oldMaximumPoint) {
+            events.add("geometry " + region.getId() + " " + oldMinimumPoint + "-" + oldMaximumPoint);
+        }
+
+        @Override
+        public void onPriorityChanged(ProtectedRegion region, int oldPriority, int newPriority) {
+            events.add("priority " + region.getId() + " " + oldPriority + " -> " + newPriority);
+        }
+
+        @Override
+        public void onParentChanged(ProtectedRegion region, @Nullable ProtectedRegion oldParent, @Nullable ProtectedRegion newParent) {
+            events.add("parent " + region.getId() + " " + (oldParent != null ? oldParent.getId() : null)
+                    + " -> " + (newParent != null ? newParent.getId() : null));
+        }
+
+        @Override
+        public void onFlagChanged(ProtectedRegion region, Flag<?> flag, @Nullable Object oldValue, @Nullable Object newValue) {
+            events.add("flag " + region.getId() + " " + flag.getName() + " " + oldValue + " -> " + newValue);
+        }
+
+        @Override
+        public void onOwnersChanged(ProtectedRegion region) {
+            events.add("owners " + region.getId());
+        }
+
+        @Override
+        public void onMembersChanged(ProtectedRegion region) {
+            events.add("members " + region.getId());
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.protection;
+
+import com.google.common.collect.ImmutableSet;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.TestPlayer;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.domains.DefaultDomain;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.managers.RegionMembershipIndex;
+import com.sk89q.worldguard.protection.managers.index.HashMapIndex;
+import com.sk89q.worldguard.protection.managers.storage.MemoryRegionDatabase;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RegionMembershipIndexTest {
+
+    private RegionManager manager;
+    private RegionMembershipIndex index;
+    private TestPlayer player;
+    private ProtectedRegion home;
+    private ProtectedRegion shop;
+
+    @BeforeEach
+    public void setUp() {
+        manager = new RegionManager(new MemoryRegionDatabase(), new HashMapIndex.Factory(),
+                WorldGuard.getInstance().getFlagRegistry());
+        index = manager.getMembershipIndex();
+        player = new TestPlayer("Alice");
+        home = new ProtectedCuboidRegion("home", BlockVector3.at(0, 0, 0), BlockVector3.at(10, 10, 10));
+        shop = new ProtectedCuboidRegion("shop", BlockVector3.at(20, 0, 0), BlockVector3.at(30, 10, 10));
+    }
+
+    @Test
+    public void testRegionsIndexedWhenAdded() {
+        home.getOwners().addPlayer(player.getUniqueId());
+        manager.addRegion(home);
+        manager.addRegion(shop);
+
+        assertEquals(ImmutableSet.of(home), index.getOwnedRegions(player));
+        assertEquals(1, manager.getRegionCountOfPlayer(player));
+
+        manager.removeRegion("home");
+        assertEquals(0, manager.getRegionCountOfPlayer(player));
+    }
+
+    @Test
+    public void testDomainChangesIndexed() {
+        manager.addRegion(home);
+        manager.addRegion(shop);
+
+        home.getOwners().addPlayer(player.getUniqueId());
+        shop.getMembers().addPlayer("alice");
+        assertEquals(ImmutableSet.of(home), index.getOwnedRegions(player.getUniqueId()));
+        assertEquals(ImmutableSet.of(shop), index.getMemberRegions(player));
+        assertEquals(ImmutableSet.of(shop), index.getMemberRegions("Alice"));
+
+        home.getOwners().removePlayer(player.getUniqueId());
+        assertTrue(index.getOwnedRegions(player).isEmpty());
+
+        DefaultDomain owners = new DefaultDomain();
+        owners.addPlayer(player.getUniqueId());
+        shop.setOwners(owners);
+        assertEquals(ImmutableSet.of(shop), index.getOwnedRegions(player));
+    }
+
+    @Test
+    public void testGroups() {
+        player.addGroup("builders");
+        home.getOwners().addGroup("builders");
+        shop.getOwners().addPlayer(player.getUniqueId());
+        manager.addRegion(home);
+        manager.addRegion(shop);
+
+        assertEquals(ImmutableSet.of(home, shop), index.getOwnedRegions(player));
+        assertEquals(2, manager.getRegionCountOfPlayer(player));
+        assertEquals(0, manager.getRegionCountOfPlayer(new TestPlayer("Bob")));
+    }
+
+}
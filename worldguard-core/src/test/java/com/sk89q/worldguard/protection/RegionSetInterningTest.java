@@ -0,0 +1,85 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.protection;
+
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.protection.flags.Flags;
+import com.sk89q.worldguard.protection.flags.StateFlag;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.managers.index.HashMapIndex;
+import com.sk89q.worldguard.protection.managers.storage.MemoryRegionDatabase;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class RegionSetInterningTest {
+
+    private RegionManager manager;
+    private ProtectedRegion region;
+
+    @BeforeEach
+    public void setUp() {
+        manager = new RegionManager(new MemoryRegionDatabase(), new HashMapIndex.Factory(),
+                WorldGuard.getInstance().getFlagRegistry());
+        region = new ProtectedCuboidRegion("test", BlockVector3.at(0, 0, 0), BlockVector3.at(100, 100, 100));
+        manager.addRegion(region);
+    }
+
+    @Test
+    public void testSetsShared() {
+        ApplicableRegionSet first = manager.getApplicableRegions(BlockVector3.at(1, 1, 1));
+        ApplicableRegionSet second = manager.getApplicableRegions(BlockVector3.at(50, 50, 50));
+        assertSame(first, second);
+        assertNotSame(first, manager.getApplicableRegions(BlockVector3.at(200, 1, 1)));
+    }
+
+    @Test
+    public void testSharedSetsFollowChanges() {
+        ApplicableRegionSet before = manager.getApplicableRegions(BlockVector3.at(1, 1, 1));
+        assertNull(before.queryState(null, Flags.PVP));
+
+        region.setFlag(Flags.PVP, StateFlag.State.DENY);
+        assertEquals(StateFlag.State.DENY, before.queryState(null, Flags.PVP));
+
+        ApplicableRegionSet after = manager.getApplicableRegions(BlockVector3.at(1, 1, 1));
+        assertNotSame(before, after);
+        assertEquals(StateFlag.State.DENY, after.queryValue(null, Flags.PVP));
+    }
+
+    @Test
+    public void testSetsSurviveChangesElsewhere() {
+        RegionManager other = new RegionManager(new MemoryRegionDatabase(), new HashMapIndex.Factory(),
+                WorldGuard.getInstance().getFlagRegistry());
+        ProtectedRegion elsewhere = new ProtectedCuboidRegion("elsewhere", BlockVector3.at(0, 0, 0), BlockVector3.at(1, 1, 1));
+        other.addRegion(elsewhere);
+
+        ApplicableRegionSet before = manager.getApplicableRegions(BlockVector3.at(1, 1, 1));
+        elsewhere.setFlag(Flags.PVP, StateFlag.State.DENY);
+        assertSame(before, manager.getApplicableRegions(BlockVector3.at(1, 1, 1)));
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.protection;
+
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.protection.flags.Flags;
+import com.sk89q.worldguard.protection.flags.StateFlag;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.managers.RegionSnapshot;
+import com.sk89q.worldguard.protection.managers.index.PriorityRTreeIndex;
+import com.sk89q.worldguard.protection.managers.storage.MemoryRegionDatabase;
+import com.sk89q.worldguard.protection.regions.GlobalProtectedRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RegionSnapshotTest {
+
+    private RegionManager manager;
+    private ProtectedRegion parent;
+    private ProtectedRegion child;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        manager = new RegionManager(new MemoryRegionDatabase(), new PriorityRTreeIndex.Factory(),
+                WorldGuard.getInstance().getFlagRegistry());
+
+        manager.addRegion(new GlobalProtectedRegion(ProtectedRegion.GLOBAL_REGION));
+
+        parent = new ProtectedCuboidRegion("parent", BlockVector3.at(0, 0, 0), BlockVector3.at(100, 100, 100));
+        parent.setFlag(Flags.PVP, StateFlag.State.DENY);
+        child = new ProtectedCuboidRegion("child", BlockVector3.at(10, 10, 10), BlockVector3.at(20, 20, 20));
+        child.setParent(parent);
+        manager.addRegion(parent);
+        manager.addRegion(child);
+    }
+
+    @Test
+    public void testRegionsAreCopied() {
+        RegionSnapshot snapshot = manager.getSnapshot();
+
+        assertEquals(3, snapshot.size());
+        ProtectedRegion copy = snapshot.getRegion("CHILD");
+        assertNotSame(child, copy);
+        assertSame(snapshot.getRegion("parent"), copy.getParent());
+        assertEquals(StateFlag.State.DENY, copy.getParent().getFlag(Flags.PVP));
+    }
+
+    @Test
+    public void testQuery() {
+        RegionSnapshot snapshot = manager.getSnapshot();
+
+        ApplicableRegionSet set = snapshot.getApplicableRegions(BlockVector3.at(15, 15, 15));
+        assertEquals(2, set.size());
+        assertEquals(StateFlag.State.DENY, set.queryState(null, Flags.PVP));
+
+        assertEquals(0, snapshot.getApplicableRegions(BlockVector3.at(200, 15, 15)).size());
+    }
+
+    @Test
+    public void testUpdate() {
+        RegionSnapshot snapshot = manager.getSnapshot();
+
+        parent.setFlag(Flags.PVP, StateFlag.State.ALLOW);
+        assertEquals(StateFlag.State.DENY, snapshot.getRegion("parent").getFlag(Flags.PVP));
+
+        manager.updateSnapshot();
+        assertNotSame(snapshot, manager.getSnapshot());
+        assertEquals(StateFlag.State.ALLOW, manager.getSnapshot().getRegion("parent").getFlag(Flags.PVP));
+
+        manager.removeRegion("child");
+        manager.updateSnapshot();
+        assertTrue(manager.getSnapshot().getApplicableRegions(BlockVector3.at(15, 15, 15)).getRegions().stream()
+                .noneMatch(region -> region.getId().equals("child")));
+    }
+
+    @Test
+    public void testUpdateBeforeUse() {
+        manager.updateSnapshot(); // Not used yet, so nothing to update
+        RegionSnapshot snapshot = manager.getSnapshot();
+        assertEquals(3, snapshot.size());
+        manager.updateSnapshot();
+        assertSame(snapshot, manager.getSnapshot());
+
+        parent.setFlag(Flags.PVP, StateFlag.State.ALLOW);
+        manager.updateSnapshot();
+        assertNotSame(snapshot, manager.getSnapshot());
+    }
+
+    @Test
+    public void testVersionIsPerManager() {
+        RegionManager other = new RegionManager(new MemoryRegionDatabase(), new PriorityRTreeIndex.Factory(),
+                WorldGuard.getInstance().getFlagRegistry());
+        manager.updateSnapshot();
+        other.updateSnapshot();
+        RegionSnapshot snapshot = manager.getSnapshot();
+        long version = manager.getVersion();
+
+        other.addRegion(new ProtectedCuboidRegion("elsewhere", BlockVector3.at(0, 0, 0), BlockVector3.at(1, 1, 1)));
+        other.updateSnapshot();
+        assertEquals(version, manager.getVersion());
+
+        manager.updateSnapshot();
+        assertSame(snapshot, manager.getSnapshot());
+
+        child.setPriority(5);
+        assertNotEquals(version, manager.getVersion());
+    }
+
+}
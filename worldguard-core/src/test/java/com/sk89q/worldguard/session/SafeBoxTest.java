@@ -0,0 +1,104 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.session;
+
+import com.sk89q.worldedit.math.BlockVector2;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.regions.GlobalProtectedRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedPolygonalRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SafeBoxTest {
+
+    private static final int RADIUS = 16;
+
+    private List<ProtectedRegion> regions;
+
+    @BeforeEach
+    public void setUp() {
+        ProtectedRegion outer = new ProtectedCuboidRegion("outer", BlockVector3.at(-10, 0, -10), BlockVector3.at(10, 100, 10));
+        ProtectedRegion inner = new ProtectedCuboidRegion("inner", BlockVector3.at(2, 50, 2), BlockVector3.at(5, 60, 5));
+        ProtectedRegion polygon = new ProtectedPolygonalRegion("polygon", Arrays.asList(
+                BlockVector2.at(-30, -30), BlockVector2.at(-20, -30), BlockVector2.at(-20, -20), BlockVector2.at(-30, -20)), 0, 100);
+        regions = Arrays.asList(new GlobalProtectedRegion("__global__"), outer, inner, polygon);
+    }
+
+    @Test
+    public void testBoundedByRegionEdges() {
+        SafeBox box = SafeBox.around(BlockVector3.at(0, 10, 0), regions, RADIUS);
+        assertNotNull(box);
+        assertTrue(box.contains(-10, 10, -10));
+        assertTrue(box.contains(1, 20, 1));
+        assertFalse(box.contains(11, 10, 0));
+        assertFalse(box.contains(3, 55, 3));
+    }
+
+    @Test
+    public void testPolygonEdge() {
+        assertNull(SafeBox.around(BlockVector3.at(-25, 10, -20), regions, RADIUS));
+        SafeBox box = SafeBox.around(BlockVector3.at(-25, 10, -25), regions, RADIUS);
+        assertNotNull(box);
+        assertTrue(box.contains(-29, 10, -21));
+        assertFalse(box.contains(-25, 10, -30));
+    }
+
+    @Test
+    public void testSameRegionsWithinBox() {
+        for (int x = -40; x <= 20; x += 3) {
+            for (int y = -10; y <= 110; y += 7) {
+                for (int z = -40; z <= 20; z += 3) {
+                    BlockVector3 point = BlockVector3.at(x, y, z);
+                    SafeBox box = SafeBox.around(point, regions, RADIUS);
+                    if (box != null) {
+                        assertSameRegions(point, box);
+                    }
+                }
+            }
+        }
+    }
+
+    private void assertSameRegions(BlockVector3 point, SafeBox box) {
+        for (int x = point.getBlockX() - RADIUS; x <= point.getBlockX() + RADIUS; x += 2) {
+            for (int y = point.getBlockY() - RADIUS; y <= point.getBlockY() + RADIUS; y += 2) {
+                for (int z = point.getBlockZ() - RADIUS; z <= point.getBlockZ() + RADIUS; z += 2) {
+                    if (box.contains(x, y, z)) {
+                        for (ProtectedRegion region : regions) {
+                            assertEquals(region.contains(point), region.contains(x, y, z),
+                                    region.getId() + " at " + point + " and " + BlockVector3.at(x, y, z));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -185,6 +185,19 @@ public void testApply() throws Exception {
         assertSubcommands(filter, "/other between subpermit1", false);
     }
 
+    @Test
+    public void testNormalization() {
+        CommandFilter filter = new Builder()
+                .permit("/Permit1", "/parent  PERMIT2")
+                .build();
+        assertEquals(filter.apply("/PERMIT1"), true);
+        assertEquals(filter.apply("/worldguard:permit1 sub"), true);
+        assertEquals(filter.apply("/Parent\tpermit2"), true);
+        assertEquals(filter.apply("/parent:other permit2"), false);
+        assertEquals(filter.apply("/parent other:permit2"), false);
+        assertEquals(filter.apply(" /permit1"), false);
+    }
+
     private void assertSubcommands(CommandFilter filter, final String root, boolean expected) {
         for (String separator : COMMAND_SEPARATORS) {
             assertEquals(filter.apply(root.replaceAll(" ", separator)), expected);
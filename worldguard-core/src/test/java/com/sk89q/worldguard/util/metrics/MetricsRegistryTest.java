@@ -0,0 +1,97 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.util.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void testBuckets() {
+        int last = -1;
+        for (long value : new long[] { 0, 1, 7, 8, 9, 15, 16, 1000, 123456789, Long.MAX_VALUE }) {
+            int bucket = LatencyHistogram.getBucket(value);
+            assertTrue(bucket >= last);
+            assertTrue(LatencyHistogram.getUpperBound(bucket) >= value);
+            assertTrue(LatencyHistogram.getUpperBound(bucket) - value <= value / 8);
+            last = bucket;
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(500500, histogram.getMean(), 0.001);
+        assertTrue(Math.abs(histogram.getPercentile(50) - 500000) <= 500000 / 8);
+        assertTrue(Math.abs(histogram.getPercentile(99) - 990000) <= 990000 / 8);
+        assertEquals(1000000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testPrometheus() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        assertSame(registry.counter("test_total", "flag", "build"), registry.counter("test_total", "flag", "build"));
+        registry.counter("test_total", "flag", "build").add(3);
+        registry.histogram("test_seconds").record(2000000000L);
+
+        StringBuilder out = new StringBuilder();
+        registry.writePrometheus(out);
+        String text = out.toString();
+
+        assertTrue(text.contains("# TYPE test_total counter\n"));
+        assertTrue(text.contains("test_total{flag=\"build\"} 3\n"));
+        assertTrue(text.contains("# TYPE test_seconds summary\n"));
+        assertTrue(text.contains("test_seconds{quantile=\"0.5\"} 2.0\n"));
+        assertTrue(text.contains("test_seconds_sum 2.0\n"));
+        assertTrue(text.contains("test_seconds_count 1\n"));
+    }
+
+    @Test
+    public void testResetKeepsMetrics() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter counter = registry.counter("test_total");
+        LatencyHistogram histogram = registry.histogram("test_seconds");
+        counter.add(3);
+        histogram.record(1000);
+
+        registry.reset();
+
+        assertSame(counter, registry.counter("test_total"));
+        assertSame(histogram, registry.histogram("test_seconds"));
+        assertEquals(0, counter.get());
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(50));
+
+        histogram.record(2000);
+        assertEquals(1, registry.getHistograms().get("test_seconds").getCount());
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.util.profiler;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ContinuousSamplerTest {
+
+    private static final StackTraceElement MAIN = new StackTraceElement("Server", "tick", "Server.java", 10);
+    private static final StackTraceElement QUERY = new StackTraceElement("Query", "test", "Query.java", 20);
+    private static final StackTraceElement QUERY_OTHER_LINE = new StackTraceElement("Query", "test", "Query.java", 30);
+    private static final StackTraceElement SAVE = new StackTraceElement("Store", "save", "Store.java", 40);
+
+    @Test
+    public void testCollapsedStacks() throws IOException {
+        ContinuousSampler sampler = new ContinuousSampler(1, 10, 1000, 10, 64);
+        sampler.record(new StackTraceElement[] { QUERY, MAIN }, 0);
+        sampler.record(new StackTraceElement[] { QUERY_OTHER_LINE, MAIN }, 10);
+        sampler.record(new StackTraceElement[] { SAVE, MAIN }, 20);
+
+        StringBuilder out = new StringBuilder();
+        sampler.writeCollapsed(out, 30);
+        assertEquals("Server.tick;Query.test 2\nServer.tick;Store.save 1\n", out.toString());
+        assertEquals(3, sampler.getSampleCount());
+    }
+
+    @Test
+    public void testRollingWindow() throws IOException {
+        ContinuousSampler sampler = new ContinuousSampler(1, 10, 1000, 10, 64);
+        sampler.record(new StackTraceElement[] { QUERY, MAIN }, 0);
+        sampler.record(new StackTraceElement[] { SAVE, MAIN }, 500);
+
+        StringBuilder out = new StringBuilder();
+        sampler.writeCollapsed(out, 1050);
+        assertEquals("Server.tick;Store.save 1\n", out.toString());
+
+        out = new StringBuilder();
+        sampler.writeCollapsed(out, 5000);
+        assertEquals("", out.toString());
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.util.report;
+
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.sk89q.worldedit.util.report.DataReport;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReportWriterTest {
+
+    @Test
+    public void testSectionsWrittenInOrder() throws Exception {
+        File file = File.createTempFile("report", ".txt");
+        file.deleteOnExit();
+
+        ReportWriter writer = new ReportWriter("Test");
+        DataReport first = new DataReport("First Section");
+        first.append("Key", "Value");
+        writer.add(first);
+        writer.addDeferred(() -> {
+            throw new IllegalStateException("broken");
+        });
+        writer.addDeferred(() -> new DataReport("Last Section"));
+
+        writer.write(MoreExecutors.newDirectExecutorService(), file).get();
+
+        String content = Files.asCharSource(file, StandardCharsets.UTF_8).read();
+        int firstIndex = content.indexOf("First Section");
+        int failedIndex = content.indexOf("broken");
+        int lastIndex = content.indexOf("Last Section");
+        assertTrue(content.contains("BEGIN REPORT: Test"));
+        assertTrue(firstIndex >= 0);
+        assertTrue(failedIndex > firstIndex);
+        assertTrue(lastIndex > failedIndex);
+    }
+
+}
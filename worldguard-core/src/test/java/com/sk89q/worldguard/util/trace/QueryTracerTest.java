@@ -0,0 +1,82 @@
+/*
+ * WorldGuard, a suite of tools for Minecraft
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldGuard team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldguard.util.trace;
+
+import com.sk89q.worldguard.protection.flags.Flags;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class QueryTracerTest {
+
+    @Test
+    public void testDisabled() {
+        QueryTracer tracer = new QueryTracer();
+        assertNull(tracer.begin());
+        tracer.recordFlag(Flags.BUILD);
+        assertTrue(tracer.getTraces().isEmpty());
+    }
+
+    @Test
+    public void testTrace() {
+        QueryTracer tracer = new QueryTracer();
+        tracer.configure(1, 16);
+
+        QueryTrace trace = tracer.begin();
+        assertNotNull(trace);
+        assertNull(tracer.begin()); // Nested events are part of the outer trace
+        tracer.recordFlag(Flags.BUILD);
+        tracer.recordFlag(Flags.PVP);
+        tracer.recordFlag(Flags.BUILD);
+        tracer.end(trace, "PlaceBlockEvent");
+        tracer.recordFlag(Flags.USE); // Not sampled
+
+        List<QueryTrace> traces = tracer.getTraces();
+        assertEquals(1, traces.size());
+        assertEquals("PlaceBlockEvent", traces.get(0).getEventType());
+        assertEquals(2, traces.get(0).getFlags().size());
+        assertTrue(traces.get(0).getNanos() >= 0);
+    }
+
+    @Test
+    public void testRingBuffer() {
+        QueryTracer tracer = new QueryTracer();
+        tracer.configure(1, 3);
+
+        for (int i = 0; i < 5; i++) {
+            tracer.end(tracer.begin(), "Event" + i);
+        }
+
+        List<QueryTrace> traces = tracer.getTraces();
+        assertEquals(3, traces.size());
+        assertEquals("Event2", traces.get(0).getEventType());
+        assertEquals("Event4", traces.get(2).getEventType());
+
+        tracer.clear();
+        assertEquals(Collections.emptyList(), tracer.getTraces());
+    }
+
+}